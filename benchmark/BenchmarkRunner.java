@@ -0,0 +1,40 @@
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * This is the main entry class of the benchmarks.
+ * <p>
+ * It runs the benchmarks matching the given regular expression (or all of them),
+ * reporting the throughput in operations per second, along with the allocation rate
+ * per operation ({@code gc.alloc.rate.norm}) as reported by the GC profiler.
+ * <p>
+ * The results can also be written in a machine-readable format to {@code jmh-result.csv}
+ * or {@code jmh-result.json}, so that the regressions can be tracked across runs.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * The main entry function of the benchmarks.
+     *
+     * @param args an optional regular expression of the benchmarks to run,
+     *             and an optional result format of either {@code csv} or {@code json}.
+     */
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(args.length > 0 ? args[0] : ".*Benchmark.*")
+                .addProfiler(GCProfiler.class);
+
+        if (args.length > 1) {
+            builder.resultFormat(ResultFormatType.valueOf(args[1].toUpperCase()))
+                    .result("jmh-result." + args[1].toLowerCase());
+        }
+
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,74 @@
+package algorithms.dispatcher;
+
+import algorithms.dispatcher.task_allocator_helpers.HungarianSolver;
+
+import org.jgrapht.Graph;
+import org.jgrapht.alg.matching.KuhnMunkresMinimalWeightBipartitePerfectMatching;
+import org.jgrapht.graph.DefaultWeightedEdge;
+import org.jgrapht.graph.SimpleWeightedGraph;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * This {@code AgentAssignerBenchmark} class compares the array-based {@link HungarianSolver}
+ * against the graph-based Kuhn-Munkres implementation of jgrapht on random square cost matrices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentAssignerBenchmark {
+
+    @Param({"20", "200"})
+    public int size;
+
+    private int[][] cost;
+
+    private Graph<Integer, DefaultWeightedEdge> graph;
+
+    private Set<Integer> racks;
+
+    private Set<Integer> agents;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(19);
+
+        cost = new int[size][size];
+        graph = new SimpleWeightedGraph<>(DefaultWeightedEdge.class);
+        racks = new HashSet<>();
+        agents = new HashSet<>();
+
+        for (int i = 0; i < size; ++i) {
+            racks.add(i);
+            agents.add(size + i);
+            graph.addVertex(i);
+            graph.addVertex(size + i);
+        }
+
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                cost[i][j] = random.nextInt(1000);
+                DefaultWeightedEdge edge = graph.addEdge(i, size + j);
+                graph.setEdgeWeight(edge, cost[i][j]);
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] hungarianSolver() {
+        return HungarianSolver.solve(cost);
+    }
+
+    @Benchmark
+    public Object jgraphtKuhnMunkres() {
+        return new KuhnMunkresMinimalWeightBipartitePerfectMatching<>(graph, racks, agents).getMatching();
+    }
+}
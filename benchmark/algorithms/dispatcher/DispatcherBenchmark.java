@@ -0,0 +1,268 @@
+package algorithms.dispatcher;
+
+import algorithms.dispatcher.task_allocator_helpers.RackSelectorHelper;
+
+import models.facilities.Gate;
+import models.facilities.Rack;
+import models.items.Item;
+import models.tasks.Task;
+import models.tasks.orders.CollectOrder;
+import models.tasks.orders.Order;
+import models.tasks.orders.OrderListener;
+import models.warehouses.Warehouse;
+import models.warehouses.WarehouseGenerator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * This {@code DispatcherBenchmark} class measures the {@link Dispatcher} over synthetic inventories
+ * and order streams, guarding both the speed and the quality of the dispatching.
+ * <p>
+ * The warehouses are generated with the given numbers of racks and item types, and the orders
+ * are generated with up to the given number of lines, whose items follow a Zipf distribution
+ * of popularity of the given exponent.
+ * <p>
+ * All the benchmarks process the whole order stream per invocation, and report the time
+ * and the allocations per order. The rack selection and the dispatching benchmarks also report
+ * the auxiliary counters of the selected racks and their estimated round-trip cost per order.
+ * The dispatching benchmark dispatches the whole order stream as a single fresh wave per invocation,
+ * since dispatching changes the inventory and the fleet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatcherBenchmark {
+
+    /**
+     * The number of orders in the generated order stream.
+     */
+    private static final int ORDERS_COUNT = 256;
+
+    /**
+     * The number of item types stored in every generated rack.
+     */
+    private static final int ITEMS_PER_RACK = 4;
+
+    /**
+     * The probability of an empty cell to hold an agent.
+     */
+    private static final double AGENT_DENSITY = 0.05;
+
+    @Param({"1000", "10000"})
+    public int racks;
+
+    @Param({"1000"})
+    public int items;
+
+    @Param({"0.8", "1.2"})
+    public double zipf;
+
+    @Param({"1", "10"})
+    public int lines;
+
+    private Warehouse warehouse;
+
+    private List<Order> orders;
+
+    /**
+     * The auxiliary counters of the dispatching quality, averaged per order.
+     * <p>
+     * The cost of every rack is the delivery cost estimated by the rack selection,
+     * that is, the round-trip cost of the candidate racks, or the marginal cost of riding along
+     * with the current trip of the rack, plus the expected wait at the gate.
+     * The racks of the dispatched orders are collected as their tasks get assigned,
+     * before the tasks are queued at the gates.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Quality implements OrderListener {
+
+        public double racksPerOrder;
+
+        public double costPerOrder;
+
+        private long orders, racks, cost;
+
+        private long assignedRacks, assignedCost;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            racksPerOrder = costPerOrder = 0;
+            orders = racks = cost = 0;
+            assignedRacks = assignedCost = 0;
+        }
+
+        /**
+         * Records the racks selected for the given {@code Order}.
+         *
+         * @param order    the {@code Order}.
+         * @param selected the list of the selected racks.
+         */
+        void record(Order order, List<Rack> selected) {
+            Gate gate = order.getDeliveryGate();
+            long total = 0;
+
+            for (Rack rack : selected) {
+                total += Dispatcher.getDeliveryCost(rack, gate);
+            }
+
+            record(selected.size(), total);
+        }
+
+        /**
+         * Records the racks of the tasks assigned to the last dispatched {@code Order}.
+         */
+        void recordAssigned() {
+            record(assignedRacks, assignedCost);
+            assignedRacks = assignedCost = 0;
+        }
+
+        /**
+         * Records the given number of racks and their total cost for a single order.
+         *
+         * @param count the number of racks.
+         * @param total the total cost of the racks.
+         */
+        private void record(long count, long total) {
+            racks += count;
+            cost += total;
+            racksPerOrder = 1. * racks / ++orders;
+            costPerOrder = 1. * cost / orders;
+        }
+
+        @Override
+        public void onStart(Order order) {
+
+        }
+
+        @Override
+        public void onTaskAssign(Order order, Task task) {
+            assignedRacks++;
+            assignedCost += Dispatcher.getDeliveryCost(task.getRack(), order.getDeliveryGate());
+        }
+
+        @Override
+        public void onTaskComplete(Order order, Task task, Map<Item, Integer> items) {
+
+        }
+
+        @Override
+        public void onFulfill(Order order) {
+
+        }
+
+        @Override
+        public void onDismiss(Order order) {
+
+        }
+    }
+
+    /**
+     * The fixture regenerating the warehouse and the order stream before every invocation,
+     * so that every invocation dispatches a single fresh wave.
+     */
+    @State(Scope.Thread)
+    public static class Wave {
+
+        @Setup(Level.Invocation)
+        public void setup(DispatcherBenchmark benchmark) throws Exception {
+            benchmark.setup();
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        warehouse = WarehouseGenerator.generateInventory(racks, items, ITEMS_PER_RACK, AGENT_DENSITY);
+        orders = generateOrders(warehouse, new Random(WarehouseGenerator.SEED));
+
+        // Receive the whole stream to dispatch it as a single wave
+        for (Order order : orders) {
+            warehouse.addOrder(order);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_COUNT)
+    public int candidateRacks() {
+        int ret = 0;
+
+        for (Order order : orders) {
+            ret += RackSelectorHelper.getCandidateRacks(order.iterator(), order.getDeliveryGate()).size();
+        }
+
+        return ret;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_COUNT)
+    public void selectRacks(Quality quality) {
+        for (Order order : orders) {
+            quality.record(order, Dispatcher.selectRacks(order, warehouse.getReadyAgents()));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_COUNT)
+    public int dispatch(Wave wave, Quality quality) {
+        for (Order order : orders) {
+            order.setListener(quality);
+            Dispatcher.dispatch(order, warehouse.getReadyAgents());
+            quality.recordAssigned();
+        }
+
+        return warehouse.getReadyAgents().size();
+    }
+
+    /**
+     * Generates a stream of {@link #ORDERS_COUNT} collect orders to the gates of the given {@code Warehouse}.
+     * <p>
+     * Every order has a random number of lines up to {@link #lines} of a single unit,
+     * whose items are drawn by their Zipf popularity ranks, skipping the lines exceeding the stock.
+     *
+     * @param warehouse the {@code Warehouse}.
+     * @param rand      the random generator.
+     *
+     * @return the list of generated orders.
+     */
+    private List<Order> generateOrders(Warehouse warehouse, Random rand) {
+        List<Gate> gates = new ArrayList<>(warehouse.getGateList());
+        gates.sort(Comparator.comparingInt(Gate::getId));
+
+        // Compute the cumulative distribution of the item popularity ranks
+        double[] cdf = new double[items];
+        double sum = 0;
+
+        for (int i = 0; i < items; ++i) {
+            cdf[i] = (sum += 1 / Math.pow(i + 1, zipf));
+        }
+
+        List<Order> ret = new ArrayList<>();
+
+        for (int id = 1; ret.size() < ORDERS_COUNT; ++id) {
+            Order order = new CollectOrder(id, gates.get(rand.nextInt(gates.size())));
+            int count = 1 + rand.nextInt(lines);
+
+            for (int i = 0; i < count; ++i) {
+                int rank = Arrays.binarySearch(cdf, rand.nextDouble() * sum);
+                Item item = warehouse.getItemById(1 + (rank >= 0 ? rank : -rank - 1));
+
+                if (item.getAvailableUnits() > order.get(item)) {
+                    order.add(item, 1);
+                }
+            }
+
+            if (order.getPendingUnits() > 0) {
+                ret.add(order);
+            }
+        }
+
+        return ret;
+    }
+}
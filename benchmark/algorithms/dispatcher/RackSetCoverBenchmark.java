@@ -0,0 +1,125 @@
+package algorithms.dispatcher;
+
+import algorithms.dispatcher.task_allocator_helpers.RackSetCover;
+
+import models.facilities.Gate;
+import models.facilities.Rack;
+import models.items.Item;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static algorithms.dispatcher.task_allocator_helpers.RackSelectorHelper.*;
+
+
+/**
+ * This {@code RackSetCoverBenchmark} class compares the array-based {@link RackSetCover}
+ * against the map-based rack selection for orders of 20 lines over 10k candidate racks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RackSetCoverBenchmark {
+
+    @Param({"1", "10"})
+    public int unitsPerLine;
+
+    private OrderBatch order;
+
+    private Map<Rack, Integer> candidates;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(19);
+        List<Item> items = new ArrayList<>();
+
+        order = new OrderBatch(new Gate(1));
+        for (int i = 1; i <= 20; ++i) {
+            Item item = new Item(i, 1);
+            items.add(item);
+            order.add(item, unitsPerLine);
+        }
+
+        // Every rack holds a few random lines of the order in bulk
+        candidates = new HashMap<>();
+        for (int j = 1; j <= 10000; ++j) {
+            Rack rack = new Rack(j, 100000, 10);
+
+            for (int c = 0; c < 3; ++c) {
+                rack.add(items.get(random.nextInt(items.size())), 1 + random.nextInt(15 * unitsPerLine));
+            }
+
+            candidates.put(rack, 1 + random.nextInt(200));
+        }
+    }
+
+    @Benchmark
+    public List<Rack> arrayBased() {
+        return new RackSetCover(order, candidates).select(r -> true, 100);
+    }
+
+    @Benchmark
+    public List<Rack> mapBased() {
+        Map<Rack, Integer> candidateRacks = new HashMap<>(candidates);
+        Map<Rack, Map<Item, Integer>> maxTakenItemsQs = new HashMap<>();
+        Map<Rack, Map<Item, Integer>> totalItemsQs = new HashMap<>();
+        for (var r : candidateRacks.keySet()) {
+            maxTakenItemsQs.put(r, rackOrderItemsSupply(r, order.iterator()));
+            totalItemsQs.put(r, rackMaxOrderItemsSupply(r, order.iterator()));
+        }
+
+        Map<Rack, Integer> selectedRacks = new HashMap<>();
+        Map<Item, Integer> selectedRacksItemsQs = new HashMap<>();
+
+        int orderTotalQs = order.getPendingUnits();
+
+        while (orderTotalQs > 0 && candidateRacks.size() > 0) {
+            Rack bestRack = null;
+            double bestRank = 1e9;
+
+            var it = candidateRacks.entrySet().iterator();
+            while (it.hasNext()) {
+                Rack rack = it.next().getKey();
+                int rackTotalItemSupply = maxTakenItemsQs.get(rack).values().stream().reduce(0, Integer::sum);
+
+                if (rackTotalItemSupply == 0 || candidateRacks.get(rack) == Integer.MAX_VALUE) {
+                    it.remove();
+                    continue;
+                }
+
+                double rackCostRate = 1. * candidateRacks.get(rack) / rackTotalItemSupply;
+
+                if (Double.compare(rackCostRate, bestRank) < 0) {
+                    bestRack = rack;
+                    bestRank = rackCostRate;
+                }
+            }
+
+            if (bestRack == null) {
+                break;
+            }
+
+            selectedRacks.put(bestRack, candidateRacks.remove(bestRack));
+
+            orderTotalQs = 0;
+            for (var itemEntry : order) {
+                Item item = itemEntry.getKey();
+                int bestRackQ = totalItemsQs.get(bestRack).get(item);
+
+                orderTotalQs += (itemEntry.getValue() - bestRackQ);
+                selectedRacksItemsQs.put(item, selectedRacksItemsQs.getOrDefault(item, 0) + bestRackQ);
+            }
+        }
+
+        if (selectedRacks.size() < 100) {
+            removeRedundantRack(selectedRacks, candidateRacks, selectedRacksItemsQs, order, true);
+        }
+
+        return new ArrayList<>(selectedRacks.keySet());
+    }
+}
@@ -0,0 +1,119 @@
+package algorithms.planner;
+
+import models.agents.Agent;
+import models.facilities.Facility;
+import models.facilities.Gate;
+import models.facilities.Rack;
+import models.warehouses.Warehouse;
+import models.warehouses.WarehouseGenerator;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * This {@code PlannerBenchmark} class measures the throughput of the {@link Planner} algorithms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlannerBenchmark {
+
+    /**
+     * The state of the guide map benchmark.
+     */
+    @State(Scope.Benchmark)
+    public static class GuideMapState {
+
+        @Param({
+                "data/1A_1R_1G.hive",
+                "data/4A_4R_4G.hive",
+                "data/multi_orders.hive",
+                "generated:100x100",
+                "generated:500x500"
+        })
+        public String map;
+
+        public Gate gate;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            Warehouse warehouse = WarehouseGenerator.load(map);
+            gate = warehouse.getGateById(1);
+        }
+    }
+
+    /**
+     * The state of the single-agent planning benchmark.
+     * <p>
+     * The scenarios are:
+     * <ul>
+     * <li>{@code empty}: an empty floor where the agent crosses the whole map.</li>
+     * <li>{@code dense}: a floor packed with racks where a loaded agent must follow the aisles.</li>
+     * <li>{@code congested}: a floor crowded with idle agents standing in the way.</li>
+     * </ul>
+     */
+    @State(Scope.Benchmark)
+    public static class PlanState {
+
+        @Param({"empty", "dense", "congested"})
+        public String scenario;
+
+        @Param({"50", "200"})
+        public int size;
+
+        public Agent source;
+
+        public Facility target;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            Warehouse warehouse;
+
+            switch (scenario) {
+                case "empty":
+                    warehouse = WarehouseGenerator.generate(size, size, 0.0, 0.0, 0);
+                    break;
+                case "dense":
+                    warehouse = WarehouseGenerator.generate(size, size, 1.0, 0.0, 0);
+                    break;
+                default:
+                    warehouse = WarehouseGenerator.generate(size, size, 0.3, 0.3, 0);
+                    break;
+            }
+
+            // Plan from the farthest agent
+            Gate gate = warehouse.getGateById(1);
+            source = warehouse.getAgentList().stream()
+                    .max(Comparator.comparingInt(a -> gate.getDistanceTo(a)))
+                    .orElseThrow();
+
+            // In the dense scenario, the agent carries a rack through the aisles
+            if (scenario.equals("dense")) {
+                Rack rack = warehouse.getRackById(1);
+                warehouse.get(source.getRow(), source.getCol()).setAgent(null);
+                warehouse.get(rack.getRow(), rack.getCol()).setAgent(source);
+                source.setPosition(rack.getRow(), rack.getCol());
+                rack.bind(source);
+            }
+
+            target = gate;
+        }
+    }
+
+    @Benchmark
+    public int[][] computeGuideMap(GuideMapState state) {
+        return Planner.computeGuideMap(state.gate.getRow(), state.gate.getCol());
+    }
+
+    @Benchmark
+    public Stack<Integer> plan(PlanState state) {
+        return Planner.plan(state.source, state.target);
+    }
+}
@@ -0,0 +1,71 @@
+package models.warehouses;
+
+import models.facilities.Gate;
+import models.items.Item;
+import models.tasks.orders.CollectOrder;
+import models.tasks.orders.Order;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * This {@code WarehouseBenchmark} class measures the throughput of full {@link Warehouse#run()} ticks
+ * while a steady stream of collect orders is being issued.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WarehouseBenchmark {
+
+    /**
+     * The number of time steps between two consecutive issued orders.
+     */
+    private static final int ORDER_INTERVAL = 2;
+
+    @Param({"data/4A_4R_4G.hive", "generated:50x50", "generated:100x100"})
+    public String map;
+
+    private Warehouse warehouse;
+
+    private Random rand;
+
+    private int nextOrderId;
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        warehouse = WarehouseGenerator.load(map);
+        rand = new Random(WarehouseGenerator.SEED);
+        nextOrderId = 1;
+    }
+
+    @Benchmark
+    public boolean run() {
+        if (warehouse.getTime() % ORDER_INTERVAL == 0) {
+            issueOrder();
+        }
+
+        return warehouse.run();
+    }
+
+    /**
+     * Issues a new random collect order of a single item if currently feasible.
+     */
+    private void issueOrder() {
+        Gate gate = warehouse.getGateById(1);
+        Item item = warehouse.getItemById(1 + rand.nextInt(WarehouseGenerator.ITEMS_COUNT));
+
+        if (gate == null || item == null || item.getAvailableUnits() < 1) {
+            return;
+        }
+
+        Order order = new CollectOrder(nextOrderId++, gate);
+        order.add(item, 1);
+        warehouse.addOrder(order);
+    }
+}
@@ -0,0 +1,291 @@
+package models.warehouses;
+
+import communicators.frontend.FrontendConstants;
+import communicators.frontend.utils.Decoder;
+
+import utils.Constants.*;
+import utils.Utility;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Random;
+
+
+/**
+ * This {@code WarehouseGenerator} class contains useful static functions to load
+ * the {@code Warehouse} used by the benchmarks.
+ * <p>
+ * A warehouse can either be loaded from a {@code .hive} configuration file,
+ * or be generated with a given size using a spec of the form {@code "generated:<rows>x<cols>"}.
+ */
+public class WarehouseGenerator {
+
+    //
+    // Static Variables
+    //
+
+    /**
+     * The prefix of the generated warehouse specs.
+     */
+    public static final String GENERATED_PREFIX = "generated:";
+
+    /**
+     * The number of item types in a generated warehouse.
+     */
+    public static final int ITEMS_COUNT = 20;
+
+    /**
+     * The number of units of every item type stored in a generated rack.
+     */
+    public static final int ITEM_UNITS_PER_RACK = 1000;
+
+    /**
+     * The seed of the random generator to keep the generated warehouses reproducible.
+     */
+    public static final long SEED = 55;
+
+    // ===============================================================================================
+    //
+    // Static Methods
+    //
+
+    /**
+     * Loads the {@code Warehouse} described by the given spec.
+     *
+     * @param spec either the path of a {@code .hive} file or a {@code "generated:<rows>x<cols>"} spec.
+     *
+     * @return the loaded {@code Warehouse}.
+     */
+    public static Warehouse load(String spec) throws Exception {
+        if (spec.startsWith(GENERATED_PREFIX)) {
+            String[] dims = spec.substring(GENERATED_PREFIX.length()).split("x");
+            int rows = Integer.parseInt(dims[0]);
+            int cols = Integer.parseInt(dims[1]);
+            return generate(rows, cols, 0.5, 0.02, 0);
+        }
+
+        String config = Utility.readFile(spec);
+        return Decoder.decodeWarehouse(new JSONObject(config), RunningMode.SIMULATION);
+    }
+
+    /**
+     * Generates and loads a new {@code Warehouse} with the given properties.
+     * <p>
+     * Gates are placed along the first row, racks are placed in blocks separated by aisles,
+     * and agents are scattered over the remaining empty cells.
+     *
+     * @param rows         the number of rows of the {@code Warehouse}.
+     * @param cols         the number of columns of the {@code Warehouse}.
+     * @param rackDensity  the probability of a block cell to hold a rack.
+     * @param agentDensity the probability of an empty cell to hold an agent.
+     * @param obstacles    the number of random obstacle cells.
+     *
+     * @return the generated {@code Warehouse}.
+     */
+    public static Warehouse generate(int rows, int cols, double rackDensity, double agentDensity, int obstacles) throws Exception {
+        return Decoder.decodeWarehouse(generateConfig(rows, cols, rackDensity, agentDensity, obstacles),
+                RunningMode.SIMULATION);
+    }
+
+    /**
+     * Generates the JSON configuration of a new {@code Warehouse} with the given properties.
+     *
+     * @param rows         the number of rows of the {@code Warehouse}.
+     * @param cols         the number of columns of the {@code Warehouse}.
+     * @param rackDensity  the probability of a block cell to hold a rack.
+     * @param agentDensity the probability of an empty cell to hold an agent.
+     * @param obstacles    the number of random obstacle cells.
+     *
+     * @return the JSON configuration to be decoded by {@link Decoder#decodeWarehouse(JSONObject, RunningMode)}.
+     */
+    public static JSONObject generateConfig(int rows, int cols, double rackDensity, double agentDensity, int obstacles) {
+        Random rand = new Random(SEED);
+        JSONObject[][] cells = new JSONObject[rows][cols];
+
+        int gateId = 0, rackId = 0, agentId = 0;
+
+        //
+        // Place the gates along the first row
+        //
+        for (int j = 0; j < cols; j += 8) {
+            cells[0][j] = encodeGate(++gateId);
+        }
+
+        //
+        // Place the racks in blocks of two rows separated by aisles
+        //
+        for (int i = 2; i < rows - 1; ++i) {
+            for (int j = 1; j < cols - 1; ++j) {
+                if (i % 3 == 1 || j % 6 == 0 || rand.nextDouble() >= rackDensity) {
+                    continue;
+                }
+
+                cells[i][j] = encodeRack(++rackId, rand);
+            }
+        }
+
+        //
+        // Place the random obstacles in the aisles
+        //
+        for (int k = 0; k < obstacles; ++k) {
+            int i = 1 + rand.nextInt(rows - 1);
+            int j = rand.nextInt(cols);
+
+            if (cells[i][j] == null) {
+                cells[i][j] = new JSONObject().put(FrontendConstants.KEY_TYPE, FrontendConstants.TYPE_CELL_OBSTACLE);
+            }
+        }
+
+        //
+        // Scatter the agents over the empty cells, with at least one agent
+        //
+        for (int i = 1; i < rows; ++i) {
+            for (int j = 0; j < cols; ++j) {
+                if (cells[i][j] == null && (agentId == 0 || rand.nextDouble() < agentDensity)) {
+                    cells[i][j] = encodeAgent(++agentId);
+                }
+            }
+        }
+
+        return encodeConfig(cells, ITEMS_COUNT);
+    }
+
+    /**
+     * Generates and loads a new square {@code Warehouse} holding the given number of racks
+     * stocked from the given number of item types.
+     * <p>
+     * Gates are placed along the first row, racks are placed in blocks separated by aisles,
+     * every rack stores {@link #ITEM_UNITS_PER_RACK} units of each of a few random item types,
+     * and agents are scattered over the remaining empty cells.
+     *
+     * @param racks        the number of racks of the {@code Warehouse}.
+     * @param items        the number of item types of the {@code Warehouse}.
+     * @param itemsPerRack the number of item types stored in every rack.
+     * @param agentDensity the probability of an empty cell to hold an agent.
+     *
+     * @return the generated {@code Warehouse}.
+     */
+    public static Warehouse generateInventory(int racks, int items, int itemsPerRack, double agentDensity) throws Exception {
+        Random rand = new Random(SEED);
+
+        // Two thirds of the rows and five sixths of the columns hold racks
+        int size = (int) Math.ceil(Math.sqrt(racks * 9 / 5.)) + 3;
+        JSONObject[][] cells = new JSONObject[size][size];
+
+        int gateId = 0, rackId = 0, agentId = 0;
+
+        for (int j = 0; j < size; j += 8) {
+            cells[0][j] = encodeGate(++gateId);
+        }
+
+        for (int i = 2; i < size - 1 && rackId < racks; ++i) {
+            for (int j = 1; j < size - 1 && rackId < racks; ++j) {
+                if (i % 3 == 1 || j % 6 == 0) {
+                    continue;
+                }
+
+                JSONArray itemsJSON = new JSONArray();
+
+                for (int id : rand.ints(1, items + 1).distinct().limit(Math.min(itemsPerRack, items)).toArray()) {
+                    itemsJSON.put(new JSONObject()
+                            .put(FrontendConstants.KEY_ID, id)
+                            .put(FrontendConstants.KEY_ITEM_QUANTITY, ITEM_UNITS_PER_RACK));
+                }
+
+                cells[i][j] = new JSONObject()
+                        .put(FrontendConstants.KEY_TYPE, FrontendConstants.TYPE_CELL_RACK)
+                        .put(FrontendConstants.KEY_ID, ++rackId)
+                        .put(FrontendConstants.KEY_RACK_CAPACITY, itemsPerRack * ITEM_UNITS_PER_RACK)
+                        .put(FrontendConstants.KEY_RACK_CONTAINER_WEIGHT, 0)
+                        .put(FrontendConstants.KEY_ITEMS, itemsJSON);
+            }
+        }
+
+        for (int i = 1; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                if (cells[i][j] == null && (agentId == 0 || rand.nextDouble() < agentDensity)) {
+                    cells[i][j] = encodeAgent(++agentId);
+                }
+            }
+        }
+
+        return Decoder.decodeWarehouse(encodeConfig(cells, items), RunningMode.SIMULATION);
+    }
+
+    // ===============================================================================================
+    //
+    // Static Helper Methods
+    //
+
+    private static JSONObject encodeConfig(JSONObject[][] cells, int items) {
+        JSONArray gridJSON = new JSONArray();
+
+        for (JSONObject[] row : cells) {
+            JSONArray rowJSON = new JSONArray();
+
+            for (JSONObject cell : row) {
+                JSONArray objects = new JSONArray();
+
+                if (cell != null) {
+                    objects.put(cell);
+                }
+
+                rowJSON.put(new JSONObject().put(FrontendConstants.KEY_OBJECTS, objects));
+            }
+
+            gridJSON.put(rowJSON);
+        }
+
+        JSONArray itemsJSON = new JSONArray();
+
+        for (int id = 1; id <= items; ++id) {
+            itemsJSON.put(new JSONObject()
+                    .put(FrontendConstants.KEY_ID, id)
+                    .put(FrontendConstants.KEY_ITEM_WEIGHT, 1));
+        }
+
+        JSONObject mapJSON = new JSONObject()
+                .put(FrontendConstants.KEY_HEIGHT, cells.length)
+                .put(FrontendConstants.KEY_WIDTH, cells[0].length)
+                .put(FrontendConstants.KEY_GRID, gridJSON);
+
+        return new JSONObject()
+                .put(FrontendConstants.KEY_MAP, mapJSON)
+                .put(FrontendConstants.KEY_ITEMS, itemsJSON);
+    }
+
+    private static JSONObject encodeGate(int id) {
+        return new JSONObject()
+                .put(FrontendConstants.KEY_TYPE, FrontendConstants.TYPE_CELL_GATE)
+                .put(FrontendConstants.KEY_ID, id);
+    }
+
+    private static JSONObject encodeAgent(int id) {
+        return new JSONObject()
+                .put(FrontendConstants.KEY_TYPE, FrontendConstants.TYPE_CELL_AGENT)
+                .put(FrontendConstants.KEY_ID, id)
+                .put(FrontendConstants.KEY_AGENT_DIRECTION, 0)
+                .put(FrontendConstants.KEY_AGENT_LOAD_CAPACITY, 4 * ITEMS_COUNT * ITEM_UNITS_PER_RACK);
+    }
+
+    private static JSONObject encodeRack(int id, Random rand) {
+        JSONArray itemsJSON = new JSONArray();
+
+        // Store a few random item types in every rack
+        for (int id1 = 1; id1 <= ITEMS_COUNT; ++id1) {
+            if (rand.nextInt(4) == 0) {
+                itemsJSON.put(new JSONObject()
+                        .put(FrontendConstants.KEY_ID, id1)
+                        .put(FrontendConstants.KEY_ITEM_QUANTITY, ITEM_UNITS_PER_RACK));
+            }
+        }
+
+        return new JSONObject()
+                .put(FrontendConstants.KEY_TYPE, FrontendConstants.TYPE_CELL_RACK)
+                .put(FrontendConstants.KEY_ID, id)
+                .put(FrontendConstants.KEY_RACK_CAPACITY, ITEMS_COUNT * ITEM_UNITS_PER_RACK)
+                .put(FrontendConstants.KEY_RACK_CONTAINER_WEIGHT, 0)
+                .put(FrontendConstants.KEY_ITEMS, itemsJSON);
+    }
+}
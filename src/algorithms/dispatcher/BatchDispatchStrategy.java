@@ -0,0 +1,71 @@
+package algorithms.dispatcher;
+
+import models.agents.Agent;
+import models.tasks.orders.Order;
+
+import utils.Constants;
+
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * This {@code BatchDispatchStrategy} class accumulates the pending orders over a window of time steps,
+ * and then dispatches them jointly in waves using {@link Dispatcher#dispatchBatch(java.util.Collection, Set)}.
+ */
+public class BatchDispatchStrategy implements DispatchStrategy {
+
+    /**
+     * The number of time steps of every batch.
+     */
+    private final int window;
+
+    /**
+     * Constructs a new {@code BatchDispatchStrategy} object of the default batch window.
+     */
+    public BatchDispatchStrategy() {
+        this(Constants.DEFAULT_BATCH_WINDOW);
+    }
+
+    /**
+     * Constructs a new {@code BatchDispatchStrategy} object.
+     *
+     * @param window the number of time steps of every batch.
+     */
+    public BatchDispatchStrategy(int window) {
+        this.window = window;
+    }
+
+    /**
+     * Returns the unique name of this strategy to select it by.
+     *
+     * @return the name of this strategy.
+     */
+    @Override
+    public String getName() {
+        return "batch";
+    }
+
+    /**
+     * Checks whether the given time step ends the current batch window.
+     *
+     * @param time the current time step.
+     *
+     * @return {@code true} to dispatch the pending orders; {@code false} to accumulate them.
+     */
+    @Override
+    public boolean isDue(long time) {
+        return time % window == 0;
+    }
+
+    /**
+     * Dispatches the given pending orders jointly in waves, one wave per delivery gate.
+     *
+     * @param orders      the pending orders needed to be dispatched in their scheduling order.
+     * @param readyAgents the set of ready agents.
+     */
+    @Override
+    public void dispatch(List<Order> orders, Set<Agent> readyAgents) {
+        Dispatcher.dispatchBatch(orders, readyAgents);
+    }
+}
@@ -0,0 +1,287 @@
+package algorithms.dispatcher;
+
+import models.agents.Agent;
+import models.facilities.Facility;
+import models.facilities.Gate;
+import models.facilities.Rack;
+import models.facilities.Station;
+
+import utils.Constants;
+
+import java.util.*;
+
+
+/**
+ * This {@code ChargingScheduler} class plans the charging visits of the agents to the {@link Station} facilities.
+ * <p>
+ * The idle agents at or below {@link Constants#AGENT_BATTERY_THRESHOLD} are always sent to charge,
+ * while the other idle agents are sent opportunistically only while no orders are waiting for agents.
+ * An {@code Agent} charges at the nearest free {@code Station} until its battery is full,
+ * or until orders start waiting for agents and its battery is above the threshold.
+ * <p>
+ * No more than a configurable share of the fleet is allowed to charge at the same time.
+ */
+public class ChargingScheduler {
+
+    //
+    // Member Variables
+    //
+
+    /**
+     * The map of the {@code Station} of every {@code Agent} heading to or docked at a {@code Station}.
+     */
+    private Map<Agent, Station> chargers = new LinkedHashMap<>();
+
+    /**
+     * The map of the number of time steps every docked {@code Agent} has been charging its current level.
+     */
+    private Map<Agent, Integer> progress = new HashMap<>();
+
+    // ===============================================================================================
+    //
+    // Static Methods
+    //
+
+    /**
+     * Estimates the number of cells the given {@code Agent} has to move to serve the given {@code Rack},
+     * that is to reach the {@code Rack}, deliver it to its nearest {@code Gate} and back,
+     * and then reach the nearest {@code Station} to charge.
+     *
+     * @param agent    the {@code Agent}.
+     * @param rack     the {@code Rack} to serve.
+     * @param gates    the collection of all gates.
+     * @param stations the collection of all stations.
+     *
+     * @return the estimated number of steps; or {@code Long.MAX_VALUE} if the {@code Rack} is unreachable.
+     */
+    public static long estimateSteps(Agent agent, Rack rack, Collection<Gate> gates, Collection<Station> stations) {
+        int reach = rack.getDistanceTo(agent.getRow(), agent.getCol());
+
+        if (reach == Integer.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+
+        long ret = reach;
+        ret += 2L * getNearestDistance(gates, rack);
+        ret += getNearestDistance(stations, rack);
+        return ret;
+    }
+
+    /**
+     * Checks whether the battery of the given {@code Agent} can afford serving the given {@code Rack}
+     * after finishing its given backlog, with a margin of {@link Constants#CHARGING_ENERGY_MARGIN}.
+     *
+     * @param agent    the {@code Agent}.
+     * @param rack     the {@code Rack} to serve.
+     * @param backlog  the estimated number of steps of the queued tasks of the {@code Agent}.
+     * @param gates    the collection of all gates.
+     * @param stations the collection of all stations.
+     *
+     * @return {@code true} if the {@code Agent} has enough energy; {@code false} otherwise.
+     */
+    public static boolean hasEnergyFor(Agent agent, Rack rack, long backlog,
+                                       Collection<Gate> gates, Collection<Station> stations) {
+        long steps = estimateSteps(agent, rack, gates, stations);
+
+        if (steps == Long.MAX_VALUE) {
+            return true;
+        }
+
+        return (backlog + steps) * Constants.CHARGING_ENERGY_MARGIN <= agent.getRemainingSteps();
+    }
+
+    /**
+     * Returns the distance from the given {@code Rack} to the nearest reachable facility of the given ones.
+     *
+     * @param facilities the collection of facilities.
+     * @param rack       the {@code Rack}.
+     *
+     * @return the distance to the nearest facility; or {@code 0} if none is reachable.
+     */
+    private static int getNearestDistance(Collection<? extends Facility> facilities, Rack rack) {
+        int ret = Integer.MAX_VALUE;
+
+        for (Facility facility : facilities) {
+            ret = Math.min(ret, facility.getDistanceTo(rack.getPosition()));
+        }
+
+        return (ret == Integer.MAX_VALUE ? 0 : ret);
+    }
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Clears the charging plans of all agents.
+     */
+    public void clear() {
+        chargers.clear();
+        progress.clear();
+    }
+
+    /**
+     * Checks whether the given {@code Agent} is heading to or docked at a {@code Station} or not.
+     *
+     * @param agent the {@code Agent} to check.
+     *
+     * @return {@code true} if the {@code Agent} is charging; {@code false} otherwise.
+     */
+    public boolean isCharging(Agent agent) {
+        return chargers.containsKey(agent);
+    }
+
+    /**
+     * Returns the number of agents heading to or docked at a {@code Station}.
+     *
+     * @return the number of charging agents.
+     */
+    public int getChargingCount() {
+        return chargers.size();
+    }
+
+    /**
+     * Sends the idle agents needing to charge to their nearest free {@code Station}.
+     *
+     * @param readyAgents the set of idle agents; the agents sent to charge are removed from it by the caller.
+     * @param stations    the collection of all stations.
+     * @param limit       the maximum number of agents allowed to charge at the same time.
+     * @param light       whether no orders are currently waiting for agents or not.
+     *
+     * @return the list of agents sent to charge.
+     */
+    public List<Agent> schedule(Collection<Agent> readyAgents, Collection<Station> stations, int limit, boolean light) {
+        List<Agent> ret = new ArrayList<>();
+
+        if (chargers.size() >= limit) {
+            return ret;
+        }
+
+        //
+        // Collect the candidates, the agents of the lowest batteries first
+        //
+        List<Agent> candidates = new ArrayList<>();
+
+        for (Agent agent : readyAgents) {
+            int level = agent.getBatteryLevel();
+
+            if (agent.isBlocked() || agent.isDeactivated() || level <= 0) {
+                continue;
+            }
+
+            if (level <= Constants.AGENT_BATTERY_THRESHOLD || (light && level < Constants.AGENT_MAX_BATTERY_LEVEL)) {
+                candidates.add(agent);
+            }
+        }
+
+        candidates.sort(Comparator.comparingLong(Agent::getRemainingSteps).thenComparingInt(Agent::getId));
+
+        for (Agent agent : candidates) {
+            if (chargers.size() >= limit) {
+                break;
+            }
+
+            Station station = selectStation(agent, stations);
+
+            if (station == null) {
+                continue;
+            }
+
+            station.allocate(agent);
+            chargers.put(agent, station);
+            ret.add(agent);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Advances the charging agents a single time step. That is, moves the agents heading to their stations,
+     * docks the arriving ones, charges the docked ones, and releases the agents done charging.
+     *
+     * @param busy      whether orders are currently waiting for agents or not.
+     * @param simulated whether to simulate the charging of the batteries or not.
+     *
+     * @return the list of agents released from charging.
+     */
+    public List<Agent> advance(boolean busy, boolean simulated) {
+        List<Agent> ret = new ArrayList<>();
+
+        for (var it = chargers.entrySet().iterator(); it.hasNext(); ) {
+            var entry = it.next();
+            Agent agent = entry.getKey();
+            Station station = entry.getValue();
+            int level = agent.getBatteryLevel();
+
+            // Release the agent when full, or when needed for the waiting orders
+            if (level >= Constants.AGENT_MAX_BATTERY_LEVEL || (busy && level > Constants.AGENT_BATTERY_THRESHOLD)) {
+                if (station.getBoundAgent() == agent) {
+                    station.unbind();
+                }
+
+                station.deallocate();
+                progress.remove(agent);
+                it.remove();
+                ret.add(agent);
+                continue;
+            }
+
+            // Skip blocked agents until they recover
+            if (agent.isBlocked()) {
+                continue;
+            }
+
+            // Move towards the station until docked
+            if (station.getBoundAgent() != agent) {
+                if (station.canBind(agent) && !station.isBound()) {
+                    station.bind(agent);
+                } else {
+                    agent.approach(station);
+                }
+
+                continue;
+            }
+
+            // Charge the docked agent
+            if (simulated) {
+                int steps = progress.merge(agent, 1, Integer::sum);
+
+                if (steps >= Constants.AGENT_CHARGE_STEPS_PER_LEVEL) {
+                    progress.put(agent, 0);
+                    agent.setBatteryLevel(level + 1);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Selects the nearest free {@code Station} to the given {@code Agent}.
+     *
+     * @param agent    the {@code Agent}.
+     * @param stations the collection of all stations.
+     *
+     * @return the nearest free reachable {@code Station}; or {@code null} if no such station.
+     */
+    private Station selectStation(Agent agent, Collection<Station> stations) {
+        Station ret = null;
+        int distance = Integer.MAX_VALUE;
+
+        for (Station station : stations) {
+            if (station.isAllocated() || station.isBound()) {
+                continue;
+            }
+
+            int dis = station.getDistanceTo(agent);
+
+            if (distance > dis) {
+                distance = dis;
+                ret = station;
+            }
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,300 @@
+package algorithms.dispatcher;
+
+import models.facilities.Gate;
+import models.items.Item;
+import models.tasks.AbstractTask.TaskStatus;
+import models.tasks.Task;
+import models.tasks.orders.Order;
+
+import utils.Constants;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+
+/**
+ * This {@code DemandForecaster} class forecasts the demand of every {@code Item} over the near future
+ * from the stream of received orders.
+ * <p>
+ * The order stream is split into intervals of {@link Constants#FORECAST_INTERVAL} time steps,
+ * and the demand rate of every {@code Item} is exponentially smoothed over the intervals
+ * by a factor of {@link Constants#FORECAST_SMOOTHING}. Every forecast of a whole interval is compared
+ * against the actual demand of the interval to measure the accuracy of the forecaster.
+ * <p>
+ * The racks pre-dispatched towards the gates ahead of the forecast orders are tracked as well,
+ * along with the latencies of the orders they served, to measure the benefit of the pre-dispatching.
+ */
+public class DemandForecaster {
+
+    //
+    // Member Variables
+    //
+
+    /**
+     * The map of the smoothed demand rate of every {@code Item} in units per time step.
+     */
+    private Map<Item, Double> rates = new HashMap<>();
+
+    /**
+     * The map of the demanded units of every {@code Item} during the current interval.
+     */
+    private Map<Item, Integer> counts = new HashMap<>();
+
+    /**
+     * The map of the number of orders of every {@code Item} delivered to every {@code Gate}.
+     */
+    private Map<Item, Map<Gate, Integer>> gates = new HashMap<>();
+
+    /**
+     * The index of the current interval.
+     */
+    private long interval;
+
+    /**
+     * The sum of the absolute errors of the forecasts of the completed intervals.
+     */
+    private double absoluteError;
+
+    /**
+     * The sum of the actual demand of the completed intervals.
+     */
+    private long actualDemand;
+
+    /**
+     * The list of the running pre-dispatched tasks.
+     */
+    private List<Task> stagings = new ArrayList<>();
+
+    /**
+     * The set of the orders attached to pre-dispatched tasks that are not fulfilled yet.
+     */
+    private Set<Order> stagedOrders = new HashSet<>();
+
+    /**
+     * The number of the fulfilled orders served by pre-dispatched tasks and the sum of their latencies.
+     */
+    private long stagedCount, stagedLatency;
+
+    /**
+     * The number of the other fulfilled orders and the sum of their latencies.
+     */
+    private long regularCount, regularLatency;
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Clears the recorded demand and the accumulated statistics.
+     */
+    public void clear() {
+        rates.clear();
+        counts.clear();
+        gates.clear();
+        interval = 0;
+        absoluteError = 0;
+        actualDemand = 0;
+        stagings.clear();
+        stagedOrders.clear();
+        stagedCount = stagedLatency = 0;
+        regularCount = regularLatency = 0;
+    }
+
+    /**
+     * Records the demand of the items of the given newly received {@code Order}.
+     *
+     * @param order the received {@code Order}.
+     * @param time  the current time step.
+     */
+    public void recordDemand(Order order, long time) {
+        update(time);
+
+        for (var pair : order) {
+            Item item = pair.getKey();
+            counts.merge(item, Math.abs(pair.getValue()), Integer::sum);
+            gates.computeIfAbsent(item, k -> new HashMap<>()).merge(order.getDeliveryGate(), 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Closes all the intervals ending by the given time step, smoothing the demand rates
+     * and accumulating the errors of their forecasts.
+     *
+     * @param time the current time step.
+     */
+    public void update(long time) {
+        long current = time / Constants.FORECAST_INTERVAL;
+
+        for (; interval < current; ++interval) {
+            Set<Item> items = new HashSet<>(rates.keySet());
+            items.addAll(counts.keySet());
+
+            for (Item item : items) {
+                double rate = rates.getOrDefault(item, 0.0);
+                int actual = counts.getOrDefault(item, 0);
+
+                absoluteError += Math.abs(rate * Constants.FORECAST_INTERVAL - actual);
+                actualDemand += actual;
+
+                rate += Constants.FORECAST_SMOOTHING * (1. * actual / Constants.FORECAST_INTERVAL - rate);
+                rates.put(item, rate);
+            }
+
+            counts.clear();
+        }
+    }
+
+    /**
+     * Returns the forecast demand of the given {@code Item} over the given number of time steps.
+     *
+     * @param item    the {@code Item}.
+     * @param horizon the number of time steps.
+     *
+     * @return the forecast number of units.
+     */
+    public double getForecast(Item item, long horizon) {
+        return rates.getOrDefault(item, 0.0) * horizon;
+    }
+
+    /**
+     * Returns the items of the highest forecast demand, in descending order of their forecasts.
+     *
+     * @param minUnits the minimum forecast units over {@link Constants#FORECAST_INTERVAL} time steps.
+     *
+     * @return the list of hot items.
+     */
+    public List<Item> getHotItems(double minUnits) {
+        return rates.keySet().stream()
+                .filter(i -> getForecast(i, Constants.FORECAST_INTERVAL) >= minUnits)
+                .sorted(Comparator.comparingDouble((Item i) -> -rates.get(i)).thenComparingInt(Item::getId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the {@code Gate} the given {@code Item} is most frequently delivered to.
+     *
+     * @param item the {@code Item}.
+     *
+     * @return the likely {@code Gate}; or {@code null} if the {@code Item} has never been ordered.
+     */
+    public Gate getLikelyGate(Item item) {
+        Map<Gate, Integer> map = gates.get(item);
+
+        if (map == null) {
+            return null;
+        }
+
+        Gate ret = null;
+        int max = 0;
+
+        for (var pair : map.entrySet()) {
+            if (max < pair.getValue() || (max == pair.getValue() && pair.getKey().getId() < ret.getId())) {
+                max = pair.getValue();
+                ret = pair.getKey();
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the weighted absolute percentage error of the forecasts of the completed intervals.
+     * That is, the sum of the absolute errors divided by the sum of the actual demand.
+     *
+     * @return the forecast error ratio; or {@code 0} if no demand has been recorded.
+     */
+    public double getForecastError() {
+        return (actualDemand == 0 ? 0 : absoluteError / actualDemand);
+    }
+
+    /**
+     * Keeps track of the given newly dispatched pre-dispatched {@code Task}.
+     *
+     * @param task the pre-dispatched {@code Task}.
+     */
+    public void addStaging(Task task) {
+        stagings.add(task);
+    }
+
+    /**
+     * Returns the running pre-dispatched tasks, and forgets the completed ones.
+     *
+     * @return the list of running pre-dispatched tasks.
+     */
+    public List<Task> getStagings() {
+        stagings.removeIf(t -> t.getStatus() == TaskStatus.FULFILLED);
+        return stagings;
+    }
+
+    /**
+     * Records that the given {@code Order} has been attached to a pre-dispatched {@code Task}.
+     *
+     * @param order the staged {@code Order}.
+     */
+    public void recordStaged(Order order) {
+        stagedOrders.add(order);
+    }
+
+    /**
+     * Records the latency of the given fulfilled {@code Order}.
+     *
+     * @param order the fulfilled {@code Order}.
+     */
+    public void recordFulfilled(Order order) {
+        long latency = order.getTimeCompleted() - order.getTimeReceived();
+
+        if (stagedOrders.remove(order)) {
+            stagedCount++;
+            stagedLatency += latency;
+        } else {
+            regularCount++;
+            regularLatency += latency;
+        }
+    }
+
+    /**
+     * Returns the number of fulfilled orders served by pre-dispatched tasks.
+     *
+     * @return the number of staged orders.
+     */
+    public long getStagedCount() {
+        return stagedCount;
+    }
+
+    /**
+     * Returns the mean latency of the fulfilled orders served by pre-dispatched tasks.
+     *
+     * @return the mean latency in time steps; or {@code 0} if no such orders were fulfilled.
+     */
+    public double getStagedLatency() {
+        return (stagedCount == 0 ? 0 : 1. * stagedLatency / stagedCount);
+    }
+
+    /**
+     * Returns the mean latency of the other fulfilled orders.
+     *
+     * @return the mean latency in time steps; or {@code 0} if no such orders were fulfilled.
+     */
+    public double getRegularLatency() {
+        return (regularCount == 0 ? 0 : 1. * regularLatency / regularCount);
+    }
+
+    /**
+     * Returns a string representation of the accuracy and the benefit of this {@code DemandForecaster}.
+     * In general, the toString method returns a string that "textually represents" this object.
+     *
+     * @return a string representation of this {@code DemandForecaster}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(String.format("Forecast: %.2f%% error over %d intervals", 100 * getForecastError(), interval));
+        builder.append("\n");
+        builder.append(String.format("Latency: %.2f pre-dispatched (%d orders), %.2f regular (%d orders)",
+                getStagedLatency(), stagedCount, getRegularLatency(), regularCount));
+
+        return builder.toString();
+    }
+}
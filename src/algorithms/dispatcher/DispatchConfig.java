@@ -0,0 +1,68 @@
+package algorithms.dispatcher;
+
+import utils.Constants;
+
+
+/**
+ * This {@code DispatchConfig} class holds the configuration of the built-in dispatching strategies,
+ * so that every strategy is constructed with its own settings by {@link DispatchStrategy#of}.
+ */
+public class DispatchConfig {
+
+    //
+    // Member Variables
+    //
+
+    /**
+     * The number of time steps of every batch of the batch strategy.
+     */
+    private final int batchWindow;
+
+    /**
+     * The side length in cells of the square zones of the zone strategy;
+     * or {@code 0} to align the zones with the regions.
+     */
+    private final int zoneSize;
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Constructs a new {@code DispatchConfig} object of the default settings.
+     */
+    public DispatchConfig() {
+        this(Constants.DEFAULT_BATCH_WINDOW, Constants.DEFAULT_ZONE_SIZE);
+    }
+
+    /**
+     * Constructs a new {@code DispatchConfig} object.
+     *
+     * @param batchWindow the number of time steps of every batch of the batch strategy.
+     * @param zoneSize    the side length in cells of the square zones of the zone strategy;
+     *                    or {@code 0} to align the zones with the regions.
+     */
+    public DispatchConfig(int batchWindow, int zoneSize) {
+        this.batchWindow = batchWindow;
+        this.zoneSize = zoneSize;
+    }
+
+    /**
+     * Returns the number of time steps of every batch of the batch strategy.
+     *
+     * @return the batch window.
+     */
+    public int getBatchWindow() {
+        return batchWindow;
+    }
+
+    /**
+     * Returns the side length in cells of the square zones of the zone strategy.
+     *
+     * @return the zone size; or {@code 0} to align the zones with the regions.
+     */
+    public int getZoneSize() {
+        return zoneSize;
+    }
+}
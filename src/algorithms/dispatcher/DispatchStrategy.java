@@ -0,0 +1,113 @@
+package algorithms.dispatcher;
+
+import models.agents.Agent;
+import models.tasks.orders.Order;
+
+import utils.Constants;
+import utils.Constants.*;
+import utils.exceptions.DataException;
+
+import java.util.*;
+
+
+/**
+ * Interface definition for the strategies of dispatching the pending orders to the ready agents.
+ * <p>
+ * The strategy of a run is selected when configuring the {@code Warehouse}, either by one of the
+ * built-in {@link DispatchMode} strategies, or by the name of a custom strategy registered as
+ * a {@link ServiceLoader} provider of this interface on the class path.
+ * <p>
+ * The orders left pending by a strategy are parked by the {@code Warehouse}
+ * until a matching event occurs, and then handed back to the strategy.
+ */
+public interface DispatchStrategy {
+
+    /**
+     * Returns the unique name of this strategy to select it by.
+     *
+     * @return the name of this strategy.
+     */
+    String getName();
+
+    /**
+     * Checks whether the pending orders should be dispatched at the given time step,
+     * or accumulated until a later one.
+     *
+     * @param time the current time step.
+     *
+     * @return {@code true} to dispatch the pending orders; {@code false} to accumulate them.
+     */
+    default boolean isDue(long time) {
+        return true;
+    }
+
+    /**
+     * Dispatches the given pending orders into a set of specific tasks assigned to the given agents.
+     *
+     * @param orders      the pending orders needed to be dispatched in their scheduling order.
+     * @param readyAgents the set of ready agents.
+     */
+    void dispatch(List<Order> orders, Set<Agent> readyAgents);
+
+    /**
+     * Returns a report of the dispatching metrics collected by this strategy.
+     *
+     * @return the metrics report; or {@code null} if this strategy collects no metrics.
+     */
+    default String getMetrics() {
+        return null;
+    }
+
+    // ===============================================================================================
+    //
+    // Static Methods
+    //
+
+    /**
+     * Returns the built-in strategy of the given dispatching mode.
+     *
+     * @param mode   the {@code DispatchMode}.
+     * @param config the configuration of the built-in strategies.
+     *
+     * @return the built-in {@code DispatchStrategy}.
+     */
+    static DispatchStrategy of(DispatchMode mode, DispatchConfig config) {
+        switch (mode) {
+            case BATCH:
+                return new BatchDispatchStrategy(config.getBatchWindow());
+            case PARALLEL:
+                return new ParallelDispatchStrategy();
+            case ZONE:
+                return new ZoneDispatchStrategy(config.getZoneSize());
+            default:
+                return new SequentialDispatchStrategy();
+        }
+    }
+
+    /**
+     * Returns the strategy of the given name, looking up the built-in strategies first,
+     * and then the providers registered on the class path.
+     *
+     * @param name   the name of the strategy.
+     * @param config the configuration of the built-in strategies.
+     *
+     * @return the matching {@code DispatchStrategy}.
+     *
+     * @throws DataException when no strategy of the given name is found.
+     */
+    static DispatchStrategy forName(String name, DispatchConfig config) throws DataException {
+        for (DispatchMode mode : DispatchMode.values()) {
+            if (mode.name().equalsIgnoreCase(name)) {
+                return of(mode, config);
+            }
+        }
+
+        for (DispatchStrategy strategy : ServiceLoader.load(DispatchStrategy.class)) {
+            if (strategy.getName().equals(name)) {
+                return strategy;
+            }
+        }
+
+        throw new DataException("Unknown dispatch strategy: " + name + ".", Constants.ERR_INVALID_ARGS);
+    }
+}
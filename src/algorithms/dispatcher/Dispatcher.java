@@ -1,14 +1,27 @@
 package algorithms.dispatcher;
 
+import algorithms.dispatcher.task_allocator_helpers.AgentAssigner;
+import algorithms.dispatcher.task_allocator_helpers.AgentAuctioneer;
+import algorithms.dispatcher.task_allocator_helpers.RackSetCover;
+
 import models.agents.Agent;
+import models.facilities.Gate;
 import models.facilities.Rack;
 import models.items.Item;
+import models.items.QuantityAddable;
+import models.maps.AgentIndex;
+import models.maps.Position;
 import models.tasks.orders.Order;
 import models.tasks.Task;
 import models.tasks.orders.RefillOrder;
 import models.warehouses.Warehouse;
 
+import utils.Constants;
+import utils.Constants.*;
+
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static algorithms.dispatcher.task_allocator_helpers.RackSelectorHelper.*;
 
@@ -24,9 +37,9 @@ public class Dispatcher {
     private static final int stageTwoRacksThreshold = 100;
 
     /**
-     * Count the number of the dismisses of orders which acts as a threshold for order deletion.
+     * Threshold on the number of ready agents to scan linearly before using their spatial index.
      */
-    private static Map<Order, Integer> orderDismissCount = new HashMap<>();
+    private static final int linearAgentScanThreshold = 32;
 
     /**
      * Dispatches the given {@code Order} into a set of specific tasks assigned
@@ -40,39 +53,304 @@ public class Dispatcher {
         // Keep dispatching while the order is still pending
         //
         while (order.isPending()) {
-            // Select the most suitable racks
-            List<Rack> selectedRacks = selectRacks(order, readyAgents);
+            AssignmentMode mode = Warehouse.getInstance().getAssignmentMode();
+
+            // Active agents with room in their task queues compete with the idle agents
+            // in the auction and the look-ahead modes
+            Set<Agent> agents = getCandidateAgents(readyAgents);
+
+            // Select the most suitable delivery gate and racks
+            Map.Entry<Gate, List<Rack>> selection = selectGateAndRacks(order, agents);
+            List<Rack> selectedRacks = selection.getValue();
 
             // Return if no rack is found
             if (selectedRacks.size() == 0) {
-                orderDismissCount.put(order, orderDismissCount.getOrDefault(order, 0) + 1);
                 return;
             }
 
+            order.setDeliveryGate(selection.getKey());
+
+            // Assign all the selected racks to agents at once if global assignment is enabled
+            Map<Rack, Agent> assignment = null;
+
+            if (mode == AssignmentMode.HUNGARIAN || mode == AssignmentMode.AUCTION) {
+                assignment = assignAgents(agents, order, selectedRacks, mode);
+            }
+
             for (Rack rack : selectedRacks) {
                 // Find a suitable agent
-                Agent agent = selectAgent(readyAgents, order, rack);
+                Agent agent = (assignment != null ? assignment.get(rack) : selectAgent(readyAgents, order, rack));
 
                 // Return if no agent is found
                 if (agent == null) {
                     return;
                 }
 
-                //
                 // Create task to partially fulfill the order
-                //
-                Task activeTask = agent.getActiveTask();
-
-                // Check if the found agent is currently active
-                if (activeTask != null) {
-                    activeTask.addOrder(order);
-                } else {
-                    Task task = new Task(agent, rack);
-                    task.addOrder(order);
-                    Warehouse.getInstance().addTask(task);
+                assignOrder(agent, rack, order);
+            }
+        }
+    }
+
+    /**
+     * Dispatches the given pending orders jointly in waves, one wave per delivery {@code Gate}.
+     * <p>
+     * The racks of every wave are selected to cover the combined demand of all its orders,
+     * and each selected rack serves every order of the wave it can partially fulfill
+     * in a single trip. Refill orders are dispatched individually.
+     * The orders allowing several gates are given their delivery gates before being grouped.
+     *
+     * @param orders      the pending orders needed to be dispatched in their scheduling order.
+     * @param readyAgents the set of ready agents.
+     */
+    public static void dispatchBatch(Collection<Order> orders, Set<Agent> readyAgents) {
+        //
+        // Group the collect orders by their delivery gates
+        //
+        Map<Gate, OrderBatch> batches = new LinkedHashMap<>();
+
+        for (Order order : orders) {
+            if (order instanceof RefillOrder) {
+                dispatch(order, readyAgents);
+                continue;
+            }
+
+            if (order.isGateSelectable()) {
+                order.setDeliveryGate(selectGateAndRacks(order, readyAgents).getKey());
+            }
+
+            batches.computeIfAbsent(order.getDeliveryGate(), OrderBatch::new).addOrder(order);
+        }
+
+        //
+        // Dispatch every batch
+        //
+        for (OrderBatch batch : batches.values()) {
+            // No need for joint selection of a single order
+            if (batch.getOrders().size() == 1) {
+                dispatch(batch.getOrders().get(0), readyAgents);
+                continue;
+            }
+
+            dispatch(batch, readyAgents);
+        }
+    }
+
+    /**
+     * Dispatches the given pending orders in two phases.
+     * <p>
+     * In the first phase, the racks of all the orders are selected in parallel against
+     * the current inventory state, which is not modified during this phase.
+     * In the second phase, the selections are committed one at a time in the scheduling order
+     * of the orders, after re-validating them against the commits of the previous orders.
+     * Racks that no longer supply any of the pending items of an order, or that have no
+     * suitable agent anymore, are skipped, leaving the order pending to be re-queued.
+     *
+     * @param orders      the pending orders needed to be dispatched in their scheduling order.
+     * @param readyAgents the set of ready agents.
+     */
+    public static void dispatchParallel(List<Order> orders, Set<Agent> readyAgents) {
+        //
+        // Phase 1: evaluate the rack selections in parallel
+        //
+        List<Map.Entry<Gate, List<Rack>>> selections = orders.parallelStream()
+                .map(order -> selectGateAndRacks(order, readyAgents))
+                .collect(Collectors.toList());
+
+        //
+        // Phase 2: commit the selections serially
+        //
+        for (int i = 0; i < orders.size(); ++i) {
+            commitSelection(orders.get(i), selections.get(i), readyAgents);
+        }
+    }
+
+    /**
+     * Commits the given rack selection of the given {@code Order}, after re-validating it against
+     * the commits of the previous orders.
+     * <p>
+     * Racks that no longer supply any of the pending items of the {@code Order}, or that have no
+     * suitable agent anymore, are skipped, leaving the {@code Order} pending.
+     *
+     * @param order       the {@code Order} to commit.
+     * @param selection   the selected delivery {@code Gate} and racks of the {@code Order}.
+     * @param readyAgents the set of ready agents.
+     *
+     * @return the list of the tasks assigned the {@code Order}.
+     */
+    static List<Task> commitSelection(Order order, Map.Entry<Gate, List<Rack>> selection, Set<Agent> readyAgents) {
+        List<Task> ret = new ArrayList<>();
+        order.setDeliveryGate(selection.getKey());
+
+        for (Rack rack : selection.getValue()) {
+            // Stop if the order has been fully dispatched
+            if (!order.isPending()) {
+                break;
+            }
+
+            // Skip the rack if its items have been taken by previously committed orders
+            if (!(order instanceof RefillOrder) && !canSupply(rack, order)) {
+                continue;
+            }
+
+            // Skip the rack if its agent has been taken by previously committed orders
+            Agent agent = selectAgent(readyAgents, order, rack);
+
+            if (agent == null) {
+                continue;
+            }
+
+            // Create task to partially fulfill the order
+            ret.add(assignOrder(agent, rack, order));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Dispatches the given {@code OrderBatch} by selecting the racks covering its combined demand
+     * and assigning every order to the selected racks that can partially fulfill it.
+     *
+     * @param batch       the {@code OrderBatch} needed to be dispatched.
+     * @param readyAgents the set of ready agents.
+     */
+    private static void dispatch(OrderBatch batch, Set<Agent> readyAgents) {
+        Gate gate = batch.getDeliveryGate();
+
+        // Select the most suitable racks for the whole batch, nearest first
+        List<Rack> selectedRacks = selectRacks(batch, gate, readyAgents);
+        selectedRacks.sort(Comparator.comparingInt(r -> r.getDistanceTo(gate.getPosition())));
+
+        for (Rack rack : selectedRacks) {
+            for (Order order : batch.getOrders()) {
+                // Skip orders that cannot be served by the current rack
+                if (!order.isPending() || !canSupply(rack, order)) {
+                    continue;
+                }
+
+                // Find a suitable agent
+                Agent agent = selectAgent(readyAgents, order, rack);
+
+                // Skip the rack if no agent is found
+                if (agent == null) {
+                    break;
                 }
+
+                // Create task to partially fulfill the order
+                assignOrder(agent, rack, order);
+            }
+        }
+    }
+
+    /**
+     * Dispatches a pair of low-priority relocation tasks exchanging the storage cells
+     * of the two given racks, carried by the nearest capable ready agents.
+     *
+     * @param rack1       the first {@code Rack} to swap.
+     * @param rack2       the second {@code Rack} to swap.
+     * @param readyAgents the set of ready agents.
+     *
+     * @return the list of the two dispatched relocation tasks; or an empty list if no agents are found.
+     */
+    public static List<Task> dispatchSwap(Rack rack1, Rack rack2, Set<Agent> readyAgents) {
+        Set<Agent> agents = new HashSet<>(readyAgents);
+
+        // Find a distinct suitable agent for every rack
+        Agent agent1 = selectAgent(agents, rack1, 0);
+
+        if (agent1 == null || !agents.remove(agent1)) {
+            return Collections.emptyList();
+        }
+
+        Agent agent2 = selectAgent(agents, rack2, 0);
+
+        if (agent2 == null || agent2 == agent1) {
+            return Collections.emptyList();
+        }
+
+        // Create the paired relocation tasks
+        Task task1 = new Task(agent1, rack1);
+        Task task2 = new Task(agent2, rack2);
+        task1.swapRackWith(task2);
+        Warehouse.getInstance().addTask(task1);
+        Warehouse.getInstance().addTask(task2);
+
+        return List.of(task1, task2);
+    }
+
+    /**
+     * Dispatches a low-priority pre-dispatching task lifting the given {@code Rack} and holding it
+     * near the given {@code Gate} ahead of the forecast orders, carried by the nearest capable ready agent.
+     *
+     * @param rack        the {@code Rack} to pre-dispatch.
+     * @param gate        the likely {@code Gate} of the forecast orders.
+     * @param readyAgents the set of ready agents.
+     *
+     * @return the dispatched pre-dispatching task; or {@code null} if no agent is found.
+     */
+    public static Task dispatchStaging(Rack rack, Gate gate, Set<Agent> readyAgents) {
+        Agent agent = selectAgent(readyAgents, rack, 0);
+
+        if (agent == null) {
+            return null;
+        }
+
+        Task task = new Task(agent, rack);
+        task.stageNear(gate);
+        Warehouse.getInstance().addTask(task);
+
+        return task;
+    }
+
+    /**
+     * Diagnoses why the given {@code Order} could not be fully dispatched.
+     * <p>
+     * This function should be called only after a failed dispatching attempt of the {@code Order}.
+     *
+     * @param order       the {@code Order} that is still pending.
+     * @param readyAgents the set of ready agents.
+     *
+     * @return the reason of the dispatching failure.
+     */
+    public static WaitReason getWaitReason(Order order, Set<Agent> readyAgents) {
+        if (getCandidateAgents(readyAgents).isEmpty()) {
+            return WaitReason.NO_IDLE_AGENT;
+        }
+
+        // Check whether any rack could serve the order regardless of the agents
+        if (order instanceof RefillOrder || !selectRacks(order, null).isEmpty()) {
+            return WaitReason.NO_CAPABLE_AGENT;
+        }
+
+        return WaitReason.NO_RACK;
+    }
+
+    /**
+     * Assigns the given {@code Order} to the given {@code Agent} carrying the given {@code Rack},
+     * either by adding it to the currently active {@code Task} of the {@code Agent},
+     * or by creating a new {@code Task}.
+     *
+     * @param agent the {@code Agent} to carry the {@code Rack}.
+     * @param rack  the {@code Rack} to partially fulfill the order.
+     * @param order the {@code Order} to assign.
+     *
+     * @return the {@code Task} assigned the {@code Order}.
+     */
+    private static Task assignOrder(Agent agent, Rack rack, Order order) {
+        //
+        // Check if the found agent already has a task carrying the rack
+        //
+        for (Task task : agent.getTasks()) {
+            if (task.getRack() == rack) {
+                task.addOrder(order);
+                return task;
             }
         }
+
+        Task task = new Task(agent, rack);
+        task.addOrder(order);
+        Warehouse.getInstance().addTask(task);
+        return task;
     }
 
     /**
@@ -86,111 +364,237 @@ public class Dispatcher {
      * @return list of the most suitable {@code Rack}s for fulfilling the order.
      */
     protected static List<Rack> selectRacks(Order order, Set<Agent> readyAgents) {
+        return selectGateAndRacks(order, readyAgents).getValue();
+    }
+
+    /**
+     * Selects the delivery gate of the given {@code Order} along with the optimal racks fulfilling it.
+     * <p>
+     * If the {@code Order} allows several gates and has not been partially dispatched yet,
+     * the racks are selected for every allowed gate, and the gate covering most of the demand
+     * at the lowest cost, including the expected waits at the gate, is selected.
+     * Otherwise, the current delivery gate of the {@code Order} is kept.
+     * <p>
+     * Refill orders are assigned their refill racks, unless the refill would exceed the capacity
+     * of the {@code Rack} along with the refills already heading to it.
+     *
+     * @param order       the {@code Order} for which we select the gate and the racks.
+     * @param readyAgents the set of ready agents; or {@code null} to accept every rack.
+     *
+     * @return an entry of the selected {@code Gate} and the list of the selected racks.
+     */
+    private static Map.Entry<Gate, List<Rack>> selectGateAndRacks(Order order, Set<Agent> readyAgents) {
+        return selectGateAndRacks(order, readyAgents, null);
+    }
+
+    /**
+     * Selects the delivery gate of the given {@code Order} along with the optimal racks fulfilling it,
+     * considering only the racks accepted by the given filter.
+     *
+     * @param order       the {@code Order} for which we select the gate and the racks.
+     * @param readyAgents the set of ready agents; or {@code null} to accept every rack.
+     * @param local       the filter of the racks to consider; or {@code null} to consider every rack.
+     *
+     * @return an entry of the selected {@code Gate} and the list of the selected racks.
+     *
+     * @see #selectGateAndRacks(Order, Set)
+     */
+    static Map.Entry<Gate, List<Rack>> selectGateAndRacks(Order order, Set<Agent> readyAgents, Predicate<Rack> local) {
         // Refill orders as assigned with a rack by default
         if (order instanceof RefillOrder) {
-            return new ArrayList<>(List.of(((RefillOrder) order).getRefillRack()));
-        }
+            RefillOrder refill = (RefillOrder) order;
+            Rack rack = refill.getRefillRack();
+            Gate gate = selectRefillGate(refill);
 
-        // Get all candidate racks and their round trip costs
-        Map<Rack, Integer> candidateRacks = getCandidateRacks(order.iterator(), order.getDeliveryGate().getPosition());
+            if ((local != null && !local.test(rack))
+                    || rack.getStoredWeight() + getPendingAddedWeight(rack) + refill.getAddedWeight() > rack.getCapacity()) {
+                return Map.entry(gate, new ArrayList<>());
+            }
 
-        // Calculate the maximum needed quantity of order items that can be taken out of each candidate rack
-        // and the maximum provided quantity of order items at each candidate rack
-        Map<Rack, Map<Item, Integer>> maxTakenItemsQs = new HashMap<>();
-        Map<Rack, Map<Item, Integer>> totalItemsQs = new HashMap<>();
-        for (var r : candidateRacks.keySet()) {
-            maxTakenItemsQs.put(r, rackOrderItemsSupply(r, order.iterator()));
-            totalItemsQs.put(r, rackMaxOrderItemsSupply(r, order.iterator()));
+            return Map.entry(gate, new ArrayList<>(List.of(rack)));
         }
 
-        // Create necessary maps
-        Set<Agent> idleAgents = new HashSet<>();
-
-        if (readyAgents != null) {
-            idleAgents.addAll(readyAgents);
+        if (!order.isGateSelectable()) {
+            return Map.entry(order.getDeliveryGate(), selectRacks(order, order.getDeliveryGate(), readyAgents, local));
         }
 
-        // Selected racks with their round trip cost
-        Map<Rack, Integer> selectedRacks = new HashMap<>();
-        // Total quantities of all items in all selected racks
-        Map<Item, Integer> selectedRacksItemsQs = new HashMap<>();
-
-        int orderTotalQs = order.getPendingUnits();
+        Map.Entry<Gate, List<Rack>> ret = null;
+        int bestUncovered = Integer.MAX_VALUE;
+        long bestCost = Long.MAX_VALUE;
 
         //
-        // Stage 1: Find an initial solution
+        // Evaluate the rack selection of every allowed gate
         //
-        while (orderTotalQs > 0 && candidateRacks.size() > 0) {
-            Rack bestRack = null;
-            double bestRank = 1e9;
-            Map<Item, Integer> bestRackItemsQs = null;
+        for (Gate gate : order.getAllowedGates()) {
+            List<Rack> racks = selectRacks(order, gate, readyAgents, local);
+            int uncovered = getUncoveredUnits(order, racks);
+            long cost = 0;
 
-            var it = candidateRacks.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<Rack, Integer> rackEntry = it.next();
-                Rack rack = rackEntry.getKey();
+            for (Rack rack : racks) {
+                cost += rack.getDistanceTo(gate.getPosition()) + getGateWait(rack, gate);
+            }
 
-                // Calculate the maximum needed quantity of order items that can be taken out of each candidate rack
-                Map<Item, Integer> rackItemsQs = maxTakenItemsQs.get(rack);
+            if (ret == null || uncovered < bestUncovered || (uncovered == bestUncovered && cost < bestCost)) {
+                ret = Map.entry(gate, racks);
+                bestUncovered = uncovered;
+                bestCost = cost;
+            }
+        }
 
-                int rackTotalItemSupply = rackItemsQs.values().stream().reduce(0, Integer::sum);
+        return ret;
+    }
 
-                // Ignore rack, doesn't offer new items to the current accepted racks set or it is physically impossible
-                // to reach.
-                if (rackTotalItemSupply == 0 || candidateRacks.get(rack) == Integer.MAX_VALUE) {
-                    it.remove();
-                    continue;
-                }
+    /**
+     * Selects the delivery gate of the given {@code RefillOrder} among its allowed gates.
+     * <p>
+     * If the refill {@code Rack} is already on a trip, the gate nearest to the pending gates of the trip
+     * is selected, so that the refill joins the trip with the least detour;
+     * otherwise, the gate of the lowest delivery cost, including the expected wait, is selected.
+     *
+     * @param order the {@code RefillOrder}.
+     *
+     * @return the selected {@code Gate}.
+     */
+    private static Gate selectRefillGate(RefillOrder order) {
+        if (!order.isGateSelectable()) {
+            return order.getDeliveryGate();
+        }
+
+        Rack rack = order.getRefillRack();
+        Task trip = getTrip(rack);
 
-                // Calculate the rate of this rack
-                double rackCostRate = 1. * candidateRacks.get(rack) / rackTotalItemSupply;
+        Gate ret = order.getDeliveryGate();
+        long bestCost = Long.MAX_VALUE;
 
-                if (Double.compare(rackCostRate, bestRank) < 0) {
-                    bestRack = rack;
-                    bestRank = rackCostRate;
-                    bestRackItemsQs = totalItemsQs.get(bestRack);
+        for (Gate gate : order.getAllowedGates()) {
+            long cost = (long) rack.getDistanceTo(gate.getPosition()) + gate.getExpectedWait();
+
+            if (trip != null) {
+                for (Gate g : trip.getPendingGates()) {
+                    cost = Math.min(cost, (g == gate ? 0 : gate.getDistanceTo(g.getPosition())));
                 }
             }
 
-            if (bestRack == null) {
-                continue;
+            if (cost < bestCost) {
+                bestCost = cost;
+                ret = gate;
             }
+        }
 
-            // Accept the best rack and Remove from the candidate racks list if it can be assigned to an agent
-            int bestRackCost = candidateRacks.get(bestRack);
-            candidateRacks.remove(bestRack);
+        return ret;
+    }
 
-            if (readyAgents != null) {
-                Agent agent = selectAgent(idleAgents, order, bestRack);
-                if (agent == null) { // This rack cannot have any agent to be assigned to even if this rack is needed.
-                    // So, remove it only from the candidate racks.
-                    continue;
-                }
-                idleAgents.remove(agent);
+    /**
+     * Returns the {@code Task} currently carrying the given {@code Rack}.
+     *
+     * @param rack the {@code Rack}.
+     *
+     * @return the carrying {@code Task}; or {@code null} if the {@code Rack} is not allocated.
+     */
+    private static Task getTrip(Rack rack) {
+        if (!rack.isAllocated()) {
+            return null;
+        }
+
+        for (Task task : rack.getAllocatingAgent().getTasks()) {
+            if (task.getRack() == rack) {
+                return task;
             }
+        }
 
-            selectedRacks.put(bestRack, bestRackCost);
+        return null;
+    }
 
-            // Update the left quantities of the orders items and the total selected racks quantities
-            orderTotalQs = 0;
-            for (var itemEntry : order) {
-                Item item = itemEntry.getKey();
-                int q = itemEntry.getValue();
-                int bestRackQ = bestRackItemsQs.get(item);
+    /**
+     * Returns the total weight to be added to the given {@code Rack} by the refill orders
+     * already assigned to its current trip.
+     *
+     * @param rack the {@code Rack}.
+     *
+     * @return the pending added weight.
+     */
+    private static int getPendingAddedWeight(Rack rack) {
+        Task trip = getTrip(rack);
+        return (trip != null ? trip.getAddedWeight() : 0);
+    }
+
+    /**
+     * Select the optimal racks fulfilling the given demand of items to be collected at the given gate.
+     *
+     * @param order       The demanded items, either of a single order or of a batch of orders.
+     * @param gate        The delivery gate of the demanded items.
+     * @param readyAgents Set A list of ready (idle) agents
+     *
+     * @return list of the most suitable {@code Rack}s for fulfilling the demand.
+     */
+    private static List<Rack> selectRacks(QuantityAddable<Item> order, Gate gate, Set<Agent> readyAgents) {
+        return selectRacks(order, gate, readyAgents, null);
+    }
 
-                orderTotalQs += (q - bestRackQ);
-                selectedRacksItemsQs.put(item, selectedRacksItemsQs.getOrDefault(item, 0) + bestRackQ);
+    /**
+     * Select the optimal racks accepted by the given filter fulfilling the given demand of items
+     * to be collected at the given gate.
+     *
+     * @param order       The demanded items, either of a single order or of a batch of orders.
+     * @param gate        The delivery gate of the demanded items.
+     * @param readyAgents Set A list of ready (idle) agents
+     * @param local       The filter of the racks to consider; or {@code null} to consider every rack.
+     *
+     * @return list of the most suitable {@code Rack}s for fulfilling the demand.
+     */
+    private static List<Rack> selectRacks(QuantityAddable<Item> order, Gate gate, Set<Agent> readyAgents,
+                                          Predicate<Rack> local) {
+        // Get all candidate racks and their round trip costs
+        Map<Rack, Integer> candidateRacks = getCandidateRacks(order.iterator(), gate);
+
+        // Favour the racks already heading to gates, as the demand can ride along with their tasks
+        addRideAlongRacks(order, gate, candidateRacks);
+
+        // Drop the racks outside the considered ones
+        if (local != null) {
+            candidateRacks.keySet().removeIf(local.negate());
+        }
+
+        // Add the expected wait in the queue of the gate to the cost of every extra delivery
+        if (gate.getQueueLength() > 0) {
+            for (var entry : candidateRacks.entrySet()) {
+                if (entry.getValue() != Integer.MAX_VALUE) {
+                    long cost = (long) entry.getValue() + getGateWait(entry.getKey(), gate);
+                    entry.setValue((int) Math.min(cost, Integer.MAX_VALUE - 1));
+                }
             }
         }
 
-        //
-        // Stage 2. Delete Redundant racks from the final set, Do this if the racks count is less than some threshold
-        //
-        if (selectedRacks.size() < stageTwoRacksThreshold) {
-            removeRedundantRack(selectedRacks, candidateRacks, selectedRacksItemsQs, order, true);
+        // Accept every rack if no agents are given, otherwise only the racks that can be assigned to an agent
+        Predicate<Rack> assignable = r -> true;
+
+        if (readyAgents != null) {
+            Set<Agent> idleAgents = new HashSet<>(readyAgents);
+
+            assignable = r -> {
+                Agent agent = selectAgent(idleAgents, r, 0);
+
+                // This rack cannot have any agent to be assigned to even if this rack is needed
+                if (agent == null) {
+                    return false;
+                }
+
+                idleAgents.remove(agent);
+                return true;
+            };
         }
 
-        return new ArrayList<>(selectedRacks.keySet());
+        RackSetCover cover = new RackSetCover(order, candidateRacks);
+        List<Rack> ret = cover.select(assignable, stageTwoRacksThreshold);
+
+        // Improve the greedy selection within the remaining time budget of the current time step
+        long deadline = Warehouse.getInstance().getImprovementDeadline();
+
+        if (deadline != 0 && System.nanoTime() < deadline) {
+            ret = cover.improve(assignable, deadline);
+        }
+
+        return ret;
     }
 
     /**
@@ -203,13 +607,96 @@ public class Dispatcher {
      * @return a suitable {@code Agent}.
      */
     private static Agent selectAgent(Set<Agent> readyAgents, Order order, Rack rack) {
-        // Compute maximum rack weight during the task
-        int rackWeight = rack.getStoredWeight();
+        int addedWeight = 0;
 
         if (order instanceof RefillOrder) {
-            rackWeight += ((RefillOrder) order).getAddedWeight();
+            addedWeight = ((RefillOrder) order).getAddedWeight();
+        }
+
+        Agent ret = selectAgent(readyAgents, rack, addedWeight);
+
+        if (rack.isAllocated() || Warehouse.getInstance().getAssignmentMode() != AssignmentMode.LOOKAHEAD) {
+            return ret;
         }
 
+        return selectLookAheadAgent(ret, rack, addedWeight);
+    }
+
+    /**
+     * Selects the active {@code Agent} about to finish its tasks that can reach the given {@code Rack}
+     * earlier than the given nearest idle {@code Agent}.
+     * <p>
+     * The time of an active {@code Agent} to reach the {@code Rack} is the estimated time to complete
+     * its queued tasks, followed by the distance from the storage cell of its last {@code Rack}.
+     *
+     * @param idle        the nearest capable idle {@code Agent}; or {@code null} if none.
+     * @param rack        the {@code Rack} to carry.
+     * @param addedWeight the weight to be added to the {@code Rack} during the task.
+     *
+     * @return the selected {@code Agent}; or the given idle {@code Agent}, if any, if no active agent is earlier.
+     */
+    private static Agent selectLookAheadAgent(Agent idle, Rack rack, int addedWeight) {
+        Warehouse warehouse = Warehouse.getInstance();
+        int rackWeight = rack.getStoredWeight() + addedWeight;
+
+        Agent ret = idle;
+        long best = (idle != null ? rack.getDistanceTo(idle.getRow(), idle.getCol()) : Long.MAX_VALUE);
+
+        for (Agent agent : warehouse.getActiveAgents()) {
+            Queue<Task> tasks = agent.getTasks();
+
+            if (tasks.size() > Constants.LOOKAHEAD_MAX_AGENT_TASKS || agent.getLoadCapacity() < rackWeight
+                    || agent.isBlocked() || agent.isDeactivated()) {
+                continue;
+            }
+
+            //
+            // Follow the remaining actions of the queued tasks of the agent
+            //
+            Position end = agent.getPosition();
+            long backlog = 0;
+
+            for (Task task : tasks) {
+                long steps = task.estimateRemainingSteps(end);
+
+                // Skip the tasks waiting for external events, as their completion cannot be estimated
+                if (task.isRelocation() || task.isStaging() || steps == Long.MAX_VALUE) {
+                    backlog = Long.MAX_VALUE;
+                    break;
+                }
+
+                backlog += steps;
+                end = task.getRack().getPosition();
+            }
+
+            int dis = rack.getDistanceTo(end);
+
+            if (backlog >= Integer.MAX_VALUE || dis == Integer.MAX_VALUE || !warehouse.hasEnergyFor(agent, rack, backlog)) {
+                continue;
+            }
+
+            if (backlog + dis < best) {
+                best = backlog + dis;
+                ret = agent;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Selects a suitable {@code Agent} for carrying out the given {@code Rack}.
+     *
+     * @param readyAgents the set of all idle agents.
+     * @param rack        the {@code Rack} to.
+     * @param addedWeight the weight to be added to the {@code Rack} during the task.
+     *
+     * @return a suitable {@code Agent}.
+     */
+    private static Agent selectAgent(Set<Agent> readyAgents, Rack rack, int addedWeight) {
+        // Compute maximum rack weight during the task, including the refills already on its trip
+        int rackWeight = rack.getStoredWeight() + getPendingAddedWeight(rack) + addedWeight;
+
         // If the rack is already allocated to an agent,
         // then assign the task to that agent
         if (rack.isAllocated()) {
@@ -222,6 +709,19 @@ public class Dispatcher {
             }
         }
 
+        // Use the spatial index of the ready agents for large fleets,
+        // falling back to the linear scan if the nearest agent cannot afford the rack
+        Warehouse warehouse = Warehouse.getInstance();
+        AgentIndex index = warehouse.getReadyAgentIndex();
+
+        if (readyAgents.size() > linearAgentScanThreshold && index.size() >= readyAgents.size()) {
+            Agent agent = index.findNearest(rack, rackWeight, readyAgents);
+
+            if (agent == null || warehouse.hasEnergyFor(agent, rack, 0)) {
+                return agent;
+            }
+        }
+
         // Selected agent and its corresponding distance
         Agent ret = null;
         int distance = Integer.MAX_VALUE;
@@ -230,8 +730,8 @@ public class Dispatcher {
         // Find the nearest agent to the rack
         //
         for (Agent agent : readyAgents) {
-            // Skip agent if it cannot hold that rack
-            if (agent.getLoadCapacity() < rackWeight) {
+            // Skip agent if it cannot hold that rack, or its battery cannot afford the trip
+            if (agent.getLoadCapacity() < rackWeight || !warehouse.hasEnergyFor(agent, rack, 0)) {
                 continue;
             }
 
@@ -248,4 +748,233 @@ public class Dispatcher {
         // Return the selected agent if reachable
         return (distance == Integer.MAX_VALUE) ? null : ret;
     }
+
+    /**
+     * Assigns suitable agents for carrying out the given racks jointly, either minimizing the total
+     * distance the agents travel to reach their racks, or auctioning the racks to the given agents.
+     * <p>
+     * Racks that are already allocated keep their allocating agents.
+     *
+     * @param readyAgents   the set of all idle agents; or the set of bidding agents in the auction mode.
+     * @param order         the {@code Order} to select agents for.
+     * @param selectedRacks the list of selected racks.
+     * @param mode          the joint assignment mode.
+     *
+     * @return a map from every assigned {@code Rack} to its {@code Agent}.
+     */
+    private static Map<Rack, Agent> assignAgents(Set<Agent> readyAgents, Order order, List<Rack> selectedRacks,
+                                                 AssignmentMode mode) {
+        Map<Rack, Agent> ret = new HashMap<>();
+        List<Rack> freeRacks = new ArrayList<>();
+
+        for (Rack rack : selectedRacks) {
+            if (rack.isAllocated()) {
+                ret.put(rack, selectAgent(readyAgents, order, rack));
+            } else {
+                freeRacks.add(rack);
+            }
+        }
+
+        int addedWeight = (order instanceof RefillOrder ? ((RefillOrder) order).getAddedWeight() : 0);
+
+        if (mode == AssignmentMode.HUNGARIAN) {
+            ret.putAll(AgentAssigner.assignAgents(freeRacks, readyAgents, addedWeight));
+            return ret;
+        }
+
+        ret.putAll(AgentAuctioneer.auctionRacks(freeRacks, order.getDeliveryGate(), readyAgents, addedWeight));
+        return ret;
+    }
+
+    /**
+     * Returns the set of agents the racks can be assigned to in the current assignment mode.
+     * That is, the idle agents, along with the active agents having room in their task queues
+     * in the auction and the look-ahead assignment modes.
+     *
+     * @param readyAgents the set of all idle agents.
+     *
+     * @return the set of candidate agents.
+     */
+    private static Set<Agent> getCandidateAgents(Set<Agent> readyAgents) {
+        int maxTasks;
+
+        switch (Warehouse.getInstance().getAssignmentMode()) {
+            case AUCTION:
+                maxTasks = Constants.AUCTION_MAX_AGENT_TASKS;
+                break;
+            case LOOKAHEAD:
+                maxTasks = Constants.LOOKAHEAD_MAX_AGENT_TASKS + 1;
+                break;
+            default:
+                return readyAgents;
+        }
+
+        Set<Agent> ret = new HashSet<>(readyAgents);
+
+        for (Agent agent : Warehouse.getInstance().getActiveAgents()) {
+            if (agent.getTasks().size() < maxTasks) {
+                ret.add(agent);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Adds the racks supplying the given demand whose tasks are still heading to gates
+     * to the given candidate racks, at the marginal cost of attaching the demand to their tasks.
+     * <p>
+     * The marginal cost is zero if the {@code Task} is already heading to the given {@code Gate};
+     * otherwise, it is the detour from the nearest pending gate of the {@code Task},
+     * and never more than a fresh trip of the {@code Rack}.
+     * The racks lifted ahead of the forecast orders are added as well,
+     * at the distance of their agents from the given {@code Gate}.
+     *
+     * @param order          the demanded items.
+     * @param gate           the delivery {@code Gate} of the demanded items.
+     * @param candidateRacks the map of candidate racks and their costs to update.
+     */
+    private static void addRideAlongRacks(QuantityAddable<Item> order, Gate gate, Map<Rack, Integer> candidateRacks) {
+        for (Agent agent : Warehouse.getInstance().getActiveAgents()) {
+            for (Task task : agent.getTasks()) {
+                Rack rack = task.getRack();
+
+                if (!isRideAlong(task) || !canSupply(rack, order)) {
+                    continue;
+                }
+
+                int cost = getRideAlongCost(task, gate);
+
+                if (cost != Integer.MAX_VALUE) {
+                    candidateRacks.put(rack, cost);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether new demand can ride along with the given {@code Task},
+     * that is, whether the {@code Task} is still heading to gates, or is lifting its {@code Rack}
+     * ahead of the forecast orders.
+     *
+     * @param task the {@code Task} to check.
+     *
+     * @return {@code true} if new demand can ride along with the {@code Task}; {@code false} otherwise.
+     */
+    private static boolean isRideAlong(Task task) {
+        return (task.isStaging() && task.getRack().isBound()) || !task.getPendingGates().isEmpty();
+    }
+
+    /**
+     * Returns the marginal cost of attaching demand to be delivered to the given {@code Gate}
+     * to the given ride-along {@code Task}.
+     *
+     * @param task the ride-along {@code Task}.
+     * @param gate the delivery {@code Gate} of the demand.
+     *
+     * @return the marginal cost; or {@link Integer#MAX_VALUE} if the {@code Gate} is unreachable.
+     *
+     * @see #addRideAlongRacks(QuantityAddable, Gate, Map)
+     */
+    private static int getRideAlongCost(Task task, Gate gate) {
+        if (task.isStaging() && task.getRack().isBound()) {
+            return gate.getDistanceTo(task.getAgent());
+        }
+
+        int ret = task.getRack().getDistanceTo(gate.getPosition());
+
+        for (Gate g : task.getPendingGates()) {
+            ret = Math.min(ret, (g == gate ? 0 : gate.getDistanceTo(g.getPosition())));
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the cost of delivering the given {@code Rack} to the given {@code Gate}
+     * as estimated by the rack selection.
+     * <p>
+     * The cost is the marginal cost of riding along with the current trip of the {@code Rack}, if any;
+     * otherwise, the round-trip cost of a fresh trip as given by the candidate racks.
+     * The expected wait in the queue of the {@code Gate} is added in both cases.
+     *
+     * @param rack the {@code Rack} to deliver.
+     * @param gate the delivery {@code Gate}.
+     *
+     * @return the estimated cost; or {@link Integer#MAX_VALUE} if the {@code Gate} is unreachable.
+     *
+     * @see #selectRacks(QuantityAddable, Gate, Set, Predicate)
+     */
+    static long getDeliveryCost(Rack rack, Gate gate) {
+        Task trip = getTrip(rack);
+        int cost = (trip != null && isRideAlong(trip) ? getRideAlongCost(trip, gate) : rack.getDistanceTo(gate.getPosition()));
+
+        if (cost == Integer.MAX_VALUE) {
+            return cost;
+        }
+
+        return (long) cost + getGateWait(rack, gate);
+    }
+
+    /**
+     * Returns the expected wait of delivering the given {@code Rack} to the given {@code Gate}.
+     * No extra wait is expected if the {@code Rack} is already heading to the {@code Gate}.
+     *
+     * @param rack the {@code Rack} to deliver.
+     * @param gate the delivery {@code Gate}.
+     *
+     * @return the expected wait in time steps.
+     */
+    private static int getGateWait(Rack rack, Gate gate) {
+        if (rack.isAllocated()) {
+            for (Task task : rack.getAllocatingAgent().getTasks()) {
+                if (task.getRack() == rack && task.getPendingGates().contains(gate)) {
+                    return 0;
+                }
+            }
+        }
+
+        return gate.getExpectedWait();
+    }
+
+    /**
+     * Returns the number of units of the given {@code Order} that the given racks cannot supply.
+     *
+     * @param order the {@code Order} to check.
+     * @param racks the list of racks.
+     *
+     * @return the number of uncovered units.
+     */
+    private static int getUncoveredUnits(Order order, List<Rack> racks) {
+        int ret = 0;
+
+        for (var itemEntry : order) {
+            int needed = itemEntry.getValue();
+
+            for (Rack rack : racks) {
+                needed -= rack.get(itemEntry.getKey());
+            }
+
+            ret += Math.max(needed, 0);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Checks whether the given {@code Rack} can partially fulfill the given demand or not.
+     *
+     * @param rack  the {@code Rack} to check.
+     * @param order the demanded items, either of a single order or of a batch of orders.
+     *
+     * @return {@code true} if the rack has some of the pending items; {@code false} otherwise.
+     */
+    private static boolean canSupply(Rack rack, QuantityAddable<Item> order) {
+        for (var itemEntry : order) {
+            if (rack.get(itemEntry.getKey()) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
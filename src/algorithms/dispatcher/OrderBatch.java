@@ -0,0 +1,130 @@
+package algorithms.dispatcher;
+
+import models.facilities.Gate;
+import models.items.Item;
+import models.items.QuantityAddable;
+import models.tasks.orders.Order;
+
+import java.util.*;
+
+
+/**
+ * This {@code OrderBatch} class represents a wave of pending orders delivered to the same {@link Gate}
+ * that are dispatched jointly, so that a single rack trip can serve several orders.
+ * <p>
+ * The batch holds the combined pending quantities of the items of all its orders.
+ */
+public class OrderBatch implements QuantityAddable<Item> {
+
+    //
+    // Member Variables
+    //
+
+    /**
+     * The delivery {@code Gate} of all the orders of this batch.
+     */
+    private Gate gate;
+
+    /**
+     * The list of orders of this batch in their arrival order.
+     */
+    private List<Order> orders = new ArrayList<>();
+
+    /**
+     * The map of the combined pending quantities of the items of all the orders.
+     */
+    private Map<Item, Integer> items = new HashMap<>();
+
+    /**
+     * The total number of pending units of all the orders.
+     */
+    private int pendingUnits;
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Constructs a new {@code OrderBatch} object.
+     *
+     * @param gate the delivery {@code Gate} of the batch.
+     */
+    public OrderBatch(Gate gate) {
+        this.gate = gate;
+    }
+
+    /**
+     * Returns the delivery {@code Gate} of this batch.
+     *
+     * @return the delivery {@code Gate}.
+     */
+    public Gate getDeliveryGate() {
+        return gate;
+    }
+
+    /**
+     * Returns the list of orders of this batch in their arrival order.
+     *
+     * @return the list of orders.
+     */
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    /**
+     * Returns the total number of pending units of all the orders of this batch.
+     *
+     * @return the number of pending units.
+     */
+    public int getPendingUnits() {
+        return pendingUnits;
+    }
+
+    /**
+     * Adds a new {@code Order} to this batch and accumulates its pending items.
+     *
+     * @param order the {@code Order} to add.
+     */
+    public void addOrder(Order order) {
+        orders.add(order);
+
+        for (var pair : order) {
+            add(pair.getKey(), pair.getValue());
+        }
+    }
+
+    /**
+     * Returns the combined pending quantity of the given {@code Item}.
+     *
+     * @param item the {@code Item} to get its quantity.
+     *
+     * @return the pending quantity.
+     */
+    @Override
+    public int get(Item item) {
+        return items.getOrDefault(item, 0);
+    }
+
+    /**
+     * Adds or removes some units of the given {@code Item} to this batch.
+     *
+     * @param item     the {@code Item} to add.
+     * @param quantity the quantity to be updated with.
+     */
+    @Override
+    public void add(Item item, int quantity) {
+        QuantityAddable.update(items, item, quantity);
+        pendingUnits += quantity;
+    }
+
+    /**
+     * Returns an {@code Iterator} to iterate over the combined pending items of this batch.
+     *
+     * @return an {@code Iterator}.
+     */
+    @Override
+    public Iterator<Map.Entry<Item, Integer>> iterator() {
+        return items.entrySet().iterator();
+    }
+}
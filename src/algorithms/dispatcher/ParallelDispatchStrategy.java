@@ -0,0 +1,36 @@
+package algorithms.dispatcher;
+
+import models.agents.Agent;
+import models.tasks.orders.Order;
+
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * This {@code ParallelDispatchStrategy} class selects the racks of all the pending orders in parallel,
+ * and then commits them in their scheduling order using {@link Dispatcher#dispatchParallel(List, Set)}.
+ */
+public class ParallelDispatchStrategy implements DispatchStrategy {
+
+    /**
+     * Returns the unique name of this strategy to select it by.
+     *
+     * @return the name of this strategy.
+     */
+    @Override
+    public String getName() {
+        return "parallel";
+    }
+
+    /**
+     * Dispatches the given pending orders in two phases of parallel selection and ordered commit.
+     *
+     * @param orders      the pending orders needed to be dispatched in their scheduling order.
+     * @param readyAgents the set of ready agents.
+     */
+    @Override
+    public void dispatch(List<Order> orders, Set<Agent> readyAgents) {
+        Dispatcher.dispatchParallel(orders, readyAgents);
+    }
+}
@@ -0,0 +1,228 @@
+package algorithms.dispatcher;
+
+import models.facilities.Gate;
+import models.facilities.Rack;
+import models.items.Item;
+import models.tasks.AbstractTask.TaskStatus;
+import models.tasks.Task;
+import models.tasks.orders.Order;
+import models.warehouses.Warehouse;
+
+import utils.Constants;
+import utils.Pair;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+
+/**
+ * This {@code RackRepositioner} class plans the pre-positioning of the high-demand racks
+ * towards the gates while the {@code Warehouse} is idle.
+ * <p>
+ * The demand of every {@code Item} is tracked from the order stream and decays exponentially
+ * with a half-life of {@link Constants#REPOSITION_DEMAND_HALF_LIFE} time steps.
+ * The demand score of a {@code Rack} is the share of the demand of its items that it can supply.
+ * <p>
+ * A swap exchanges the storage cells of a hot {@code Rack} far from the gates and a colder {@code Rack}
+ * closer to the gates, and is carried out by a pair of low-priority relocation tasks
+ * that any real {@code Order} can pre-empt.
+ */
+public class RackRepositioner {
+
+    //
+    // Member Variables
+    //
+
+    /**
+     * The map of the decayed demand of every {@code Item}.<p>
+     * The key is an {@code Item}.<p>
+     * The mapped value holds the decayed demand and the time step it was last updated at.
+     */
+    private Map<Item, double[]> demand = new HashMap<>();
+
+    /**
+     * The list of the running relocation tasks.
+     */
+    private List<Task> relocations = new ArrayList<>();
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Clears the recorded demand and forgets the running relocation tasks.
+     */
+    public void clear() {
+        demand.clear();
+        relocations.clear();
+    }
+
+    /**
+     * Records the demand of the items of the given newly received {@code Order}.
+     *
+     * @param order the received {@code Order}.
+     */
+    public void recordDemand(Order order) {
+        long time = Warehouse.getInstance().getTime();
+
+        for (var pair : order) {
+            double[] entry = demand.computeIfAbsent(pair.getKey(), k -> new double[2]);
+            entry[0] = decay(entry, time) + Math.abs(pair.getValue());
+            entry[1] = time;
+        }
+    }
+
+    /**
+     * Returns the current decayed demand of the given {@code Item}.
+     *
+     * @param item the {@code Item}.
+     *
+     * @return the decayed demand.
+     */
+    public double getDemand(Item item) {
+        double[] entry = demand.get(item);
+        return (entry == null ? 0 : decay(entry, Warehouse.getInstance().getTime()));
+    }
+
+    /**
+     * Returns the demand score of the given {@code Rack}, that is the sum of the demand
+     * of every stored {@code Item} weighted by the share of its units stored in the {@code Rack}.
+     *
+     * @param rack the {@code Rack}.
+     *
+     * @return the demand score.
+     */
+    public double getScore(Rack rack) {
+        double ret = 0;
+
+        for (var pair : rack) {
+            Item item = pair.getKey();
+            int total = item.getTotalUnits();
+
+            if (total > 0) {
+                ret += getDemand(item) * pair.getValue() / total;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Selects the most beneficial swap of two free racks.
+     * <p>
+     * The hottest and the nearest racks to the gates are paired, and the swap maximizing the saved
+     * round-trip distance of the expected demand, minus the travel needed for the swap, is selected.
+     *
+     * @param racks the collection of all racks.
+     * @param gates the collection of all gates.
+     *
+     * @return a pair of the hot far {@code Rack} and the cold near {@code Rack};
+     * or {@code null} if no swap is beneficial.
+     */
+    public Pair<Rack, Rack> selectSwap(Collection<Rack> racks, Collection<Gate> gates) {
+        Map<Rack, Double> scores = new HashMap<>();
+        Map<Rack, Integer> distances = new HashMap<>();
+
+        for (Rack rack : racks) {
+            if (rack.isAllocated() || rack.isBound()) {
+                continue;
+            }
+
+            int dis = Integer.MAX_VALUE;
+            for (Gate gate : gates) {
+                dis = Math.min(dis, rack.getDistanceTo(gate.getPosition()));
+            }
+
+            if (dis != Integer.MAX_VALUE) {
+                scores.put(rack, getScore(rack));
+                distances.put(rack, dis);
+            }
+        }
+
+        // Get the candidates of both sides of the swap
+        List<Rack> hot = scores.keySet().stream()
+                .filter(r -> scores.get(r) > 0)
+                .sorted(Comparator.comparingDouble((Rack r) -> -scores.get(r)).thenComparingInt(Rack::getId))
+                .limit(Constants.REPOSITION_CANDIDATES)
+                .collect(Collectors.toList());
+
+        List<Rack> near = scores.keySet().stream()
+                .sorted(Comparator.comparingInt((Rack r) -> distances.get(r)).thenComparingInt(Rack::getId))
+                .limit(Constants.REPOSITION_CANDIDATES)
+                .collect(Collectors.toList());
+
+        Pair<Rack, Rack> ret = null;
+        double bestGain = 0;
+
+        //
+        // Evaluate every pair of candidates
+        //
+        for (Rack far : hot) {
+            for (Rack close : near) {
+                int saved = distances.get(far) - distances.get(close);
+                double hotter = scores.get(far) - scores.get(close);
+
+                if (saved <= 0 || hotter <= 0) {
+                    continue;
+                }
+
+                int travel = far.getDistanceTo(close.getPosition());
+
+                if (travel == Integer.MAX_VALUE) {
+                    continue;
+                }
+
+                double gain = 2 * hotter * saved - 2 * travel;
+
+                if (gain > bestGain) {
+                    bestGain = gain;
+                    ret = new Pair<>(far, close);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Keeps track of the given newly dispatched relocation tasks.
+     *
+     * @param tasks the list of relocation tasks.
+     */
+    public void addRelocations(List<Task> tasks) {
+        relocations.addAll(tasks);
+    }
+
+    /**
+     * Returns the running relocation tasks that can still be pre-empted by a real {@code Order},
+     * and forgets the completed ones.
+     *
+     * @return the list of pre-emptible relocation tasks.
+     */
+    public List<Task> getPreemptibleRelocations() {
+        relocations.removeIf(t -> t.getStatus() == TaskStatus.FULFILLED);
+
+        List<Task> ret = new ArrayList<>();
+
+        for (Task task : relocations) {
+            if (task.isPreemptible()) {
+                ret.add(task);
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the decayed value of the given demand entry at the given time step.
+     *
+     * @param entry the demand entry holding the value and its last update time step.
+     * @param time  the current time step.
+     *
+     * @return the decayed demand.
+     */
+    private static double decay(double[] entry, long time) {
+        return entry[0] * Math.pow(0.5, (time - entry[1]) / Constants.REPOSITION_DEMAND_HALF_LIFE);
+    }
+}
@@ -0,0 +1,38 @@
+package algorithms.dispatcher;
+
+import models.agents.Agent;
+import models.tasks.orders.Order;
+
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * This {@code SequentialDispatchStrategy} class is the default greedy strategy dispatching the pending orders
+ * one at a time in their scheduling order using {@link Dispatcher#dispatch(Order, Set)}.
+ */
+public class SequentialDispatchStrategy implements DispatchStrategy {
+
+    /**
+     * Returns the unique name of this strategy to select it by.
+     *
+     * @return the name of this strategy.
+     */
+    @Override
+    public String getName() {
+        return "sequential";
+    }
+
+    /**
+     * Dispatches the given pending orders one at a time in their scheduling order.
+     *
+     * @param orders      the pending orders needed to be dispatched in their scheduling order.
+     * @param readyAgents the set of ready agents.
+     */
+    @Override
+    public void dispatch(List<Order> orders, Set<Agent> readyAgents) {
+        for (Order order : orders) {
+            Dispatcher.dispatch(order, readyAgents);
+        }
+    }
+}
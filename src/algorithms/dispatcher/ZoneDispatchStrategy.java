@@ -0,0 +1,441 @@
+package algorithms.dispatcher;
+
+import models.agents.Agent;
+import models.facilities.Gate;
+import models.facilities.Rack;
+import models.tasks.Task;
+import models.tasks.orders.Order;
+import models.tasks.orders.RefillOrder;
+import models.warehouses.Warehouse;
+
+import utils.Constants;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+
+/**
+ * This {@code ZoneDispatchStrategy} class partitions the warehouse floor into zones,
+ * and dispatches the pending orders hierarchically for large fleets.
+ * <p>
+ * The zones are squares of a fixed side length, or aligned with the connected regions
+ * of the {@code Warehouse} if the side length is zero, which only partitions the floors split into
+ * several regions. An {@code Order} is local to a zone
+ * if all of its allowed gates, and its refill {@code Rack} if any, lie in the zone.
+ * <p>
+ * The local orders of every zone select their racks among the racks of the zone, and their agents
+ * among the ready agents of the zone. The zones are evaluated in parallel, and then committed one at a time,
+ * as in {@link Dispatcher#dispatchParallel(List, Set)}, since the inventory state is shared.
+ * <p>
+ * The cross-zone orders, and the local orders that their zones could not fully serve,
+ * are then dispatched by a global coordinator over all the racks and ready agents,
+ * which rebalances the agents by lending the idle agents of the other zones to the orders of the zones
+ * lacking agents. The idle agents are not moved towards such zones ahead of their orders.
+ */
+public class ZoneDispatchStrategy implements DispatchStrategy {
+
+    //
+    // Member Variables
+    //
+
+    /**
+     * The side length in cells of the square zones; or {@code 0} to align the zones with the regions.
+     */
+    private final int zoneSize;
+
+    /**
+     * The map of the dispatching metrics of every zone, indexed by the zone id.
+     */
+    private Map<Integer, ZoneMetrics> metrics = new TreeMap<>();
+
+    /**
+     * The number of cross-zone orders dispatched by the coordinator.
+     */
+    private long crossZoneOrders;
+
+    /**
+     * The number of rack trips dispatched by the coordinator delivering a rack to a gate of another zone.
+     */
+    private long crossZoneTrips;
+
+    /**
+     * The number of agents lent by the coordinator to the orders of other zones.
+     */
+    private long lentAgents;
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Constructs a new {@code ZoneDispatchStrategy} object of the default zone size.
+     */
+    public ZoneDispatchStrategy() {
+        this(Constants.DEFAULT_ZONE_SIZE);
+    }
+
+    /**
+     * Constructs a new {@code ZoneDispatchStrategy} object.
+     *
+     * @param zoneSize the side length in cells of the square zones; or {@code 0} to align the zones with the regions.
+     */
+    public ZoneDispatchStrategy(int zoneSize) {
+        this.zoneSize = zoneSize;
+    }
+
+    /**
+     * Returns the unique name of this strategy to select it by.
+     *
+     * @return the name of this strategy.
+     */
+    @Override
+    public String getName() {
+        return "zone";
+    }
+
+    /**
+     * Returns the id of the zone of the given cell.
+     *
+     * @param row the row position of the cell.
+     * @param col the column position of the cell.
+     *
+     * @return the zone id.
+     */
+    public int getZone(int row, int col) {
+        Warehouse warehouse = Warehouse.getInstance();
+
+        if (zoneSize <= 0) {
+            return warehouse.getRegion(row, col);
+        }
+
+        int zoneCols = (warehouse.getCols() + zoneSize - 1) / zoneSize;
+        return (row / zoneSize) * zoneCols + (col / zoneSize) + 1;
+    }
+
+    /**
+     * Returns the id of the zone the given {@code Order} is local to.
+     *
+     * @param order the {@code Order}.
+     *
+     * @return the zone id; or {@code -1} if the {@code Order} spans several zones.
+     */
+    public int getZone(Order order) {
+        Gate gate = order.getDeliveryGate();
+        int ret = getZone(gate.getRow(), gate.getCol());
+
+        if (order.isGateSelectable()) {
+            for (Gate g : order.getAllowedGates()) {
+                if (getZone(g.getRow(), g.getCol()) != ret) {
+                    return -1;
+                }
+            }
+        }
+
+        if (order instanceof RefillOrder) {
+            Rack rack = ((RefillOrder) order).getRefillRack();
+
+            if (getZone(rack.getRow(), rack.getCol()) != ret) {
+                return -1;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Dispatches the given pending orders locally within their zones,
+     * and then the remaining ones globally by the coordinator.
+     *
+     * @param orders      the pending orders needed to be dispatched in their scheduling order.
+     * @param readyAgents the set of ready agents.
+     */
+    @Override
+    public void dispatch(List<Order> orders, Set<Agent> readyAgents) {
+        //
+        // Partition the orders and the ready agents into the zones
+        //
+        Map<Integer, List<Order>> localOrders = new TreeMap<>();
+        Map<Integer, Set<Agent>> localAgents = new HashMap<>();
+
+        for (Order order : orders) {
+            int zone = getZone(order);
+
+            if (zone != -1) {
+                localOrders.computeIfAbsent(zone, z -> new ArrayList<>()).add(order);
+            }
+        }
+
+        for (int zone : localOrders.keySet()) {
+            localAgents.put(zone, new HashSet<>());
+            metrics.computeIfAbsent(zone, z -> new ZoneMetrics());
+        }
+
+        for (Agent agent : readyAgents) {
+            Set<Agent> agents = localAgents.get(getZone(agent.getRow(), agent.getCol()));
+
+            if (agents != null) {
+                agents.add(agent);
+            }
+        }
+
+        //
+        // Phase 1: evaluate the local rack selections of every zone in parallel
+        //
+        Map<Integer, List<Map.Entry<Gate, List<Rack>>>> selections = localOrders.keySet().parallelStream()
+                .collect(Collectors.toMap(zone -> zone, zone -> selectLocal(zone, localOrders.get(zone), localAgents.get(zone))));
+
+        //
+        // Phase 2: commit the local selections serially
+        //
+        for (var entry : localOrders.entrySet()) {
+            int zone = entry.getKey();
+            List<Order> zoneOrders = entry.getValue();
+            Set<Agent> agents = localAgents.get(zone);
+            long start = System.nanoTime();
+            int dispatched = 0;
+
+            for (int i = 0; i < zoneOrders.size(); ++i) {
+                List<Task> tasks = Dispatcher.commitSelection(zoneOrders.get(i), selections.get(zone).get(i), agents);
+
+                for (Task task : tasks) {
+                    agents.remove(task.getAgent());
+                }
+
+                // Count only the orders served locally, the others fall through to the coordinator
+                if (!tasks.isEmpty()) {
+                    dispatched++;
+                }
+            }
+
+            metrics.get(zone).recordCommit(dispatched, System.nanoTime() - start);
+        }
+
+        //
+        // Phase 3: coordinate the remaining orders over all the zones
+        //
+        for (Order order : orders) {
+            if (order.isPending()) {
+                coordinate(order, readyAgents);
+            }
+        }
+    }
+
+    /**
+     * Selects the racks of the given local orders of a zone among the racks and the ready agents of the zone.
+     * <p>
+     * This function does not modify the shared state, so different zones can be evaluated concurrently.
+     *
+     * @param zone   the zone id.
+     * @param orders the local orders of the zone in their scheduling order.
+     * @param agents the ready agents of the zone.
+     *
+     * @return the list of the selections of the orders.
+     */
+    private List<Map.Entry<Gate, List<Rack>>> selectLocal(int zone, List<Order> orders, Set<Agent> agents) {
+        long start = System.nanoTime();
+        Predicate<Rack> local = r -> getZone(r.getRow(), r.getCol()) == zone;
+        List<Map.Entry<Gate, List<Rack>>> ret = new ArrayList<>(orders.size());
+
+        for (Order order : orders) {
+            ret.add(Dispatcher.selectGateAndRacks(order, agents, local));
+        }
+
+        metrics.get(zone).recordSelection(System.nanoTime() - start);
+        return ret;
+    }
+
+    /**
+     * Dispatches the given {@code Order} globally over all the racks and ready agents,
+     * tracking its cross-zone traffic.
+     *
+     * @param order       the {@code Order} to dispatch.
+     * @param readyAgents the set of ready agents.
+     */
+    private void coordinate(Order order, Set<Agent> readyAgents) {
+        boolean cross = (getZone(order) == -1);
+        boolean dispatched = false;
+
+        while (order.isPending()) {
+            Map.Entry<Gate, List<Rack>> selection = Dispatcher.selectGateAndRacks(order, readyAgents, null);
+
+            if (selection.getValue().isEmpty()) {
+                break;
+            }
+
+            List<Task> tasks = Dispatcher.commitSelection(order, selection, readyAgents);
+
+            if (tasks.isEmpty()) {
+                break;
+            }
+
+            Gate gate = order.getDeliveryGate();
+            int gateZone = getZone(gate.getRow(), gate.getCol());
+
+            for (Task task : tasks) {
+                Rack rack = task.getRack();
+                Agent agent = task.getAgent();
+
+                if (getZone(rack.getRow(), rack.getCol()) != gateZone) {
+                    crossZoneTrips++;
+                }
+                if (getZone(agent.getRow(), agent.getCol()) != gateZone) {
+                    lentAgents++;
+                }
+            }
+
+            dispatched = true;
+        }
+
+        if (cross && dispatched) {
+            crossZoneOrders++;
+        }
+    }
+
+    /**
+     * Returns the number of cross-zone orders dispatched by the coordinator.
+     *
+     * @return the number of cross-zone orders.
+     */
+    public long getCrossZoneOrders() {
+        return crossZoneOrders;
+    }
+
+    /**
+     * Returns the number of rack trips dispatched by the coordinator delivering a rack to a gate of another zone.
+     *
+     * @return the number of cross-zone trips.
+     */
+    public long getCrossZoneTrips() {
+        return crossZoneTrips;
+    }
+
+    /**
+     * Returns the number of agents lent by the coordinator to the orders of other zones.
+     *
+     * @return the number of lent agents.
+     */
+    public long getLentAgents() {
+        return lentAgents;
+    }
+
+    /**
+     * Returns the number of local orders of the given zone assigned tasks within the zone,
+     * excluding the ones that fell through to the coordinator.
+     *
+     * @param zone the zone id.
+     *
+     * @return the number of locally dispatched orders.
+     */
+    public long getZoneOrders(int zone) {
+        ZoneMetrics m = metrics.get(zone);
+        return (m == null ? 0 : m.orders);
+    }
+
+    /**
+     * Returns the mean dispatch latency of the given zone per time step.
+     *
+     * @param zone the zone id.
+     *
+     * @return the mean latency in microseconds; or {@code 0} if the zone has never dispatched.
+     */
+    public double getZoneLatency(int zone) {
+        ZoneMetrics m = metrics.get(zone);
+        return (m == null ? 0 : m.getMeanLatency());
+    }
+
+    /**
+     * Returns a report of the cross-zone traffic and the per-zone dispatch latencies.
+     *
+     * @return the metrics report of this strategy.
+     */
+    @Override
+    public String getMetrics() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append(String.format("Cross-zone: %d orders, %d trips, %d lent agents",
+                crossZoneOrders, crossZoneTrips, lentAgents));
+
+        for (var entry : metrics.entrySet()) {
+            ZoneMetrics m = entry.getValue();
+
+            builder.append("\n");
+            builder.append(String.format("Zone-%d: %d orders, dispatch latency %.2f us mean, %.2f us max",
+                    entry.getKey(), m.orders, m.getMeanLatency(), m.maxNanos / 1000.));
+        }
+
+        return builder.toString();
+    }
+
+    // ===============================================================================================
+    //
+    // Helper Inner Classes
+    //
+
+    /**
+     * This {@code ZoneMetrics} class accumulates the dispatching metrics of a single zone.
+     * <p>
+     * The latency of a round sums both the parallel selection and the serial commit of the zone.
+     */
+    private static class ZoneMetrics {
+
+        /**
+         * The number of local orders assigned tasks within the zone.
+         */
+        long orders;
+
+        /**
+         * The number of dispatching rounds.
+         */
+        long rounds;
+
+        /**
+         * The total dispatch latency in nanoseconds.
+         */
+        long totalNanos;
+
+        /**
+         * The maximum dispatch latency of a round in nanoseconds.
+         */
+        long maxNanos;
+
+        /**
+         * The latency of the current round in nanoseconds.
+         */
+        long roundNanos;
+
+        /**
+         * Records the selection phase of the current round.
+         *
+         * @param nanos the latency of the phase in nanoseconds.
+         */
+        void recordSelection(long nanos) {
+            roundNanos += nanos;
+        }
+
+        /**
+         * Records the commit phase ending the current round.
+         *
+         * @param count the number of local orders assigned tasks by the commit.
+         * @param nanos the latency of the phase in nanoseconds.
+         */
+        void recordCommit(int count, long nanos) {
+            roundNanos += nanos;
+            orders += count;
+            rounds++;
+            totalNanos += roundNanos;
+            maxNanos = Math.max(maxNanos, roundNanos);
+            roundNanos = 0;
+        }
+
+        /**
+         * Returns the mean dispatch latency per round.
+         *
+         * @return the mean latency in microseconds.
+         */
+        double getMeanLatency() {
+            return (rounds == 0 ? 0 : totalNanos / 1000. / rounds);
+        }
+    }
+}
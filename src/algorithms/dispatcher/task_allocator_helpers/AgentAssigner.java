@@ -1,13 +1,8 @@
 package algorithms.dispatcher.task_allocator_helpers;
 
-import models.HiveObject;
 import models.agents.Agent;
 import models.facilities.Rack;
-import models.maps.Position;
-import org.jgrapht.alg.interfaces.MatchingAlgorithm;
-import org.jgrapht.alg.matching.KuhnMunkresMinimalWeightBipartitePerfectMatching;
-import org.jgrapht.graph.DefaultWeightedEdge;
-import org.jgrapht.graph.SimpleDirectedWeightedGraph;
+import models.warehouses.Warehouse;
 
 import java.util.*;
 
@@ -16,75 +11,60 @@ public class AgentAssigner {
 
     /**
      * Using Hungarian algorithm for solving the agent assignment problem where we should assign the agents to the
-     * selected racks.
+     * selected racks, minimizing the total distance the agents travel to reach their racks.
      *
-     * @param gatePos         {@code Position} the position of the gate.
      * @param selectedRacks   list of the selected {@code Rack}s.
-     * @param candidateAgents list of the candidate agents {@code agent}s
+     * @param candidateAgents collection of the candidate {@code Agent}s.
+     * @param addedWeight     the weight to be added to every {@code Rack} during its task.
      *
-     * @return A matching solution for the assignment problem.
+     * @return A map from every assigned {@code Rack} to its {@code Agent}; racks with no capable
+     * reachable agent are left unassigned.
      */
-    public static Map<HiveObject, HiveObject> assignAgents(Position gatePos, List<Rack> selectedRacks, Set<Agent> candidateAgents) {
-        // Create the cost bipartite graph
-        int nRacks = selectedRacks.size();
-        SimpleDirectedWeightedGraph<HiveObject, DefaultWeightedEdge> costGraph = new
-                SimpleDirectedWeightedGraph<HiveObject, DefaultWeightedEdge>(DefaultWeightedEdge.class);
+    public static Map<Rack, Agent> assignAgents(List<Rack> selectedRacks, Collection<Agent> candidateAgents,
+                                                int addedWeight) {
+        List<Agent> agents = new ArrayList<>(candidateAgents);
+        int[][] cost = new int[selectedRacks.size()][agents.size()];
 
-        // Create the two bipartite graph sets
-        Set<HiveObject> racksSet = new HashSet<>();
-        Set<HiveObject> agentsSet = new HashSet<>();
+        // Fill the cost matrix
+        for (int i = 0; i < selectedRacks.size(); ++i) {
+            Rack rack = selectedRacks.get(i);
 
-        for (int i = 0; i < Math.max(nRacks, candidateAgents.size()); i++) {
-            Rack rack = null;
-            if (i < nRacks) {
-                rack = selectedRacks.get(i);
-            } else {
-                rack = new Rack();
-            }
-
-            racksSet.add(rack);
-            costGraph.addVertex(rack);
-            for (Agent agent : candidateAgents) {
-                if (!costGraph.containsVertex(agent))
-                    costGraph.addVertex(agent);
-                costGraph.addEdge(rack, agent);
-
-                int cost = 0;
-                if (i < nRacks) {
-                    cost = calculateOperationCost(rack, agent.getPosition());
-                }
-
-                costGraph.setEdgeWeight(rack, agent, cost);
-                agentsSet.add(agent);
+            for (int j = 0; j < agents.size(); ++j) {
+                cost[i][j] = calculateOperationCost(rack, agents.get(j), addedWeight);
             }
         }
 
         // Run Hungarian algorithm on the current racks and the current available agents
-        KuhnMunkresMinimalWeightBipartitePerfectMatching<HiveObject, DefaultWeightedEdge> assigner = new
-                KuhnMunkresMinimalWeightBipartitePerfectMatching<HiveObject, DefaultWeightedEdge>(costGraph, racksSet, agentsSet);
-
-        MatchingAlgorithm.Matching<HiveObject, DefaultWeightedEdge> matching = assigner.getMatching();
+        int[] matching = HungarianSolver.solve(cost);
 
         // Prepare result
-        Map<HiveObject, HiveObject> assignment = new HashMap<>();
-        for (DefaultWeightedEdge edge : matching.getEdges()) {
-            assignment.put(costGraph.getEdgeSource(edge), costGraph.getEdgeTarget(edge));
+        Map<Rack, Agent> assignment = new HashMap<>();
+        for (int i = 0; i < matching.length; ++i) {
+            if (matching[i] >= 0) {
+                assignment.put(selectedRacks.get(i), agents.get(matching[i]));
+            }
         }
 
         return assignment;
     }
 
     /**
-     * Calculate the estimated operational cost for a certain {@code Agent} transferring a {@code Rack} to a certain
-     * {@code Gate}.
+     * Calculate the estimated operational cost for a certain {@code Agent} to reach and carry a certain {@code Rack}.
      *
-     * @param rack  {@code GuideGrid} of the rack.
-     * @param agentPos {@code Position} of the agent.
+     * @param rack        the {@code Rack} to carry.
+     * @param agent       the {@code Agent} to carry the rack.
+     * @param addedWeight the weight to be added to the {@code Rack} during its task.
      *
-     * @return the estimated operational cost.
+     * @return the estimated operational cost; or {@link HungarianSolver#INFEASIBLE} if the agent
+     * cannot carry the rack, or its battery cannot afford the trip.
      */
-    private static int calculateOperationCost(Rack rack, Position agentPos) {
-        return rack.getDistanceTo(agentPos) * 19;
-    }
+    private static int calculateOperationCost(Rack rack, Agent agent, int addedWeight) {
+        if (agent.getLoadCapacity() < rack.getStoredWeight() + addedWeight
+                || !Warehouse.getInstance().hasEnergyFor(agent, rack, 0)) {
+            return HungarianSolver.INFEASIBLE;
+        }
 
-}
\ No newline at end of file
+        int dis = rack.getDistanceTo(agent.getRow(), agent.getCol());
+        return (dis == Integer.MAX_VALUE ? HungarianSolver.INFEASIBLE : dis);
+    }
+}
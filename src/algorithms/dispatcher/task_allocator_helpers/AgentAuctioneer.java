@@ -0,0 +1,148 @@
+package algorithms.dispatcher.task_allocator_helpers;
+
+import models.agents.Agent;
+import models.facilities.Gate;
+import models.facilities.Rack;
+import models.maps.Position;
+import models.tasks.Task;
+import models.warehouses.Warehouse;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+
+/**
+ * This {@code AgentAuctioneer} class allocates the selected racks to agents using
+ * sequential single-item auctions.
+ * <p>
+ * The racks are auctioned one at a time, and every capable {@code Agent} bids its marginal cost,
+ * that is, the estimated time to finish its queued tasks, including the expected waits in the queues
+ * of their gates, plus the trip to the auctioned rack.
+ * The winner's queue is extended by the won rack before the next auction,
+ * so a single {@code Agent} may win several racks at the cost of its growing queue.
+ */
+public class AgentAuctioneer {
+
+    /**
+     * Auctions the given racks over the given bidding agents.
+     *
+     * @param selectedRacks the list of the selected {@code Rack}s in their auction order.
+     * @param gate          the delivery {@code Gate} of the racks.
+     * @param bidders       the collection of the bidding agents.
+     * @param addedWeight   the weight to be added to every {@code Rack} during its task.
+     *
+     * @return A map from every assigned {@code Rack} to its winning {@code Agent}; racks with no capable
+     * reachable agent are left unassigned.
+     */
+    public static Map<Rack, Agent> auctionRacks(List<Rack> selectedRacks, Gate gate, Collection<Agent> bidders,
+                                                int addedWeight) {
+        // Estimate the backlog of every bidder in parallel
+        List<Bidder> bids = bidders.parallelStream()
+                .map(Bidder::new)
+                .filter(b -> b.distance != Long.MAX_VALUE)
+                .collect(Collectors.toList());
+
+        Map<Rack, Agent> ret = new HashMap<>();
+        Warehouse warehouse = Warehouse.getInstance();
+
+        //
+        // Auction the racks one at a time
+        //
+        for (Rack rack : selectedRacks) {
+            int rackWeight = rack.getStoredWeight() + addedWeight;
+
+            // Collect the bids of the capable agents in parallel
+            Optional<Bidder> winner = bids.parallelStream()
+                    .filter(b -> b.agent.getLoadCapacity() >= rackWeight)
+                    .filter(b -> warehouse.hasEnergyFor(b.agent, rack, b.distance))
+                    .filter(b -> b.bid(rack) != Long.MAX_VALUE)
+                    .min(Comparator.comparingLong((Bidder b) -> b.bid(rack)).thenComparingInt(b -> b.agent.getId()));
+
+            if (winner.isEmpty()) {
+                continue;
+            }
+
+            Bidder bidder = winner.get();
+            bidder.win(rack, gate);
+            ret.put(rack, bidder.agent);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Adds the given distance to the given accumulated distance.
+     *
+     * @param total the accumulated distance.
+     * @param dis   the distance to add.
+     *
+     * @return the sum; or {@code Long.MAX_VALUE} if any of them is unreachable.
+     */
+    private static long add(long total, long dis) {
+        if (total == Long.MAX_VALUE || dis < 0 || dis >= Integer.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+
+        return total + dis;
+    }
+
+    /**
+     * The bidding state of a single {@code Agent} during the auctions.
+     */
+    private static class Bidder {
+
+        /**
+         * The bidding {@code Agent}.
+         */
+        private Agent agent;
+
+        /**
+         * The position of the {@code Agent} after finishing its queue.
+         */
+        private Position end;
+
+        /**
+         * The estimated time to finish the queue of the {@code Agent}.
+         */
+        private long distance;
+
+        /**
+         * Constructs a new {@code Bidder} and estimates the backlog of its {@code Agent}.
+         *
+         * @param agent the bidding {@code Agent}.
+         */
+        private Bidder(Agent agent) {
+            this.agent = agent;
+            this.end = agent.getPosition();
+
+            // Follow the remaining actions of the queued tasks of the agent
+            for (Task task : agent.getTasks()) {
+                distance = add(distance, task.estimateRemainingSteps(end));
+                end = task.getRack().getPosition();
+            }
+        }
+
+        /**
+         * Returns the marginal cost of serving the given {@code Rack}.
+         *
+         * @param rack the auctioned {@code Rack}.
+         *
+         * @return the bid; or {@code Long.MAX_VALUE} if the {@code Rack} is unreachable.
+         */
+        private long bid(Rack rack) {
+            return add(distance, rack.getDistanceTo(end));
+        }
+
+        /**
+         * Extends the queue of this bidder with the won {@code Rack}.
+         *
+         * @param rack the won {@code Rack}.
+         * @param gate the delivery {@code Gate} of the {@code Rack}.
+         */
+        private void win(Rack rack, Gate gate) {
+            distance = add(bid(rack), 2L * gate.getDistanceTo(rack.getPosition()));
+            distance = add(distance, gate.getExpectedWait());
+            end = rack.getPosition();
+        }
+    }
+}
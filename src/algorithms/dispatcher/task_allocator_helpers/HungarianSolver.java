@@ -0,0 +1,159 @@
+package algorithms.dispatcher.task_allocator_helpers;
+
+import java.util.Arrays;
+
+
+/**
+ * This {@code HungarianSolver} class solves the rectangular assignment problem
+ * over a primitive cost matrix using the O(n^2 m) Hungarian algorithm with potentials.
+ * <p>
+ * No padding is needed for rectangular matrices, every row is assigned to a distinct column
+ * when there are no more rows than columns, and vice versa.
+ */
+public class HungarianSolver {
+
+    /**
+     * The cost value marking a row that cannot be assigned to a column.
+     */
+    public static final int INFEASIBLE = Integer.MAX_VALUE;
+
+    /**
+     * The penalty used internally for infeasible pairs, large enough to exceed any sum of feasible costs.
+     */
+    private static final long PENALTY = 1L << 40;
+
+    /**
+     * Infinity value for the internal computations.
+     */
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    /**
+     * Solves the assignment problem minimizing the total cost of the given cost matrix.
+     * <p>
+     * Pairs with {@link #INFEASIBLE} cost are never assigned, the maximum possible number
+     * of rows is assigned first, and then the total cost is minimized.
+     *
+     * @param cost the cost matrix, where {@code cost[i][j]} is the cost of assigning row {@code i} to column {@code j}.
+     *
+     * @return an array holding the assigned column of every row; or {@code -1} if the row is unassigned.
+     */
+    public static int[] solve(int[][] cost) {
+        int n = cost.length;
+        int m = (n > 0 ? cost[0].length : 0);
+
+        if (n == 0 || m == 0) {
+            int[] ret = new int[n];
+            Arrays.fill(ret, -1);
+            return ret;
+        }
+
+        // Solve the transposed problem if there are more rows than columns
+        if (n > m) {
+            int[][] transposed = new int[m][n];
+
+            for (int i = 0; i < n; ++i) {
+                for (int j = 0; j < m; ++j) {
+                    transposed[j][i] = cost[i][j];
+                }
+            }
+
+            int[] cols = solve(transposed);
+            int[] ret = new int[n];
+            Arrays.fill(ret, -1);
+
+            for (int j = 0; j < m; ++j) {
+                if (cols[j] >= 0) {
+                    ret[cols[j]] = j;
+                }
+            }
+
+            return ret;
+        }
+
+        //
+        // Run the Hungarian algorithm adding one row at a time, indices are 1-based
+        //
+        long[] u = new long[n + 1];
+        long[] v = new long[m + 1];
+        long[] minv = new long[m + 1];
+        int[] p = new int[m + 1];       // The row assigned to every column
+        int[] way = new int[m + 1];     // The previous column in the augmenting path
+        boolean[] used = new boolean[m + 1];
+
+        for (int i = 1; i <= n; ++i) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, INF);
+            Arrays.fill(used, false);
+
+            // Find an augmenting path from the current row to a free column
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                int j1 = 0;
+                long delta = INF;
+
+                for (int j = 1; j <= m; ++j) {
+                    if (used[j]) {
+                        continue;
+                    }
+
+                    long cur = weight(cost[i0 - 1][j - 1]) - u[i0] - v[j];
+
+                    if (cur < minv[j]) {
+                        minv[j] = cur;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+
+                // Update the potentials
+                for (int j = 0; j <= m; ++j) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+
+                j0 = j1;
+            } while (p[j0] != 0);
+
+            // Flip the augmenting path
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        //
+        // Extract the assignment of every row
+        //
+        int[] ret = new int[n];
+        Arrays.fill(ret, -1);
+
+        for (int j = 1; j <= m; ++j) {
+            if (p[j] != 0 && cost[p[j] - 1][j - 1] != INFEASIBLE) {
+                ret[p[j] - 1] = j - 1;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the internal weight of the given cost.
+     *
+     * @param cost the cost of a pair.
+     *
+     * @return the weight of the pair.
+     */
+    private static long weight(int cost) {
+        return (cost == INFEASIBLE ? PENALTY : cost);
+    }
+}
@@ -1,14 +1,22 @@
 package algorithms.dispatcher.task_allocator_helpers;
 
+import models.facilities.Gate;
 import models.facilities.Rack;
 import models.items.Item;
+import models.items.QuantityAddable;
 import models.maps.Position;
-import models.tasks.orders.Order;
 
 import java.util.*;
 
 
 public class RackSelectorHelper {
+
+    /**
+     * The number of extra candidate racks to scan per item beyond the nearest racks
+     * covering the needed quantity of the item.
+     */
+    private static final int CANDIDATE_EXTRA_RACKS = 8;
+
     /**
      * Apply Exchange step to the current accepted racks with the ignored and candidate racks
      * for better refinements if possible.
@@ -22,7 +30,8 @@ public class RackSelectorHelper {
      */
     public static int exchangeRacks(Map<Rack, Integer> rackSet, Map<Rack, Integer> selectedRacks,
                                     Map<Rack, Integer> tmpCandidateRacks,
-                                    Map<Item, Integer> selectedRacksItemsQs, Order order, int estCost) {
+                                    Map<Item, Integer> selectedRacksItemsQs, QuantityAddable<Item> order,
+                                    int estCost) {
         for (var rackEntry : rackSet.entrySet()) {
             Rack rack = rackEntry.getKey();
             Map<Item, Integer> q = new HashMap<>();
@@ -56,13 +65,14 @@ public class RackSelectorHelper {
      *
      * @param src        HashMap racks map in question where we want to calculate the saved cost of the redundant.
      * @param dest       HashMap racks map where to out the removed racks if allowed.
-     * @param order      {@code Order} the current order
+     * @param order      the demanded items of the current order or batch of orders
      * @param srcRacksQs List of the total quantities of items found in the current selected src @{code Rack}s.
      * @param updateMaps boolean Remove the redundant racks from the src and put in the dest or not.
      * @return Integer the saved cost.
      */
     public static int removeRedundantRack(Map<Rack, Integer> src, Map<Rack, Integer> dest,
-                                          Map<Item, Integer> srcRacksQs, Order order, boolean updateMaps) {
+                                          Map<Item, Integer> srcRacksQs, QuantityAddable<Item> order,
+                                          boolean updateMaps) {
         int savedCost = 0;
         var rackEntriesIterator = src.entrySet().iterator();
         while (rackEntriesIterator.hasNext()) {
@@ -160,4 +170,52 @@ public class RackSelectorHelper {
 
         return ret;
     }
+
+    /**
+     * Get the candidate racks for the specific items, scanning only the nearest racks to the given gate.
+     * <p>
+     * For every item, the racks are scanned in ascending order of their distances to the gate
+     * until the needed quantity is covered, plus some extra racks to leave room for better choices.
+     * If the item-to-rack index is not built yet, all the racks of the item are scanned.
+     *
+     * @param itemsIterator iterator to the {@code item}s of the order.
+     * @param gate          the delivery {@code Gate}.
+     * @return a map of the candidate racks and their round trip costs.
+     */
+    public static Map<Rack, Integer> getCandidateRacks(Iterator<Map.Entry<Item, Integer>> itemsIterator, Gate gate) {
+        Map<Rack, Integer> ret = new HashMap<>();
+        Position gPos = gate.getPosition();
+
+        while (itemsIterator.hasNext()) {
+            var itemEntry = itemsIterator.next();
+            Item item = itemEntry.getKey();
+            NavigableSet<Rack> sortedRacks = item.getSortedRacks(gate);
+
+            // Fall back to scanning all the racks if not indexed
+            if (sortedRacks == null) {
+                for (var rackEntry : item) {
+                    ret.putIfAbsent(rackEntry.getKey(), rackEntry.getKey().getDistanceTo(gPos));
+                }
+                continue;
+            }
+
+            // Scan the nearest racks until covering the needed quantity
+            int needed = itemEntry.getValue();
+            int extra = CANDIDATE_EXTRA_RACKS;
+
+            for (Rack rack : sortedRacks) {
+                int dis = rack.getDistanceTo(gPos);
+
+                // Unreachable racks are sorted last
+                if (dis == Integer.MAX_VALUE || (needed <= 0 && extra-- <= 0)) {
+                    break;
+                }
+
+                ret.putIfAbsent(rack, dis);
+                needed -= item.get(rack);
+            }
+        }
+
+        return ret;
+    }
 }
@@ -0,0 +1,507 @@
+package algorithms.dispatcher.task_allocator_helpers;
+
+import models.facilities.Rack;
+import models.items.Item;
+import models.items.QuantityAddable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+
+/**
+ * This {@code RackSetCover} class selects the racks covering the demanded items of an order
+ * using primitive arrays instead of item maps.
+ * <p>
+ * The demanded items are mapped to dense local indices, and the quantities of these items
+ * in every candidate rack are kept in a flattened {@code int} matrix.
+ * When every item is demanded by a single unit, the supply of every rack is computed
+ * as the population count of the bitset of the demanded items it holds.
+ * <p>
+ * The selection reproduces the greedy cost/supply ratio heuristic of the paper
+ * "Optimal Selection Of Movable Shelves Under Cargo-to-person Picking Mode"
+ * followed by the elimination of the redundant racks.
+ */
+public class RackSetCover {
+
+    //
+    // Static Variables
+    //
+
+    /**
+     * The cost/supply ratio at or above which racks are never selected.
+     */
+    private static final double MAX_RATIO = 1e9;
+
+    // ===============================================================================================
+    //
+    // Member Variables
+    //
+
+    /**
+     * The number of demanded items.
+     */
+    private int k;
+
+    /**
+     * The demanded quantity of every item.
+     */
+    private int[] demand;
+
+    /**
+     * The candidate racks in the iteration order of the given candidates map.
+     */
+    private Rack[] racks;
+
+    /**
+     * The round trip cost of every candidate rack.
+     */
+    private int[] cost;
+
+    /**
+     * The flattened matrix of the quantities of the demanded items in every candidate rack,
+     * where the quantity of item {@code i} in rack {@code j} is at {@code j * k + i}.
+     */
+    private int[] quantity;
+
+    /**
+     * The number of demanded units every candidate rack can supply.
+     */
+    private int[] supply;
+
+    /**
+     * The cost/supply ratio of every candidate rack.
+     */
+    private double[] ratio;
+
+    /**
+     * The binary min-heap of the indices of the racks not considered yet.
+     */
+    private int[] heap;
+
+    /**
+     * The number of racks in the heap.
+     */
+    private int heapSize;
+
+    /**
+     * The map of the currently selected racks and their candidate indices.
+     */
+    private Map<Rack, Integer> selected = new HashMap<>();
+
+    /**
+     * The total quantity of every demanded item in the currently selected racks.
+     */
+    private int[] selectedQs;
+
+    /**
+     * Whether every candidate rack is currently selected or not.
+     */
+    private boolean[] chosen;
+
+    /**
+     * Whether every candidate rack has been rejected for having no agent to be assigned to.
+     */
+    private boolean[] rejected;
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Constructs a new {@code RackSetCover} object.
+     *
+     * @param order          the demanded items, either of a single order or of a batch of orders.
+     * @param candidateRacks the map of the candidate racks and their round trip costs.
+     */
+    public RackSetCover(QuantityAddable<Item> order, Map<Rack, Integer> candidateRacks) {
+        //
+        // Map the demanded items to dense indices
+        //
+        List<Item> items = new ArrayList<>();
+        List<Integer> quantities = new ArrayList<>();
+        boolean unitDemand = true;
+
+        for (var pair : order) {
+            items.add(pair.getKey());
+            quantities.add(pair.getValue());
+            unitDemand &= (pair.getValue() == 1);
+        }
+
+        k = items.size();
+        demand = new int[k];
+
+        for (int i = 0; i < k; ++i) {
+            demand[i] = quantities.get(i);
+        }
+
+        //
+        // Fill the quantities and the supplies of the candidate racks
+        //
+        int n = candidateRacks.size();
+        int words = (k + 63) >> 6;
+        long[] bits = new long[words];
+
+        racks = new Rack[n];
+        cost = new int[n];
+        quantity = new int[n * k];
+        supply = new int[n];
+
+        int j = 0;
+
+        for (var pair : candidateRacks.entrySet()) {
+            Rack rack = pair.getKey();
+            racks[j] = rack;
+            cost[j] = pair.getValue();
+
+            int base = j * k;
+
+            for (int i = 0; i < k; ++i) {
+                quantity[base + i] = rack.get(items.get(i));
+            }
+
+            if (unitDemand) {
+                Arrays.fill(bits, 0);
+
+                for (int i = 0; i < k; ++i) {
+                    if (quantity[base + i] > 0) {
+                        bits[i >> 6] |= (1L << (i & 63));
+                    }
+                }
+
+                for (long w : bits) {
+                    supply[j] += Long.bitCount(w);
+                }
+            } else {
+                for (int i = 0; i < k; ++i) {
+                    supply[j] += Math.min(demand[i], quantity[base + i]);
+                }
+            }
+
+            j++;
+        }
+    }
+
+    /**
+     * Selects the racks covering the demanded items.
+     *
+     * @param assignable     a predicate accepting the racks that can be assigned to an agent;
+     *                       rejected racks are skipped.
+     * @param stageTwoLimit  the number of selected racks below which the redundant racks are eliminated.
+     *
+     * @return the list of the selected {@code Rack}s.
+     */
+    public List<Rack> select(Predicate<Rack> assignable, int stageTwoLimit) {
+        //
+        // Stage 1: accept the racks in ascending order of their cost/supply ratios, ties broken by the candidates order
+        //
+        buildHeap();
+
+        selected.clear();
+        selectedQs = new int[k];
+        chosen = new boolean[racks.length];
+        rejected = new boolean[racks.length];
+
+        long left = 0;
+        for (int q : demand) {
+            left += q;
+        }
+
+        while (left > 0) {
+            int j = pollHeap();
+
+            if (j < 0) {
+                break;
+            }
+
+            if (!assignable.test(racks[j])) {
+                rejected[j] = true;
+                continue;
+            }
+
+            selected.put(racks[j], j);
+            chosen[j] = true;
+
+            // Update the left quantities by the accepted rack and the total selected quantities
+            int base = j * k;
+            left = 0;
+
+            for (int i = 0; i < k; ++i) {
+                left += demand[i] - quantity[base + i];
+                selectedQs[i] += quantity[base + i];
+            }
+        }
+
+        //
+        // Stage 2: eliminate the redundant racks
+        //
+        if (selected.size() < stageTwoLimit) {
+            var it = selected.values().iterator();
+
+            while (it.hasNext()) {
+                int j = it.next();
+                int base = j * k;
+                boolean redundant = true;
+
+                for (int i = 0; i < k && redundant; ++i) {
+                    redundant = (selectedQs[i] - quantity[base + i] >= demand[i]);
+                }
+
+                if (redundant) {
+                    for (int i = 0; i < k; ++i) {
+                        selectedQs[i] -= quantity[base + i];
+                    }
+
+                    chosen[j] = false;
+                    it.remove();
+                }
+            }
+        }
+
+        return new ArrayList<>(selected.keySet());
+    }
+
+    /**
+     * Improves the last selection by local search until no improving move is found or the given deadline expires.
+     * <p>
+     * Two kinds of moves are applied, both keeping the covered quantity of every demanded item:
+     * removing a redundant selected rack, and exchanging a set of selected racks
+     * with a cheaper unselected candidate rack.
+     * Only improving moves are accepted, so the current selection is always the best found so far.
+     * <p>
+     * This function should be called only after {@link #select(Predicate, int)}.
+     *
+     * @param assignable a predicate accepting the racks that can be assigned to an agent;
+     *                   it is tested only for racks about to be added.
+     * @param deadline   the {@link System#nanoTime()} value at which the search stops.
+     *
+     * @return the list of the selected {@code Rack}s.
+     */
+    public List<Rack> improve(Predicate<Rack> assignable, long deadline) {
+        // The covered quantity of every item that must be kept
+        int[] covered = new int[k];
+        for (int i = 0; i < k; ++i) {
+            covered[i] = Math.min(demand[i], selectedQs[i]);
+        }
+
+        int[] qs = new int[k];
+        boolean improved = true;
+
+        while (improved && System.nanoTime() < deadline) {
+            improved = false;
+
+            //
+            // Removal moves: drop the most costly redundant racks first
+            //
+            int[] order = getSelectedByCost();
+            System.arraycopy(selectedQs, 0, qs, 0, k);
+
+            for (int r : order) {
+                if (isRemovable(r, qs, covered)) {
+                    removeQuantities(r, qs);
+                    deselect(r);
+                    improved = true;
+                }
+            }
+
+            //
+            // Exchange moves: add a candidate rack if it makes more costly racks redundant
+            //
+            for (int j = 0; j < racks.length && System.nanoTime() < deadline; ++j) {
+                if (chosen[j] || rejected[j] || supply[j] == 0 || cost[j] == Integer.MAX_VALUE) {
+                    continue;
+                }
+
+                // Tentatively add the candidate and collect the racks it makes redundant
+                int base = j * k;
+                for (int i = 0; i < k; ++i) {
+                    qs[i] = selectedQs[i] + quantity[base + i];
+                }
+
+                long saved = 0;
+                List<Integer> removed = new ArrayList<>();
+
+                for (int r : getSelectedByCost()) {
+                    if (isRemovable(r, qs, covered)) {
+                        removeQuantities(r, qs);
+                        saved += cost[r];
+                        removed.add(r);
+                    }
+                }
+
+                if (saved <= cost[j]) {
+                    continue;
+                }
+
+                if (!assignable.test(racks[j])) {
+                    rejected[j] = true;
+                    continue;
+                }
+
+                // Apply the exchange
+                for (int r : removed) {
+                    deselect(r);
+                }
+
+                selected.put(racks[j], j);
+                chosen[j] = true;
+
+                for (int i = 0; i < k; ++i) {
+                    selectedQs[i] += quantity[base + i];
+                }
+
+                improved = true;
+            }
+        }
+
+        return new ArrayList<>(selected.keySet());
+    }
+
+    // ===============================================================================================
+    //
+    // Helper Methods
+    //
+
+    /**
+     * Returns the indices of the selected racks in descending order of their costs.
+     *
+     * @return the indices of the selected racks.
+     */
+    private int[] getSelectedByCost() {
+        return selected.values().stream()
+                .sorted((a, b) -> cost[b] != cost[a] ? Integer.compare(cost[b], cost[a]) : Integer.compare(a, b))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Checks whether the given selected rack can be removed from the given quantities
+     * while keeping the covered quantity of every item.
+     *
+     * @param r       the index of the selected rack.
+     * @param qs      the total quantities of the items including the rack.
+     * @param covered the covered quantities of the items to keep.
+     *
+     * @return {@code true} if the rack is redundant; {@code false} otherwise.
+     */
+    private boolean isRemovable(int r, int[] qs, int[] covered) {
+        int base = r * k;
+
+        for (int i = 0; i < k; ++i) {
+            if (Math.min(demand[i], qs[i] - quantity[base + i]) < covered[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Subtracts the item quantities of the given rack from the given quantities.
+     *
+     * @param r  the index of the rack.
+     * @param qs the total quantities of the items.
+     */
+    private void removeQuantities(int r, int[] qs) {
+        int base = r * k;
+
+        for (int i = 0; i < k; ++i) {
+            qs[i] -= quantity[base + i];
+        }
+    }
+
+    /**
+     * Removes the given rack from the current selection.
+     *
+     * @param r the index of the selected rack.
+     */
+    private void deselect(int r) {
+        selected.remove(racks[r]);
+        chosen[r] = false;
+        removeQuantities(r, selectedQs);
+    }
+
+    /**
+     * Builds a binary min-heap of the reachable candidate racks supplying some demanded units,
+     * ordered by their cost/supply ratios and then by their candidate indices.
+     */
+    private void buildHeap() {
+        int n = racks.length;
+        ratio = new double[n];
+        heap = new int[n];
+        heapSize = 0;
+
+        for (int j = 0; j < n; ++j) {
+            if (supply[j] == 0 || cost[j] == Integer.MAX_VALUE) {
+                continue;
+            }
+
+            ratio[j] = 1. * cost[j] / supply[j];
+
+            if (ratio[j] < MAX_RATIO) {
+                heap[heapSize++] = j;
+            }
+        }
+
+        for (int p = heapSize / 2 - 1; p >= 0; --p) {
+            siftDown(p);
+        }
+    }
+
+    /**
+     * Removes the rack of the least cost/supply ratio from the heap.
+     *
+     * @return the index of the removed rack; or {@code -1} if the heap is empty.
+     */
+    private int pollHeap() {
+        if (heapSize == 0) {
+            return -1;
+        }
+
+        int ret = heap[0];
+        heap[0] = heap[--heapSize];
+        siftDown(0);
+        return ret;
+    }
+
+    /**
+     * Moves the heap entry at the given position down to its correct position.
+     *
+     * @param p the position of the entry in the heap.
+     */
+    private void siftDown(int p) {
+        while (true) {
+            int l = 2 * p + 1;
+            int r = l + 1;
+            int min = p;
+
+            if (l < heapSize && less(heap[l], heap[min])) {
+                min = l;
+            }
+            if (r < heapSize && less(heap[r], heap[min])) {
+                min = r;
+            }
+            if (min == p) {
+                return;
+            }
+
+            int tmp = heap[p];
+            heap[p] = heap[min];
+            heap[min] = tmp;
+            p = min;
+        }
+    }
+
+    /**
+     * Checks whether the first rack precedes the second one in the greedy selection order.
+     *
+     * @param a the index of the first rack.
+     * @param b the index of the second rack.
+     *
+     * @return {@code true} if the first rack has a smaller ratio, or an equal ratio and a smaller index.
+     */
+    private boolean less(int a, int b) {
+        int cmp = Double.compare(ratio[a], ratio[b]);
+        return (cmp < 0 || (cmp == 0 && a < b));
+    }
+}
@@ -0,0 +1,131 @@
+package algorithms.planner;
+
+import models.agents.Agent;
+
+import java.util.*;
+
+
+/**
+ * This {@code ReservationTable} class holds the time intervals at which the grid cells
+ * are reserved by the timed plans of the agents.
+ * <p>
+ * It is used by the {@link SippPlanner} to derive the safe intervals of every cell,
+ * that is, the maximal time intervals during which a cell is not reserved by any other agent.
+ */
+public class ReservationTable {
+
+    //
+    // Member Variables
+    //
+
+    /**
+     * The map of reserved intervals of every cell, sorted by their starting times.
+     * Every interval is represented by an array of {@code [start, end, agent id]},
+     * both ends are inclusive.
+     */
+    private Map<Integer, List<long[]>> cells = new HashMap<>();
+
+    /**
+     * The map of cells reserved by every agent, used to release the reservations
+     * once the agent drops its plan.
+     */
+    private Map<Integer, Set<Integer>> agentCells = new HashMap<>();
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Clears all the reservations of this {@code ReservationTable}.
+     */
+    public void clear() {
+        cells.clear();
+        agentCells.clear();
+    }
+
+    /**
+     * Reserves the given cell for the given {@code Agent} during the given time interval.
+     *
+     * @param agent the reserving {@code Agent}.
+     * @param cell  the index of the cell to reserve.
+     * @param start the starting time of the reservation.
+     * @param end   the ending time of the reservation (inclusive).
+     * @param now   the current time, reservations ending before it are discarded.
+     */
+    public void reserve(Agent agent, int cell, long start, long end, long now) {
+        List<long[]> list = cells.computeIfAbsent(cell, k -> new ArrayList<>());
+
+        // Discard outdated reservations
+        list.removeIf(interval -> interval[1] < now);
+
+        // Insert the new interval keeping the list sorted
+        int idx = 0;
+        while (idx < list.size() && list.get(idx)[0] <= start) {
+            idx++;
+        }
+        list.add(idx, new long[]{start, end, agent.getId()});
+
+        agentCells.computeIfAbsent(agent.getId(), k -> new HashSet<>()).add(cell);
+    }
+
+    /**
+     * Releases all the reservations of the given {@code Agent}.
+     *
+     * @param agent the {@code Agent} to release its reservations.
+     */
+    public void release(Agent agent) {
+        Set<Integer> reserved = agentCells.remove(agent.getId());
+
+        if (reserved == null) {
+            return;
+        }
+
+        for (int cell : reserved) {
+            List<long[]> list = cells.get(cell);
+            list.removeIf(interval -> interval[2] == agent.getId());
+
+            if (list.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    /**
+     * Returns the safe intervals of the given cell starting from the given time
+     * as seen by the given {@code Agent}, ignoring its own reservations.
+     *
+     * @param agent the {@code Agent} asking for the safe intervals.
+     * @param cell  the index of the cell.
+     * @param from  the time to start from.
+     *
+     * @return a sorted list of {@code [start, end]} safe intervals, both ends are inclusive.
+     */
+    public List<long[]> getSafeIntervals(Agent agent, int cell, long from) {
+        List<long[]> ret = new ArrayList<>();
+        List<long[]> list = cells.get(cell);
+        long start = from;
+
+        if (list != null) {
+            for (long[] interval : list) {
+                if (interval[2] == agent.getId() || interval[1] < start) {
+                    continue;
+                }
+
+                if (interval[0] > start) {
+                    ret.add(new long[]{start, interval[0] - 1});
+                }
+
+                // The cell is never safe again after an open-ended reservation
+                if (interval[1] == Long.MAX_VALUE) {
+                    return ret;
+                }
+
+                start = Math.max(start, interval[1] + 1);
+            }
+        }
+
+        ret.add(new long[]{start, Long.MAX_VALUE});
+        return ret;
+    }
+}
@@ -0,0 +1,355 @@
+package algorithms.planner;
+
+import models.agents.Agent;
+import models.facilities.Facility;
+import models.facilities.Rack;
+import models.maps.GridCell;
+import models.warehouses.Warehouse;
+
+import utils.Constants;
+import utils.Constants.*;
+
+import java.util.*;
+
+
+/**
+ * This {@code SippPlanner} class contains static methods for the safe-interval path planning (SIPP)
+ * algorithm.
+ * <p>
+ * Unlike the {@link Planner}, the produced plans are timed. Every step of the plan is associated
+ * with the time at which the {@code Agent} should start moving, taking into account the action
+ * durations of the {@code Agent} and the cells reserved by the plans of other agents
+ * in the {@link ReservationTable} of the {@link Warehouse}.
+ */
+public class SippPlanner {
+
+    /**
+     * Plans a timed sequence of actions to be done by the given {@code Agent} to reach
+     * its target, and reserves the cells along the found path.
+     *
+     * @param source   the source {@code Agent} to plan for.
+     * @param target   the target {@code Facility} of the {@code Agent}.
+     * @param schedule the stack to fill with the times at which to start every move of the plan.
+     *
+     * @return a sequence of directions to move along; or {@code null} if currently unreachable.
+     */
+    public static Stack<Integer> plan(Agent source, Facility target, Stack<Long> schedule) {
+        // No plan can be found if the target facility is currently bound to another agent
+        if (target.isBound() && target.getBoundAgent() != source) {
+            return null;
+        }
+
+        // No plan can be found if the target is unreachable
+        if (target.getDistanceTo(source.getRow(), source.getCol()) == Integer.MAX_VALUE) {
+            return null;
+        }
+
+        Warehouse warehouse = Warehouse.getInstance();
+        ReservationTable table = warehouse.getReservationTable();
+        long now = warehouse.getTime();
+
+        // Drop any previous reservations of the agent
+        table.release(source);
+
+        // Initialize planning algorithm
+        Map<Integer, List<long[]>> intervals = new HashMap<>();
+        Map<Long, Long> best = new HashMap<>();
+        PriorityQueue<Node> q = new PriorityQueue<>();
+
+        int srcCell = source.getRow() * warehouse.getCols() + source.getCol();
+        int srcInterval = findInterval(getIntervals(intervals, table, source, srcCell, now), now);
+
+        // No plan can be found if the current cell is reserved by another agent
+        if (srcInterval == -1) {
+            return null;
+        }
+
+        q.add(new Node(source.getRow(), source.getCol(), source.getDirection(), srcInterval, now, now, null, target));
+
+        //
+        // Keep exploring states until the target is found
+        //
+        while (!q.isEmpty()) {
+            // Get the current best node in the queue
+            Node cur = q.remove();
+
+            // Check if target has been reached
+            if (target.isCoincide(cur.row, cur.col)) {
+                return constructPlan(cur, source, target, schedule);
+            }
+
+            // Skip outdated states
+            if (best.getOrDefault(cur.key(warehouse.getCols()), Long.MAX_VALUE) < cur.time) {
+                continue;
+            }
+
+            long curEnd = getIntervals(intervals, table, source, cur.cell(warehouse.getCols()), now)
+                    .get(cur.interval)[1];
+
+            //
+            // Expanding in all directions
+            //
+            for (int d : Constants.DIRECTIONS) {
+                int r = cur.row + Constants.DIR_ROW[d];
+                int c = cur.col + Constants.DIR_COL[d];
+
+                // Skip invalid cells
+                if (!canVisit(warehouse, source, r, c) || target.getDistanceTo(r, c) == Integer.MAX_VALUE) {
+                    continue;
+                }
+
+                int cell = r * warehouse.getCols() + c;
+                long ready = cur.time + (long) getRotationsCount(cur.dir, d) * source.getRotateDuration();
+                int moveDuration = source.getMoveDuration();
+                List<long[]> cellIntervals = getIntervals(intervals, table, source, cell, now);
+
+                //
+                // Expanding in all reachable safe intervals of the next cell
+                //
+                for (int i = 0; i < cellIntervals.size(); ++i) {
+                    long[] interval = cellIntervals.get(i);
+                    long departure = Math.max(ready, interval[0]);
+                    long arrival = departure + moveDuration;
+
+                    // Intervals are sorted, no later interval can be reached either
+                    if (arrival > curEnd) {
+                        break;
+                    }
+
+                    // Skip intervals that end before completing the move
+                    if (arrival > interval[1]) {
+                        continue;
+                    }
+
+                    // Skip if a not worse state has been reached before
+                    Node nxt = new Node(r, c, d, i, departure, arrival, cur, target);
+                    long key = nxt.key(warehouse.getCols());
+
+                    if (best.getOrDefault(key, Long.MAX_VALUE) <= arrival) {
+                        continue;
+                    }
+
+                    best.put(key, arrival);
+                    q.add(nxt);
+                }
+            }
+        }
+
+        // No path has been found
+        return null;
+    }
+
+    /**
+     * Constructs the sequence of actions leading to the target after finishing the planning,
+     * and reserves the cells along the path in the {@link ReservationTable}.
+     *
+     * @param node     the target state node.
+     * @param source   the source {@code Agent}.
+     * @param target   the target {@code Facility}.
+     * @param schedule the stack to fill with the times at which to start every move of the plan.
+     *
+     * @return a sequence of directions to move along to reach the given state.
+     */
+    private static Stack<Integer> constructPlan(Node node, Agent source, Facility target, Stack<Long> schedule) {
+        Warehouse warehouse = Warehouse.getInstance();
+        ReservationTable table = warehouse.getReservationTable();
+        long now = warehouse.getTime();
+        int cols = warehouse.getCols();
+
+        // Prepare the stack of actions
+        Stack<Integer> ret = new Stack<>();
+        schedule.clear();
+
+        // Reserve the target cell while handling the target until the next plan of the agent releases it
+        table.reserve(source, node.cell(cols), node.time, Long.MAX_VALUE, now);
+
+        // Keep moving backward until reaching the initial position of the agent
+        while (node.parent != null) {
+            ret.add(node.dir);
+            schedule.add(node.departure);
+
+            // Reserve the previous cell until the agent completely leaves it
+            Node prv = node.parent;
+            table.reserve(source, prv.cell(cols), prv.time, node.time, now);
+            node = prv;
+        }
+
+        // Return the sequence of direction leading to the target
+        return ret;
+    }
+
+    // ===============================================================================================
+    //
+    // Helper Methods
+    //
+
+    /**
+     * Checks whether the given {@code Agent} can pass through the given cell or not.
+     *
+     * @param warehouse the {@code Warehouse} to plan into.
+     * @param source    the source {@code Agent}.
+     * @param row       the row position of the cell.
+     * @param col       the column position of the cell.
+     *
+     * @return {@code true} if the cell can be visited; {@code false} otherwise.
+     */
+    private static boolean canVisit(Warehouse warehouse, Agent source, int row, int col) {
+        if (warehouse.isOutBound(row, col)) {
+            return false;
+        }
+
+        GridCell cell = warehouse.get(row, col);
+
+        if (cell.isBlocked()) {
+            return false;
+        }
+
+        // Cannot pass on a rack cell if currently the agent is loading another one
+        if (source.isLoaded() && cell.getType() == CellType.RACK) {
+            Rack rack = (Rack) cell.getFacility();
+            return rack.isBound();
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the safe intervals of the given cell, caching them during a single planning call.
+     *
+     * @param cache  the cache of computed safe intervals.
+     * @param table  the {@code ReservationTable} of the {@code Warehouse}.
+     * @param source the source {@code Agent}.
+     * @param cell   the index of the cell.
+     * @param now    the current time.
+     *
+     * @return the sorted list of safe intervals of the cell.
+     */
+    private static List<long[]> getIntervals(Map<Integer, List<long[]>> cache, ReservationTable table,
+                                             Agent source, int cell, long now) {
+        return cache.computeIfAbsent(cell, k -> table.getSafeIntervals(source, k, now));
+    }
+
+    /**
+     * Returns the index of the safe interval containing the given time.
+     * <p>
+     * The agent cannot wait in its cell for a later safe interval while the cell is reserved by another agent,
+     * so no interval is returned in such case.
+     *
+     * @param intervals the sorted list of safe intervals.
+     * @param time      the time to search for.
+     *
+     * @return the index of the safe interval; or {@code -1} if no safe interval contains the given time.
+     */
+    private static int findInterval(List<long[]> intervals, long time) {
+        for (int i = 0; i < intervals.size(); ++i) {
+            long[] interval = intervals.get(i);
+
+            if (interval[0] <= time && time <= interval[1]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of rotations needed to turn from one direction to another.
+     *
+     * @param from the current direction.
+     * @param to   the needed direction.
+     *
+     * @return the number of rotations.
+     */
+    private static int getRotationsCount(int from, int to) {
+        int diff = (to - from) & 3;
+        return (diff == 3 ? 1 : diff);
+    }
+
+    // ===============================================================================================
+    //
+    // Planning State
+    //
+
+    /**
+     * This {@code Node} class represents a state node in the search tree of the SIPP algorithm.
+     * <p>
+     * A state is identified by the cell, the direction, and the safe interval of the cell.
+     */
+    private static class Node implements Comparable<Node> {
+
+        /**
+         * The row position of the {@code Agent} in this state.
+         */
+        int row;
+
+        /**
+         * The column position of the {@code Agent} in this state.
+         */
+        int col;
+
+        /**
+         * The direction of the {@code Agent} in this state.
+         */
+        int dir;
+
+        /**
+         * The index of the safe interval of the cell.
+         */
+        int interval;
+
+        /**
+         * The time at which the {@code Agent} starts the move leading to this state.
+         */
+        long departure;
+
+        /**
+         * The earliest arrival time to this state.
+         */
+        long time;
+
+        /**
+         * The estimated total time to reach the target through this state.
+         */
+        long score;
+
+        /**
+         * The parent state leading to this state.
+         */
+        Node parent;
+
+        /**
+         * Constructs a new {@code Node} object.
+         */
+        Node(int row, int col, int dir, int interval, long departure, long time, Node parent, Facility target) {
+            this.row = row;
+            this.col = col;
+            this.dir = dir;
+            this.interval = interval;
+            this.departure = departure;
+            this.time = time;
+            this.parent = parent;
+            this.score = time + target.getDistanceTo(row, col);
+        }
+
+        /**
+         * Returns the index of the cell of this state.
+         */
+        int cell(int cols) {
+            return row * cols + col;
+        }
+
+        /**
+         * Returns a unique key identifying this state.
+         */
+        long key(int cols) {
+            return (((long) cell(cols) * Constants.DIR_COUNT + dir) << 20) | interval;
+        }
+
+        /**
+         * Compares this state with the given one by the estimated total time.
+         */
+        @Override
+        public int compareTo(Node o) {
+            return Long.compare(score, o.score);
+        }
+    }
+}
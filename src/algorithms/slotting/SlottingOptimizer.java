@@ -0,0 +1,738 @@
+package algorithms.slotting;
+
+import models.facilities.Gate;
+import models.facilities.Rack;
+import models.items.Item;
+import models.maps.Position;
+import models.tasks.orders.CollectOrder;
+import models.tasks.orders.Order;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+
+/**
+ * This {@code SlottingOptimizer} class computes an offline slotting of the inventory, that is
+ * a new assignment of the items to the racks and of the racks to the storage cells,
+ * minimizing the expected round-trip cost to the gates under an observed history of collect orders.
+ * <p>
+ * The cost of an {@code Order} is the sum of the round-trip distances between its {@code Gate}
+ * and every {@code Rack} needed to supply it. The racks already visited by the {@code Order} are used first,
+ * then the nearest racks holding the remaining items, so that storing the items ordered together
+ * in the same {@code Rack} saves the trips of the co-occurring items.
+ * <p>
+ * The search is a simulated annealing over rack swaps, item lot moves, and item lot swaps,
+ * restarted several times in parallel with different seeds.
+ * The stored weight of every {@code Rack} never exceeds its capacity,
+ * nor the load capacity of the strongest {@code Agent}, and the total units of every {@code Item} are kept.
+ */
+public class SlottingOptimizer {
+
+    //
+    // Static Variables
+    //
+
+    /**
+     * The number of random moves sampled to calibrate the initial temperature of the annealing.
+     */
+    private static final int SAMPLE_MOVES = 64;
+
+    /**
+     * The ratio of the final temperature to the initial temperature of the annealing.
+     */
+    private static final double COOLING_RATIO = 1e-3;
+
+    // ===============================================================================================
+    //
+    // Member Variables
+    //
+
+    /**
+     * The array of all racks sorted by their id.
+     */
+    private final Rack[] racks;
+
+    /**
+     * The array of all items sorted by their id.
+     */
+    private final Item[] items;
+
+    /**
+     * The index of every {@code Rack} in {@link #racks}.
+     */
+    private final Map<Rack, Integer> rackIndices = new HashMap<>();
+
+    /**
+     * The index of every {@code Item} in {@link #items}.
+     */
+    private final Map<Item, Integer> itemIndices = new HashMap<>();
+
+    /**
+     * The position of every storage cell, where cell {@code k} is the initial cell of the {@code k}-th {@code Rack}.
+     */
+    private final Position[] cellPositions;
+
+    /**
+     * The maximum stored weight of every {@code Rack}.
+     */
+    private final int[] limits;
+
+    /**
+     * The weight of every {@code Item}.
+     */
+    private final int[] weights;
+
+    /**
+     * The one-way distance between every storage cell and every {@code Gate}.
+     */
+    private final int[][] distances;
+
+    /**
+     * The gate of every distinct demand pattern of the order history.
+     */
+    private final int[] patternGates;
+
+    /**
+     * The items of every distinct demand pattern.
+     */
+    private final int[][] patternItems;
+
+    /**
+     * The item quantities of every distinct demand pattern.
+     */
+    private final int[][] patternQuantities;
+
+    /**
+     * The number of orders of every distinct demand pattern.
+     */
+    private final int[] patternCounts;
+
+    /**
+     * The demand patterns containing every {@code Item}.
+     */
+    private final int[][] itemPatterns;
+
+    /**
+     * The total number of orders in the order history.
+     */
+    private long ordersCount;
+
+    /**
+     * The initial layout of the inventory.
+     */
+    private final Layout initialLayout;
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Constructs a new {@code SlottingOptimizer} of the given initialized warehouse components
+     * and order history.
+     * <p>
+     * Only the collect orders of the history are considered.
+     *
+     * @param rackList the collection of all racks.
+     * @param gateList the collection of all gates.
+     * @param itemList the collection of all items.
+     * @param orders   the collection of the historical orders.
+     * @param maxLoad  the load capacity of the strongest {@code Agent}.
+     */
+    public SlottingOptimizer(Collection<Rack> rackList, Collection<Gate> gateList, Collection<Item> itemList,
+                             Collection<? extends Order> orders, int maxLoad) {
+        racks = rackList.stream().sorted(Comparator.comparingInt(Rack::getId)).toArray(Rack[]::new);
+        items = itemList.stream().sorted(Comparator.comparingInt(Item::getId)).toArray(Item[]::new);
+        Gate[] gates = gateList.stream().sorted(Comparator.comparingInt(Gate::getId)).toArray(Gate[]::new);
+
+        for (int r = 0; r < racks.length; ++r) {
+            rackIndices.put(racks[r], r);
+        }
+        for (int i = 0; i < items.length; ++i) {
+            itemIndices.put(items[i], i);
+        }
+
+        Map<Gate, Integer> gateIndices = new HashMap<>();
+        for (int g = 0; g < gates.length; ++g) {
+            gateIndices.put(gates[g], g);
+        }
+
+        //
+        // Racks, cells and items
+        //
+        cellPositions = new Position[racks.length];
+        limits = new int[racks.length];
+        weights = new int[items.length];
+        distances = new int[racks.length][gates.length];
+        initialLayout = new Layout(racks.length, items.length);
+
+        for (int i = 0; i < items.length; ++i) {
+            weights[i] = items[i].getWeight();
+        }
+
+        int maxDistance = 0;
+
+        for (int r = 0; r < racks.length; ++r) {
+            Rack rack = racks[r];
+
+            cellPositions[r] = rack.getPosition();
+            initialLayout.cells[r] = r;
+
+            for (var pair : rack) {
+                initialLayout.stock[r][itemIndices.get(pair.getKey())] = pair.getValue();
+            }
+
+            initialLayout.stored[r] = rack.getStoredWeight();
+
+            int limit = Math.min(rack.getCapacity(), maxLoad - rack.getContainerWeight());
+            limits[r] = Math.max(limit, rack.getStoredWeight());
+
+            for (int g = 0; g < gates.length; ++g) {
+                distances[r][g] = rack.getDistanceTo(gates[g].getPosition());
+
+                if (distances[r][g] != Integer.MAX_VALUE) {
+                    maxDistance = Math.max(maxDistance, distances[r][g]);
+                }
+            }
+        }
+
+        // Penalize the unreachable cells beyond any reachable one
+        for (int[] row : distances) {
+            for (int g = 0; g < row.length; ++g) {
+                if (row[g] == Integer.MAX_VALUE) {
+                    row[g] = 2 * maxDistance + 1;
+                }
+            }
+        }
+
+        //
+        // Aggregate the order history into distinct demand patterns
+        //
+        Map<List<Integer>, Integer> patterns = new LinkedHashMap<>();
+
+        for (Order order : orders) {
+            Integer g = gateIndices.get(order.getDeliveryGate());
+
+            if (!(order instanceof CollectOrder) || g == null) {
+                continue;
+            }
+
+            TreeMap<Integer, Integer> demand = new TreeMap<>();
+            for (var pair : order) {
+                Integer i = itemIndices.get(pair.getKey());
+
+                if (i != null) {
+                    demand.merge(i, pair.getValue(), Integer::sum);
+                }
+            }
+
+            if (demand.isEmpty()) {
+                continue;
+            }
+
+            List<Integer> key = new ArrayList<>();
+            key.add(g);
+            for (var entry : demand.entrySet()) {
+                key.add(entry.getKey());
+                key.add(entry.getValue());
+            }
+
+            patterns.merge(key, 1, Integer::sum);
+            ordersCount++;
+        }
+
+        int n = patterns.size();
+        patternGates = new int[n];
+        patternItems = new int[n][];
+        patternQuantities = new int[n][];
+        patternCounts = new int[n];
+
+        List<List<Integer>> itemPatternLists = new ArrayList<>();
+        for (int i = 0; i < items.length; ++i) {
+            itemPatternLists.add(new ArrayList<>());
+        }
+
+        int p = 0;
+        for (var entry : patterns.entrySet()) {
+            List<Integer> key = entry.getKey();
+            int m = (key.size() - 1) / 2;
+
+            patternGates[p] = key.get(0);
+            patternItems[p] = new int[m];
+            patternQuantities[p] = new int[m];
+            patternCounts[p] = entry.getValue();
+
+            for (int k = 0; k < m; ++k) {
+                patternItems[p][k] = key.get(1 + 2 * k);
+                patternQuantities[p][k] = key.get(2 + 2 * k);
+                itemPatternLists.get(patternItems[p][k]).add(p);
+            }
+
+            p++;
+        }
+
+        itemPatterns = new int[items.length][];
+        for (int i = 0; i < items.length; ++i) {
+            itemPatterns[i] = itemPatternLists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // Evaluate the initial layout
+        new Annealer(initialLayout, 0).evaluate();
+    }
+
+    /**
+     * Returns the initial layout of the inventory.
+     *
+     * @return the initial {@code Layout}.
+     */
+    public Layout getInitialLayout() {
+        return initialLayout;
+    }
+
+    /**
+     * Searches for a layout of lower expected cost using the given number of parallel annealing restarts.
+     *
+     * @param restarts   the number of independent restarts.
+     * @param iterations the number of moves of every restart.
+     * @param seed       the seed of the first restart, incremented for every subsequent one.
+     *
+     * @return the best found {@code Layout}, never worse than the initial one.
+     */
+    public Layout optimize(int restarts, int iterations, long seed) {
+        return IntStream.range(0, restarts)
+                .parallel()
+                .mapToObj(k -> new Annealer(initialLayout.copy(), seed + k).run(iterations))
+                .min(Comparator.comparingLong(Layout::getCost))
+                .orElse(initialLayout);
+    }
+
+    /**
+     * Returns the expected round-trip cost per order of the given layout under the order history.
+     *
+     * @param layout the {@code Layout}.
+     *
+     * @return the expected cost per order; or {@code 0} if the history has no orders.
+     */
+    public double getExpectedCost(Layout layout) {
+        return (ordersCount == 0 ? 0 : 1. * layout.cost / ordersCount);
+    }
+
+    /**
+     * Returns the position of the storage cell of the given {@code Rack} in the given layout.
+     *
+     * @param layout the {@code Layout}.
+     * @param rack   the {@code Rack}.
+     *
+     * @return the {@code Position} of the {@code Rack}.
+     */
+    public Position getPosition(Layout layout, Rack rack) {
+        return cellPositions[layout.cells[rackIndices.get(rack)]];
+    }
+
+    /**
+     * Returns the number of units of the given {@code Item} stored in the given {@code Rack} in the given layout.
+     *
+     * @param layout the {@code Layout}.
+     * @param rack   the {@code Rack}.
+     * @param item   the {@code Item}.
+     *
+     * @return the number of stored units.
+     */
+    public int getQuantity(Layout layout, Rack rack, Item item) {
+        return layout.stock[rackIndices.get(rack)][itemIndices.get(item)];
+    }
+
+    // ===============================================================================================
+    //
+    // Helper Classes
+    //
+
+    /**
+     * This {@code Layout} class holds an assignment of the racks to the storage cells
+     * and of the item units to the racks, along with its total cost under the order history.
+     */
+    public static class Layout {
+
+        /**
+         * The storage cell of every {@code Rack}.
+         */
+        private final int[] cells;
+
+        /**
+         * The number of units of every {@code Item} stored in every {@code Rack}.
+         */
+        private final int[][] stock;
+
+        /**
+         * The stored weight of every {@code Rack}.
+         */
+        private final int[] stored;
+
+        /**
+         * The total round-trip cost of the order history.
+         */
+        private long cost;
+
+        /**
+         * Constructs a new empty {@code Layout}.
+         */
+        private Layout(int racksCount, int itemsCount) {
+            cells = new int[racksCount];
+            stock = new int[racksCount][itemsCount];
+            stored = new int[racksCount];
+        }
+
+        /**
+         * Returns the total round-trip cost of the order history under this {@code Layout}.
+         *
+         * @return the total cost.
+         */
+        public long getCost() {
+            return cost;
+        }
+
+        /**
+         * Returns a deep copy of this {@code Layout}.
+         */
+        private Layout copy() {
+            Layout ret = new Layout(cells.length, 0);
+            System.arraycopy(cells, 0, ret.cells, 0, cells.length);
+            System.arraycopy(stored, 0, ret.stored, 0, stored.length);
+
+            for (int r = 0; r < stock.length; ++r) {
+                ret.stock[r] = stock[r].clone();
+            }
+
+            ret.cost = cost;
+            return ret;
+        }
+    }
+
+    /**
+     * This {@code Annealer} class runs a single simulated annealing restart over its own {@code Layout}.
+     */
+    private class Annealer {
+
+        /**
+         * The current layout.
+         */
+        private final Layout layout;
+
+        /**
+         * The random generator of the moves.
+         */
+        private final Random random;
+
+        /**
+         * The current cost of every demand pattern.
+         */
+        private final long[] costs = new long[patternCounts.length];
+
+        /**
+         * The new costs of the demand patterns affected by the current move.
+         */
+        private final long[] newCosts = new long[patternCounts.length];
+
+        /**
+         * The demand patterns affected by the current move, and their count.
+         */
+        private final int[] affected = new int[patternCounts.length];
+        private int affectedCount;
+
+        /**
+         * The marks of the affected patterns and the visited racks, compared against the current stamps.
+         */
+        private final int[] patternMarks = new int[patternCounts.length];
+        private final int[] rackMarks = new int[racks.length];
+        private int patternStamp, rackStamp;
+
+        /**
+         * The parameters of the current move, used to undo it.
+         */
+        private int moveType, rack1, rack2, item1, item2, units1, units2;
+
+        /**
+         * Constructs a new {@code Annealer} over the given layout.
+         */
+        private Annealer(Layout layout, long seed) {
+            this.layout = layout;
+            this.random = new Random(seed);
+        }
+
+        /**
+         * Computes the cost of every demand pattern and the total cost of the layout.
+         */
+        private void evaluate() {
+            layout.cost = 0;
+
+            for (int p = 0; p < costs.length; ++p) {
+                costs[p] = getPatternCost(p);
+                layout.cost += costs[p];
+            }
+        }
+
+        /**
+         * Runs the annealing for the given number of moves.
+         *
+         * @return the best visited {@code Layout}.
+         */
+        private Layout run(int iterations) {
+            evaluate();
+
+            Layout best = layout.copy();
+
+            if (racks.length < 2 || costs.length == 0) {
+                return best;
+            }
+
+            //
+            // Calibrate the initial temperature by the mean uphill delta of some random moves
+            //
+            double uphill = 0;
+            int uphillCount = 0;
+
+            for (int k = 0; k < SAMPLE_MOVES; ++k) {
+                if (!applyMove()) {
+                    continue;
+                }
+
+                long delta = evaluateMove();
+
+                if (delta > 0) {
+                    uphill += delta;
+                    uphillCount++;
+                }
+
+                undoMove();
+            }
+
+            double t0 = (uphillCount == 0 ? 1 : uphill / uphillCount);
+
+            //
+            // Anneal with a geometric cooling schedule
+            //
+            for (int k = 0; k < iterations; ++k) {
+                if (!applyMove()) {
+                    continue;
+                }
+
+                double temperature = t0 * Math.pow(COOLING_RATIO, 1. * k / iterations);
+                long delta = evaluateMove();
+
+                if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                    for (int j = 0; j < affectedCount; ++j) {
+                        costs[affected[j]] = newCosts[affected[j]];
+                    }
+
+                    layout.cost += delta;
+
+                    if (layout.cost < best.cost) {
+                        best = layout.copy();
+                    }
+                } else {
+                    undoMove();
+                }
+            }
+
+            return best;
+        }
+
+        /**
+         * Applies a random move on the layout.
+         *
+         * @return {@code true} if a feasible move was applied; {@code false} otherwise.
+         */
+        private boolean applyMove() {
+            moveType = random.nextInt(3);
+            rack1 = random.nextInt(racks.length);
+            rack2 = random.nextInt(racks.length);
+
+            if (rack1 == rack2) {
+                return false;
+            }
+
+            // Swap the cells of two racks
+            if (moveType == 0) {
+                swapCells();
+                return true;
+            }
+
+            item1 = getRandomItem(rack1);
+            units1 = (item1 < 0 ? 0 : layout.stock[rack1][item1]);
+
+            if (units1 == 0) {
+                return false;
+            }
+
+            // Move an item lot into another rack
+            if (moveType == 1) {
+                if (layout.stored[rack2] + units1 * weights[item1] > limits[rack2]) {
+                    return false;
+                }
+
+                transfer(rack1, rack2, item1, units1);
+                return true;
+            }
+
+            // Swap two item lots of two racks
+            item2 = getRandomItem(rack2);
+            units2 = (item2 < 0 ? 0 : layout.stock[rack2][item2]);
+
+            if (units2 == 0 || item1 == item2) {
+                return false;
+            }
+
+            int diff = units2 * weights[item2] - units1 * weights[item1];
+
+            if (layout.stored[rack1] + diff > limits[rack1] || layout.stored[rack2] - diff > limits[rack2]) {
+                return false;
+            }
+
+            transfer(rack1, rack2, item1, units1);
+            transfer(rack2, rack1, item2, units2);
+            return true;
+        }
+
+        /**
+         * Undoes the last applied move.
+         */
+        private void undoMove() {
+            if (moveType == 0) {
+                swapCells();
+            } else if (moveType == 1) {
+                transfer(rack2, rack1, item1, units1);
+            } else {
+                transfer(rack2, rack1, item1, units1);
+                transfer(rack1, rack2, item2, units2);
+            }
+        }
+
+        /**
+         * Computes the new costs of the demand patterns affected by the last applied move.
+         *
+         * @return the change of the total cost.
+         */
+        private long evaluateMove() {
+            patternStamp++;
+            affectedCount = 0;
+
+            if (moveType == 0) {
+                for (int i = 0; i < items.length; ++i) {
+                    if (layout.stock[rack1][i] > 0 || layout.stock[rack2][i] > 0) {
+                        markPatterns(i);
+                    }
+                }
+            } else {
+                markPatterns(item1);
+
+                if (moveType == 2) {
+                    markPatterns(item2);
+                }
+            }
+
+            long delta = 0;
+
+            for (int j = 0; j < affectedCount; ++j) {
+                int p = affected[j];
+                newCosts[p] = getPatternCost(p);
+                delta += newCosts[p] - costs[p];
+            }
+
+            return delta;
+        }
+
+        /**
+         * Marks the demand patterns containing the given {@code Item} as affected.
+         */
+        private void markPatterns(int item) {
+            for (int p : itemPatterns[item]) {
+                if (patternMarks[p] != patternStamp) {
+                    patternMarks[p] = patternStamp;
+                    affected[affectedCount++] = p;
+                }
+            }
+        }
+
+        /**
+         * Returns the weighted round-trip cost of the given demand pattern under the current layout.
+         */
+        private long getPatternCost(int p) {
+            int g = patternGates[p];
+            long ret = 0;
+
+            rackStamp++;
+
+            for (int k = 0; k < patternItems[p].length; ++k) {
+                int i = patternItems[p][k];
+                int need = patternQuantities[p][k];
+
+                // Take the units of the already visited racks first
+                for (int r = 0; r < racks.length && need > 0; ++r) {
+                    if (rackMarks[r] == rackStamp) {
+                        need -= layout.stock[r][i];
+                    }
+                }
+
+                // Visit the nearest racks holding the remaining units
+                while (need > 0) {
+                    int best = -1;
+
+                    for (int r = 0; r < racks.length; ++r) {
+                        if (rackMarks[r] != rackStamp && layout.stock[r][i] > 0 &&
+                                (best < 0 || distances[layout.cells[r]][g] < distances[layout.cells[best]][g])) {
+                            best = r;
+                        }
+                    }
+
+                    if (best < 0) {
+                        break;
+                    }
+
+                    rackMarks[best] = rackStamp;
+                    ret += 2L * distances[layout.cells[best]][g];
+                    need -= layout.stock[best][i];
+                }
+            }
+
+            return ret * patternCounts[p];
+        }
+
+        /**
+         * Returns a random {@code Item} stored in the given {@code Rack}.
+         *
+         * @return the index of the {@code Item}; or {@code -1} if the {@code Rack} is empty.
+         */
+        private int getRandomItem(int rack) {
+            int count = 0;
+            int ret = -1;
+
+            // Reservoir sampling over the stored items
+            for (int i = 0; i < items.length; ++i) {
+                if (layout.stock[rack][i] > 0 && random.nextInt(++count) == 0) {
+                    ret = i;
+                }
+            }
+
+            return ret;
+        }
+
+        /**
+         * Swaps the storage cells of the racks of the current move.
+         */
+        private void swapCells() {
+            int cell = layout.cells[rack1];
+            layout.cells[rack1] = layout.cells[rack2];
+            layout.cells[rack2] = cell;
+        }
+
+        /**
+         * Transfers the given number of units of the given {@code Item} between the given racks.
+         */
+        private void transfer(int src, int dst, int item, int units) {
+            layout.stock[src][item] -= units;
+            layout.stock[dst][item] += units;
+            layout.stored[src] -= units * weights[item];
+            layout.stored[dst] += units * weights[item];
+        }
+    }
+}
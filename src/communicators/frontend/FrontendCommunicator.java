@@ -146,11 +146,25 @@ public class FrontendCommunicator {
 
     /**
      * Checks whether the last time step has been completed by all the agents or not.
+     * <p>
+     * Agents whose last actions are planned to last beyond the next time step
+     * are not waited for.
      *
      * @return {@code true} if completed; {@code false} otherwise.
      */
     public boolean isLastStepCompleted() {
-        return pendingActionMap.isEmpty();
+        long nextTime = warehouse.getTime() + 1;
+
+        // Agents still performing actions of multiple time steps do not hold the next time step
+        for (int id : pendingActionMap.keySet()) {
+            Agent agent = warehouse.getAgentById(id);
+
+            if (agent == null || !agent.isBusy(nextTime)) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     // ===============================================================================================
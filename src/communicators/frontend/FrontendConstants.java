@@ -32,6 +32,31 @@ public class FrontendConstants {
     public static final int TYPE_MODE_SIMULATE = 0;
     public static final int TYPE_MODE_DEPLOY = 1;
 
+    // Planner-mode types
+    public static final int TYPE_PLANNER_GRID = 0;
+    public static final int TYPE_PLANNER_SIPP = 1;
+
+    // Dispatch-mode types
+    public static final int TYPE_DISPATCH_SEQUENTIAL = 0;
+    public static final int TYPE_DISPATCH_BATCH = 1;
+    public static final int TYPE_DISPATCH_PARALLEL = 2;
+    public static final int TYPE_DISPATCH_ZONE = 3;
+
+    // Agent assignment-mode types
+    public static final int TYPE_ASSIGNMENT_NEAREST = 0;
+    public static final int TYPE_ASSIGNMENT_HUNGARIAN = 1;
+    public static final int TYPE_ASSIGNMENT_AUCTION = 2;
+    public static final int TYPE_ASSIGNMENT_LOOKAHEAD = 3;
+
+    // Order scheduling-mode types
+    public static final int TYPE_SCHEDULING_FIFO = 0;
+    public static final int TYPE_SCHEDULING_EDF = 1;
+    public static final int TYPE_SCHEDULING_AGING = 2;
+
+    // Rack storage-mode types
+    public static final int TYPE_STORAGE_STATIC = 0;
+    public static final int TYPE_STORAGE_DYNAMIC = 1;
+
     // Configuration types
     public static final int TYPE_CELL_GATE = 0;
     public static final int TYPE_CELL_AGENT = 1;
@@ -104,6 +129,20 @@ public class FrontendConstants {
     public static final String KEY_WIDTH = "width";
     public static final String KEY_HEIGHT = "height";
     public static final String KEY_GRID = "grid";
+    public static final String KEY_PLANNER = "planner";
+    public static final String KEY_DISPATCH = "dispatch";
+    public static final String KEY_DISPATCH_STRATEGY = "dispatch_strategy";
+    public static final String KEY_BATCH_WINDOW = "batch_window";
+    public static final String KEY_ZONE_SIZE = "zone_size";
+    public static final String KEY_REFILL_WINDOW = "refill_window";
+    public static final String KEY_ASSIGNMENT = "assignment";
+    public static final String KEY_IMPROVEMENT_BUDGET = "improvement_budget";
+    public static final String KEY_SCHEDULING = "scheduling";
+    public static final String KEY_REPOSITIONING = "repositioning";
+    public static final String KEY_STORAGE = "storage";
+    public static final String KEY_CHARGING = "charging";
+    public static final String KEY_CHARGING_SHARE = "charging_share";
+    public static final String KEY_FORECASTING = "forecasting";
 
     public static final String KEY_ID = "id";
     public static final String KEY_ROW = "row";
@@ -122,6 +161,7 @@ public class FrontendConstants {
 
     public static final String KEY_GATE = "gate";
     public static final String KEY_GATE_ID = "gate_id";
+    public static final String KEY_GATE_IDS = "gate_ids";
     public static final String KEY_GATE_ROW = "gate_row";
     public static final String KEY_GATE_COL = "gate_col";
 
@@ -139,6 +179,9 @@ public class FrontendConstants {
     public static final String KEY_AGENT_DIRECTION = "direction";
     public static final String KEY_AGENT_IP = "ip";
     public static final String KEY_AGENT_PORT = "port";
+    public static final String KEY_AGENT_MOVE_DURATION = "move_duration";
+    public static final String KEY_AGENT_ROTATE_DURATION = "rotate_duration";
+    public static final String KEY_AGENT_LOAD_DURATION = "load_duration";
 
     public static final String KEY_ITEMS = "items";
     public static final String KEY_ITEM = "item";
@@ -148,4 +191,7 @@ public class FrontendConstants {
     public static final String KEY_ORDER = "order";
     public static final String KEY_ORDER_ID = "order_id";
     public static final String KEY_ORDER_START_TIME = "start_timestep";
+    public static final String KEY_ORDER_PRIORITY = "priority";
+    public static final String KEY_ORDER_DEADLINE = "deadline";
+    public static final String KEY_ORDER_LATENESS = "lateness";
 }
@@ -1,5 +1,8 @@
 package communicators.frontend.utils;
 
+import algorithms.dispatcher.DispatchConfig;
+import algorithms.dispatcher.DispatchStrategy;
+
 import communicators.frontend.FrontendConstants;
 
 import models.agents.Agent;
@@ -53,6 +56,20 @@ public class Decoder {
         JSONArray itemsJSON = data.getJSONArray(FrontendConstants.KEY_ITEMS);
         int h = mapJSON.getInt(FrontendConstants.KEY_HEIGHT);
         int w = mapJSON.getInt(FrontendConstants.KEY_WIDTH);
+        int planner = data.optInt(FrontendConstants.KEY_PLANNER, FrontendConstants.TYPE_PLANNER_GRID);
+        int dispatch = data.optInt(FrontendConstants.KEY_DISPATCH, FrontendConstants.TYPE_DISPATCH_SEQUENTIAL);
+        int batchWindow = data.optInt(FrontendConstants.KEY_BATCH_WINDOW, Constants.DEFAULT_BATCH_WINDOW);
+        int zoneSize = data.optInt(FrontendConstants.KEY_ZONE_SIZE, Constants.DEFAULT_ZONE_SIZE);
+        String strategy = data.optString(FrontendConstants.KEY_DISPATCH_STRATEGY, null);
+        int refillWindow = data.optInt(FrontendConstants.KEY_REFILL_WINDOW, Constants.DEFAULT_REFILL_WINDOW);
+        int assignment = data.optInt(FrontendConstants.KEY_ASSIGNMENT, FrontendConstants.TYPE_ASSIGNMENT_NEAREST);
+        int improvementBudget = data.optInt(FrontendConstants.KEY_IMPROVEMENT_BUDGET, 0);
+        int scheduling = data.optInt(FrontendConstants.KEY_SCHEDULING, FrontendConstants.TYPE_SCHEDULING_FIFO);
+        boolean repositioning = data.optBoolean(FrontendConstants.KEY_REPOSITIONING, false);
+        int storage = data.optInt(FrontendConstants.KEY_STORAGE, FrontendConstants.TYPE_STORAGE_STATIC);
+        boolean charging = data.optBoolean(FrontendConstants.KEY_CHARGING, false);
+        double chargingShare = data.optDouble(FrontendConstants.KEY_CHARGING_SHARE, Constants.DEFAULT_CHARGING_SHARE);
+        boolean forecasting = data.optBoolean(FrontendConstants.KEY_FORECASTING, false);
 
         //
         // Checks
@@ -61,10 +78,67 @@ public class Decoder {
             throw new DataException("Warehouse grid with invalid dimensions: (" + h + " x " + w + ").",
                     Constants.ERR_INVALID_ARGS);
         }
+        if (planner != FrontendConstants.TYPE_PLANNER_GRID && planner != FrontendConstants.TYPE_PLANNER_SIPP) {
+            throw new DataException("Warehouse with invalid planner type: " + planner + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
+        if (dispatch < FrontendConstants.TYPE_DISPATCH_SEQUENTIAL || dispatch > FrontendConstants.TYPE_DISPATCH_ZONE) {
+            throw new DataException("Warehouse with invalid dispatch type: " + dispatch + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
+        if (batchWindow < 1) {
+            throw new DataException("Warehouse with non-positive batch window: " + batchWindow + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
+        if (zoneSize < 0) {
+            throw new DataException("Warehouse with negative zone size: " + zoneSize + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
+        if (refillWindow < 0) {
+            throw new DataException("Warehouse with negative refill window: " + refillWindow + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
+        if (assignment < FrontendConstants.TYPE_ASSIGNMENT_NEAREST || assignment > FrontendConstants.TYPE_ASSIGNMENT_LOOKAHEAD) {
+            throw new DataException("Warehouse with invalid assignment type: " + assignment + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
+        if (improvementBudget < 0) {
+            throw new DataException("Warehouse with negative improvement budget: " + improvementBudget + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
+
+        if (scheduling < FrontendConstants.TYPE_SCHEDULING_FIFO || scheduling > FrontendConstants.TYPE_SCHEDULING_AGING) {
+            throw new DataException("Warehouse with invalid scheduling type: " + scheduling + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
+        if (storage != FrontendConstants.TYPE_STORAGE_STATIC && storage != FrontendConstants.TYPE_STORAGE_DYNAMIC) {
+            throw new DataException("Warehouse with invalid storage type: " + storage + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
+        if (!(chargingShare > 0 && chargingShare <= 1)) {
+            throw new DataException("Warehouse with invalid charging share: " + chargingShare + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
+
+        // Look up the dispatch strategy by name if given, overriding the dispatch type
+        DispatchConfig dispatchConfig = new DispatchConfig(batchWindow, zoneSize);
+        DispatchStrategy dispatchStrategy = (strategy != null
+                ? DispatchStrategy.forName(strategy, dispatchConfig)
+                : DispatchStrategy.of(DispatchMode.values()[dispatch], dispatchConfig));
 
         // Configure warehouse
         sMode = mode;
         sWarehouse.configure(h, w);
+        sWarehouse.setPlannerMode(planner == FrontendConstants.TYPE_PLANNER_SIPP ? PlannerMode.SIPP : PlannerMode.GRID);
+        sWarehouse.setDispatchStrategy(dispatchStrategy);
+        sWarehouse.setRefillWindow(refillWindow);
+        sWarehouse.setAssignmentMode(AssignmentMode.values()[assignment]);
+        sWarehouse.setImprovementBudget(improvementBudget * 1000L);     // Given in microseconds
+        sWarehouse.setSchedulingMode(SchedulingMode.values()[scheduling]);
+        sWarehouse.setRepositioning(repositioning);
+        sWarehouse.setStorageMode(storage == FrontendConstants.TYPE_STORAGE_DYNAMIC ? StorageMode.DYNAMIC : StorageMode.STATIC);
+        sWarehouse.setCharging(charging, chargingShare, mode == RunningMode.SIMULATION);
+        sWarehouse.setForecasting(forecasting);
 
         // Define new items in the warehouse
         for (int i = 0; i < itemsJSON.length(); ++i) {
@@ -127,6 +201,9 @@ public class Decoder {
         int id = data.getInt(FrontendConstants.KEY_ID);
         int cap = data.getInt(FrontendConstants.KEY_AGENT_LOAD_CAPACITY);
         int dir = data.getInt(FrontendConstants.KEY_AGENT_DIRECTION);
+        int moveDur = data.optInt(FrontendConstants.KEY_AGENT_MOVE_DURATION, Constants.AGENT_DEFAULT_MOVE_DURATION);
+        int rotateDur = data.optInt(FrontendConstants.KEY_AGENT_ROTATE_DURATION, Constants.AGENT_DEFAULT_ROTATE_DURATION);
+        int loadDur = data.optInt(FrontendConstants.KEY_AGENT_LOAD_DURATION, Constants.AGENT_DEFAULT_LOAD_DURATION);
 
         //
         // Checks
@@ -148,9 +225,15 @@ public class Decoder {
                     Constants.ERR_INVALID_ARGS);
         }
 
+        if (moveDur < 1 || rotateDur < 1 || loadDur < 1) {
+            throw new DataException("Agent-" + id + " with non-positive action durations.",
+                    Constants.ERR_INVALID_ARGS);
+        }
+
         // Create new agent
         Agent ret = new Agent(id, cap);
         ret.setDirection(dir);
+        ret.setActionDurations(moveDur, rotateDur, loadDur);
 
         // Deployment mode
         if (sMode == RunningMode.DEPLOYMENT) {
@@ -285,6 +368,8 @@ public class Decoder {
         int gateId = data.getInt(FrontendConstants.KEY_GATE_ID);
         Gate gate = sWarehouse.getGateById(gateId);
         JSONArray itemsJSON = data.getJSONArray(FrontendConstants.KEY_ITEMS);
+        int priority = data.optInt(FrontendConstants.KEY_ORDER_PRIORITY, Constants.ORDER_DEFAULT_PRIORITY);
+        long deadline = data.optLong(FrontendConstants.KEY_ORDER_DEADLINE, -1);
 
         //
         // Checks
@@ -293,6 +378,14 @@ public class Decoder {
             throw new DataException("Order with negative id: " + id + ".",
                     Constants.ERR_INVALID_ARGS);
         }
+        if (priority < 0) {
+            throw new DataException("Order-" + id + " with negative priority: " + priority + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
+        if (deadline < -1) {
+            throw new DataException("Order-" + id + " with invalid deadline: " + deadline + ".",
+                    Constants.ERR_INVALID_ARGS);
+        }
         if (sWarehouse.getOrderById(id) != null) {
             throw new DataException("Order with duplicate id: " + id + ".",
                     Constants.ERR_INVALID_ARGS);
@@ -319,6 +412,25 @@ public class Decoder {
                         Constants.ERR_INVALID_ARGS);
         }
 
+        ret.setPriority(priority);
+        ret.setDeadline(deadline);
+
+        // Extract the alternative delivery gates of collect orders
+        JSONArray gatesJSON = data.optJSONArray(FrontendConstants.KEY_GATE_IDS);
+
+        if (gatesJSON != null && ret instanceof CollectOrder) {
+            for (int i = 0; i < gatesJSON.length(); ++i) {
+                Gate alt = sWarehouse.getGateById(gatesJSON.getInt(i));
+
+                if (alt == null) {
+                    throw new DataException("Order-" + id + " is allowed invalid gate with id: " + gatesJSON.getInt(i) + ".",
+                            Constants.ERR_INVALID_ARGS);
+                }
+
+                ret.addAllowedGate(alt);
+            }
+        }
+
         // Check items
         if (itemsJSON.isEmpty()) {
             throw new DataException("Order-" + ret.getId() + " has no assigned items.",
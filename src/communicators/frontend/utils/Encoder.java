@@ -76,6 +76,9 @@ public class Encoder {
     public static JSONObject encodeOrderFulfilledLog(Order order) {
         JSONObject data = new JSONObject();
         data.put(FrontendConstants.KEY_ID, order.getId());
+        if (order.hasDeadline()) {
+            data.put(FrontendConstants.KEY_ORDER_LATENESS, order.getLateness());
+        }
         return encodeMsg(FrontendConstants.TYPE_LOG, encodeMsg(FrontendConstants.TYPE_LOG_ORDER_FULFILLED, data));
     }
 
@@ -227,11 +227,23 @@ public class HardwareCommunicator {
 
     /**
      * Checks whether the last time step has been completed by all the agents or not.
+     * <p>
+     * Agents whose last actions are planned to last beyond the next time step
+     * are not waited for.
      *
      * @return {@code true} if completed; {@code false} otherwise.
      */
     public boolean isLastStepCompleted() {
-        return pendingActionMap.isEmpty();
+        long nextTime = Warehouse.getInstance().getTime() + 1;
+
+        // Agents still performing actions of multiple time steps do not hold the next time step
+        for (Agent agent : pendingActionMap.keySet()) {
+            if (!agent.isBusy(nextTime)) {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     // ===============================================================================================
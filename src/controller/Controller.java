@@ -1,5 +1,6 @@
 package controller;
 
+
 import communicators.CommunicationListener;
 import communicators.frontend.FrontendCommunicator;
 import communicators.hardware.HardwareCommunicator;
@@ -7,6 +8,7 @@ import communicators.hardware.HardwareConstants;
 
 import models.agents.Agent;
 import models.agents.AgentListener;
+import models.facilities.Gate;
 import models.items.Item;
 import models.tasks.Task;
 import models.tasks.orders.Order;
@@ -251,6 +253,25 @@ public class Controller implements CommunicationListener {
     public void onStop() {
         setState(ServerState.IDLE);
 
+        // Report the deadline statistics of the fulfilled orders, the gate metrics, the forecast accuracy and the dispatching metrics
+        synchronized (warehouse) {
+            System.out.println(warehouse.getOrderStatistics());
+
+            for (Gate gate : warehouse.getGateList()) {
+                System.out.printf("Gate-%d: queue %d, utilization %.2f%%, %d served, service time %.2f%n",
+                        gate.getId(), gate.getQueueLength(), 100 * gate.getUtilization(),
+                        gate.getServedCount(), gate.getServiceTime());
+            }
+
+            System.out.println(warehouse.getForecaster());
+
+            String metrics = warehouse.getDispatchStrategy().getMetrics();
+
+            if (metrics != null) {
+                System.out.println(metrics);
+            }
+        }
+
         if (getMode() == RunningMode.DEPLOYMENT) {
             synchronized (warehouse) {
                 hardwareComm.close();
@@ -0,0 +1,242 @@
+package controller;
+
+import algorithms.dispatcher.DispatchConfig;
+import algorithms.dispatcher.DispatchStrategy;
+
+import communicators.frontend.FrontendConstants;
+import communicators.frontend.utils.Decoder;
+
+import models.items.Item;
+import models.tasks.Task;
+import models.tasks.orders.Order;
+import models.tasks.orders.OrderListener;
+import models.warehouses.Warehouse;
+
+import utils.Constants;
+import utils.Constants.*;
+import utils.exceptions.DataException;
+import utils.Utility;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+
+
+/**
+ * This {@code DispatchReplayTool} class is the entry of the side-by-side replay of the dispatch strategies.
+ * <p>
+ * It replays the same order stream against every given {@link DispatchStrategy} on the same
+ * {@code .hive} warehouse configuration in simulation, and reports the throughput, the mean and
+ * the 99th percentile of the order completion times, and the number of rack trips per order of every strategy.
+ * <p>
+ * The order stream is a JSON array of orders in the same format as the frontend order messages,
+ * where every order is released at its optional {@code timestep} key, or at the start otherwise.
+ */
+public class DispatchReplayTool {
+
+    //
+    // Static Variables
+    //
+
+    /**
+     * The names of the strategies to replay by default.
+     */
+    public static final String DEFAULT_STRATEGIES = "sequential,batch,parallel,zone";
+
+    /**
+     * The number of consecutive time steps without changes after which a simulation is stopped.
+     */
+    public static final int SIMULATION_IDLE_STEPS = 1000;
+
+    // ===============================================================================================
+    //
+    // Static Methods
+    //
+
+    /**
+     * The main entry function of the dispatch replay tool.
+     *
+     * @param args the warehouse file, the order stream file,
+     *             and optionally the comma-separated names of the strategies to replay.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: DispatchReplayTool <warehouse.hive> <orders.json> [strategy,...]");
+            return;
+        }
+
+        JSONObject config = new JSONObject(Utility.readFile(args[0]));
+        JSONArray log = new JSONArray(Utility.readFile(args[1]));
+        String[] names = (args.length > 2 ? args[2] : DEFAULT_STRATEGIES).split(",");
+
+        System.out.printf("%-12s %8s %8s %10s %10s %8s %12s%n",
+                "Strategy", "Orders", "Steps", "Throughput", "Mean", "P99", "Trips/Order");
+
+        for (String name : names) {
+            Result result = simulate(config, log, name.trim());
+
+            System.out.printf("%-12s %8d %8d %10.4f %10.2f %8d %12.2f%n",
+                    name.trim(), result.fulfilled, result.steps, result.getThroughput(),
+                    result.getMeanLatency(), result.getLatencyPercentile(0.99), result.getTripsPerOrder());
+        }
+    }
+
+    /**
+     * Replays the given order stream over the given warehouse configuration using the given strategy
+     * until all the released orders are fulfilled, or no changes occur for {@link #SIMULATION_IDLE_STEPS}
+     * time steps after releasing the last order.
+     *
+     * @param config   the warehouse configuration.
+     * @param log      the order stream.
+     * @param strategy the name of the {@code DispatchStrategy}.
+     *
+     * @return the measured {@code Result}.
+     */
+    public static Result simulate(JSONObject config, JSONArray log, String strategy) throws DataException {
+        Warehouse warehouse = Decoder.decodeWarehouse(config, RunningMode.SIMULATION);
+        DispatchConfig dispatchConfig = new DispatchConfig(
+                config.optInt(FrontendConstants.KEY_BATCH_WINDOW, Constants.DEFAULT_BATCH_WINDOW),
+                config.optInt(FrontendConstants.KEY_ZONE_SIZE, Constants.DEFAULT_ZONE_SIZE));
+
+        warehouse.setDispatchStrategy(DispatchStrategy.forName(strategy, dispatchConfig));
+
+        // Sort the orders by their release time steps, keeping the stream order of the ties
+        List<JSONObject> stream = new ArrayList<>();
+
+        for (int i = 0; i < log.length(); ++i) {
+            stream.add(log.getJSONObject(i));
+        }
+
+        stream.sort(Comparator.comparingLong(o -> o.optLong(FrontendConstants.KEY_TIME_STEP, 0)));
+
+        Result ret = new Result();
+        int next = 0, added = 0, idle = 0;
+
+        while (next < stream.size() || (ret.fulfilled < added && idle < SIMULATION_IDLE_STEPS)) {
+            // Release the orders due by the current time step
+            for (; next < stream.size(); ++next) {
+                JSONObject orderJSON = stream.get(next);
+
+                if (orderJSON.optLong(FrontendConstants.KEY_TIME_STEP, 0) > warehouse.getTime()) {
+                    break;
+                }
+
+                try {
+                    Order order = Decoder.decodeOrder(orderJSON);
+                    order.setListener(ret);
+                    warehouse.addOrder(order);
+                    added++;
+                } catch (DataException ex) {
+                    // Skip the orders exceeding the remaining stock
+                }
+            }
+
+            idle = (warehouse.run() || next < stream.size() ? 0 : idle + 1);
+        }
+
+        ret.steps = warehouse.getTime();
+        return ret;
+    }
+
+    // ===============================================================================================
+    //
+    // Helper Inner Classes
+    //
+
+    /**
+     * This {@code Result} class holds the measurements of a single replay simulation.
+     */
+    public static class Result implements OrderListener {
+
+        /**
+         * The number of fulfilled orders.
+         */
+        public long fulfilled;
+
+        /**
+         * The number of simulated time steps.
+         */
+        public long steps;
+
+        /**
+         * The list of the completion times of the fulfilled orders.
+         */
+        private List<Long> latencies = new ArrayList<>();
+
+        /**
+         * The set of the distinct rack trips assigned to the orders.
+         */
+        private Set<Task> trips = new HashSet<>();
+
+        /**
+         * Returns the number of fulfilled orders per time step.
+         *
+         * @return the throughput.
+         */
+        public double getThroughput() {
+            return (steps == 0 ? 0 : 1. * fulfilled / steps);
+        }
+
+        /**
+         * Returns the mean completion time of the fulfilled orders.
+         *
+         * @return the mean completion time in time steps.
+         */
+        public double getMeanLatency() {
+            return latencies.stream().mapToLong(Long::longValue).average().orElse(0);
+        }
+
+        /**
+         * Returns the given percentile of the completion times of the fulfilled orders.
+         *
+         * @param p the percentile in the range {@code (0, 1]}.
+         *
+         * @return the completion time percentile in time steps.
+         */
+        public long getLatencyPercentile(double p) {
+            if (latencies.isEmpty()) {
+                return 0;
+            }
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return sorted.get(Math.max(0, (int) Math.ceil(p * sorted.size()) - 1));
+        }
+
+        /**
+         * Returns the number of rack trips per fulfilled order.
+         *
+         * @return the trips per order.
+         */
+        public double getTripsPerOrder() {
+            return (fulfilled == 0 ? 0 : 1. * trips.size() / fulfilled);
+        }
+
+        @Override
+        public void onStart(Order order) {
+
+        }
+
+        @Override
+        public void onTaskAssign(Order order, Task task) {
+            trips.add(task);
+        }
+
+        @Override
+        public void onTaskComplete(Order order, Task task, Map<Item, Integer> items) {
+
+        }
+
+        @Override
+        public void onFulfill(Order order) {
+            fulfilled++;
+            latencies.add(order.getTimeCompleted() - order.getTimeReceived());
+        }
+
+        @Override
+        public void onDismiss(Order order) {
+
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package controller;
+
+import algorithms.slotting.SlottingOptimizer;
+import algorithms.slotting.SlottingOptimizer.Layout;
+
+import communicators.frontend.FrontendConstants;
+import communicators.frontend.utils.Decoder;
+
+import models.agents.Agent;
+import models.facilities.Rack;
+import models.items.Item;
+import models.maps.Position;
+import models.tasks.AbstractTask;
+import models.tasks.orders.Order;
+import models.warehouses.Warehouse;
+
+import utils.exceptions.DataException;
+import utils.Constants.*;
+import utils.Utility;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.*;
+
+
+/**
+ * This {@code SlottingTool} class is the entry of the offline inventory slotting tool.
+ * <p>
+ * It reads a {@code .hive} warehouse configuration and a historical order log, computes a new assignment
+ * of the items to the racks and of the racks to the storage cells using the {@link SlottingOptimizer},
+ * and writes the new configuration along with the predicted cost reduction.
+ * Both layouts are then verified by replaying the order log in simulation.
+ * <p>
+ * The order log is a JSON array of orders in the same format as the frontend order messages,
+ * each optionally holding the time step at which it was released.
+ */
+public class SlottingTool {
+
+    //
+    // Static Variables
+    //
+
+    /**
+     * The default number of parallel annealing restarts.
+     */
+    public static final int DEFAULT_RESTARTS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The default number of moves of every annealing restart.
+     */
+    public static final int DEFAULT_ITERATIONS = 200000;
+
+    /**
+     * The seed of the first annealing restart to keep the results reproducible.
+     */
+    public static final long SEED = 41;
+
+    /**
+     * The number of consecutive time steps without changes after which a simulation is stopped.
+     */
+    public static final int SIMULATION_IDLE_STEPS = 1000;
+
+    // ===============================================================================================
+    //
+    // Static Methods
+    //
+
+    /**
+     * The main entry function of the slotting tool.
+     *
+     * @param args the warehouse file, the order log file, the output warehouse file,
+     *             and optionally the number of restarts and the number of moves per restart.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: SlottingTool <warehouse.hive> <orders.json> <output.hive> [restarts] [iterations]");
+            return;
+        }
+
+        int restarts = (args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_RESTARTS);
+        int iterations = (args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_ITERATIONS);
+
+        JSONObject config = new JSONObject(Utility.readFile(args[0]));
+        JSONArray log = new JSONArray(Utility.readFile(args[1]));
+
+        //
+        // Optimize the layout of the original warehouse
+        //
+        Warehouse warehouse = Decoder.decodeWarehouse(config, RunningMode.SIMULATION);
+
+        List<Order> orders = decodeOrders(log);
+        int maxLoad = warehouse.getAgentList().stream().mapToInt(Agent::getLoadCapacity).max().orElse(0);
+
+        SlottingOptimizer optimizer = new SlottingOptimizer(warehouse.getRackList(), warehouse.getGateList(),
+                warehouse.getItemList(), orders, maxLoad);
+
+        Layout layout = optimizer.optimize(restarts, iterations, SEED);
+
+        double before = optimizer.getExpectedCost(optimizer.getInitialLayout());
+        double after = optimizer.getExpectedCost(layout);
+
+        System.out.printf("Orders: %d decoded, %d skipped%n", orders.size(), log.length() - orders.size());
+        System.out.printf("Expected round-trip cost per order: %.2f -> %.2f (%.2f%% reduction)%n",
+                before, after, (before == 0 ? 0 : 100 * (before - after) / before));
+
+        JSONObject result = applyLayout(config, warehouse, optimizer, layout);
+        Utility.writeFile(args[2], result.toString(2));
+
+        //
+        // Verify both layouts by simulation
+        //
+        Replay original = simulate("Original", config, log);
+        Replay optimized = simulate("Optimized", result, log);
+
+        // The makespans are only comparable if both layouts fulfilled the same orders
+        if (!original.fulfilled.equals(optimized.fulfilled)) {
+            System.out.println("Simulated makespan: not comparable, the layouts fulfilled different orders");
+            return;
+        }
+
+        System.out.printf("Simulated makespan: %d -> %d time steps (%.2f%% reduction)%n",
+                original.makespan, optimized.makespan,
+                (original.makespan == 0 ? 0 : 100. * (original.makespan - optimized.makespan) / original.makespan));
+    }
+
+    /**
+     * Decodes the given order log against the currently loaded {@code Warehouse},
+     * skipping the invalid orders.
+     *
+     * @param log the order log.
+     *
+     * @return the list of decoded orders.
+     */
+    private static List<Order> decodeOrders(JSONArray log) {
+        List<Order> ret = new ArrayList<>();
+
+        for (int i = 0; i < log.length(); ++i) {
+            try {
+                ret.add(Decoder.decodeOrder(log.getJSONObject(i)));
+            } catch (DataException ex) {
+                System.err.println(ex.getMessage());
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns a copy of the given warehouse configuration with the given layout applied.
+     *
+     * @param config    the original warehouse configuration.
+     * @param warehouse the {@code Warehouse} decoded from the original configuration.
+     * @param optimizer the {@code SlottingOptimizer} of the layout.
+     * @param layout    the {@code Layout} to apply.
+     *
+     * @return the new warehouse configuration.
+     */
+    private static JSONObject applyLayout(JSONObject config, Warehouse warehouse,
+                                          SlottingOptimizer optimizer, Layout layout) {
+        JSONObject ret = new JSONObject(config.toString());
+        JSONObject mapJSON = ret.getJSONObject(FrontendConstants.KEY_MAP);
+        JSONArray gridJSON = mapJSON.getJSONArray(FrontendConstants.KEY_GRID);
+        JSONObject objectsJSON = mapJSON.optJSONObject(FrontendConstants.KEY_OBJECTS);
+
+        List<Rack> racks = new ArrayList<>(warehouse.getRackList());
+        List<Item> items = new ArrayList<>(warehouse.getItemList());
+        racks.sort(Comparator.comparingInt(Rack::getId));
+        items.sort(Comparator.comparingInt(Item::getId));
+
+        // Lift all the racks out of their original cells
+        Map<Rack, JSONObject> racksJSON = new HashMap<>();
+
+        for (Rack rack : racks) {
+            JSONObject cellJSON = gridJSON.getJSONArray(rack.getRow()).getJSONObject(rack.getCol());
+            racksJSON.put(rack, cellJSON.getJSONArray(FrontendConstants.KEY_OBJECTS).getJSONObject(0));
+            cellJSON.put(FrontendConstants.KEY_OBJECTS, new JSONArray());
+        }
+
+        // Refill and place every rack into its new cell
+        for (Rack rack : racks) {
+            JSONObject rackJSON = racksJSON.get(rack);
+            JSONArray itemsJSON = new JSONArray();
+
+            for (Item item : items) {
+                int quantity = optimizer.getQuantity(layout, rack, item);
+
+                if (quantity > 0) {
+                    JSONObject itemJSON = new JSONObject();
+                    itemJSON.put(FrontendConstants.KEY_ID, item.getId());
+                    itemJSON.put(FrontendConstants.KEY_ITEM_QUANTITY, quantity);
+                    itemsJSON.put(itemJSON);
+                }
+            }
+
+            rackJSON.put(FrontendConstants.KEY_ITEMS, itemsJSON);
+
+            Position pos = optimizer.getPosition(layout, rack);
+            JSONObject cellJSON = gridJSON.getJSONArray(pos.row).getJSONObject(pos.col);
+            cellJSON.put(FrontendConstants.KEY_OBJECTS, new JSONArray().put(rackJSON));
+
+            // Update the object positions lookup of the frontend
+            String key = rack.getId() + "," + FrontendConstants.TYPE_CELL_RACK;
+
+            if (objectsJSON != null && objectsJSON.has(key)) {
+                objectsJSON.put(key, new JSONArray().put(pos.row).put(pos.col));
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Replays the given order log over the given warehouse configuration, releasing every order
+     * at its logged time step, until all the released orders are fulfilled, or no changes occur
+     * for {@link #SIMULATION_IDLE_STEPS} time steps after releasing the last order.
+     *
+     * @param name   the name of the layout to report.
+     * @param config the warehouse configuration.
+     * @param log    the order log.
+     *
+     * @return the {@code Replay} of the fulfilled orders.
+     */
+    private static Replay simulate(String name, JSONObject config, JSONArray log) throws DataException {
+        Warehouse warehouse = Decoder.decodeWarehouse(config, RunningMode.SIMULATION);
+
+        // Sort the orders by their release time steps, keeping the log order of the ties
+        List<JSONObject> stream = new ArrayList<>();
+
+        for (int i = 0; i < log.length(); ++i) {
+            stream.add(log.getJSONObject(i));
+        }
+
+        stream.sort(Comparator.comparingLong(o -> o.optLong(FrontendConstants.KEY_TIME_STEP, 0)));
+
+        List<Order> orders = new ArrayList<>();
+        int next = 0, idle = 0;
+
+        while (next < stream.size()
+                || (warehouse.getOrderStatistics().getFulfilledCount() < orders.size() && idle < SIMULATION_IDLE_STEPS)) {
+            // Release the orders due by the current time step that are feasible in sequence
+            for (; next < stream.size(); ++next) {
+                JSONObject orderJSON = stream.get(next);
+
+                if (orderJSON.optLong(FrontendConstants.KEY_TIME_STEP, 0) > warehouse.getTime()) {
+                    break;
+                }
+
+                try {
+                    Order order = Decoder.decodeOrder(orderJSON);
+                    warehouse.addOrder(order);
+                    orders.add(order);
+                } catch (DataException ex) {
+                    // Skip the orders exceeding the remaining stock
+                }
+            }
+
+            idle = (warehouse.run() || next < stream.size() ? 0 : idle + 1);
+        }
+
+        // Measure the makespan till the last fulfilled order, excluding the idle tail
+        Replay ret = new Replay();
+
+        for (Order order : orders) {
+            if (order.getStatus() == AbstractTask.TaskStatus.FULFILLED) {
+                ret.fulfilled.add(order.getId());
+                ret.makespan = Math.max(ret.makespan, order.getTimeCompleted());
+            }
+        }
+
+        System.out.printf("%s layout: %d orders fulfilled, %d skipped, in %d time steps%n",
+                name, ret.fulfilled.size(), log.length() - orders.size(), ret.makespan);
+
+        return ret;
+    }
+
+    // ===============================================================================================
+    //
+    // Helper Inner Classes
+    //
+
+    /**
+     * This {@code Replay} class holds the outcome of replaying the order log over a single layout.
+     */
+    private static class Replay {
+
+        /**
+         * The set of the ids of the fulfilled orders.
+         */
+        Set<Integer> fulfilled = new HashSet<>();
+
+        /**
+         * The time step at which the last order has been fulfilled.
+         */
+        long makespan;
+    }
+}
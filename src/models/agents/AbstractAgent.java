@@ -10,6 +10,7 @@ import models.tasks.TaskAssignable;
 import models.warehouses.Warehouse;
 
 import utils.Constants;
+import utils.Constants.*;
 import utils.Utility;
 
 import java.net.InetAddress;
@@ -80,6 +81,26 @@ abstract public class AbstractAgent extends HiveObject implements TaskAssignable
      */
     protected int batteryLevel = Constants.AGENT_DEFAULT_BATTERY_LEVEL;
 
+    /**
+     * The number of cells moved since the battery level of this {@code Agent} last dropped.
+     */
+    protected int drainedSteps = 0;
+
+    /**
+     * The number of time steps this {@code Agent} takes to move a single cell.
+     */
+    protected int moveDuration = Constants.AGENT_DEFAULT_MOVE_DURATION;
+
+    /**
+     * The number of time steps this {@code Agent} takes to rotate a quarter turn.
+     */
+    protected int rotateDuration = Constants.AGENT_DEFAULT_ROTATE_DURATION;
+
+    /**
+     * The number of time steps this {@code Agent} takes to load, offload, bind or unbind a rack.
+     */
+    protected int loadDuration = Constants.AGENT_DEFAULT_LOAD_DURATION;
+
     /**
      * The ip address of this {@code Agent} needed for communication.
      */
@@ -233,6 +254,92 @@ abstract public class AbstractAgent extends HiveObject implements TaskAssignable
         }
     }
 
+    /**
+     * Returns the estimated number of cells this {@code Agent} can still move before its battery depletes.
+     *
+     * @return the remaining number of steps.
+     */
+    public long getRemainingSteps() {
+        return Math.max(0L, (long) batteryLevel * Constants.AGENT_BATTERY_STEPS_PER_LEVEL - drainedSteps);
+    }
+
+    /**
+     * Consumes the energy of moving a single cell from the simulated battery of this {@code Agent}.
+     */
+    public void consumeStep() {
+        if (batteryLevel <= 0 || ++drainedSteps < Constants.AGENT_BATTERY_STEPS_PER_LEVEL) {
+            return;
+        }
+
+        drainedSteps = 0;
+        setBatteryLevel(batteryLevel - 1);
+    }
+
+    /**
+     * Returns the number of time steps this {@code Agent} takes to move a single cell.
+     *
+     * @return the move duration of this {@code Agent}.
+     */
+    public int getMoveDuration() {
+        return moveDuration;
+    }
+
+    /**
+     * Returns the number of time steps this {@code Agent} takes to rotate a quarter turn.
+     *
+     * @return the rotate duration of this {@code Agent}.
+     */
+    public int getRotateDuration() {
+        return rotateDuration;
+    }
+
+    /**
+     * Returns the number of time steps this {@code Agent} takes to load, offload, bind or unbind a rack.
+     *
+     * @return the load duration of this {@code Agent}.
+     */
+    public int getLoadDuration() {
+        return loadDuration;
+    }
+
+    /**
+     * Sets the action durations of this {@code Agent} in time steps.
+     *
+     * @param move   the number of time steps to move a single cell.
+     * @param rotate the number of time steps to rotate a quarter turn.
+     * @param load   the number of time steps to load, offload, bind or unbind a rack.
+     */
+    public void setActionDurations(int move, int rotate, int load) {
+        moveDuration = move;
+        rotateDuration = rotate;
+        loadDuration = load;
+    }
+
+    /**
+     * Returns the number of time steps this {@code Agent} takes to perform the given action.
+     *
+     * @param action the {@code AgentAction} to get its duration.
+     *
+     * @return the duration of the action.
+     */
+    public int getActionDuration(AgentAction action) {
+        switch (action) {
+            case MOVE:
+            case RETREAT:
+                return moveDuration;
+            case ROTATE_RIGHT:
+            case ROTATE_LEFT:
+                return rotateDuration;
+            case LOAD:
+            case OFFLOAD:
+            case BIND:
+            case UNBIND:
+                return loadDuration;
+            default:
+                return 1;
+        }
+    }
+
     /**
      * Returns the ip address of this {@code Agent} needed for communication.
      *
@@ -291,7 +398,18 @@ abstract public class AbstractAgent extends HiveObject implements TaskAssignable
      */
     public int getPriority() {
         Task task = getActiveTask();
-        return (task != null ? task.getPriority() : Short.MAX_VALUE);
+        return (task != null ? task.getPriority() : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the id of the active {@code Task} of this {@code Agent}, used to give the older
+     * tasks of equal priorities the right of way.
+     *
+     * @return the id of the active {@code Task}; or {@code Integer.MAX_VALUE} if this {@code Agent} is idle.
+     */
+    protected int getActiveTaskId() {
+        Task task = getActiveTask();
+        return (task != null ? task.getId() : Integer.MAX_VALUE);
     }
 
     /**
@@ -314,6 +432,15 @@ abstract public class AbstractAgent extends HiveObject implements TaskAssignable
         return tasks.peek();
     }
 
+    /**
+     * Returns the queue of tasks assigned to this {@code Agent}, starting with the active one.
+     *
+     * @return the queue of assigned tasks.
+     */
+    public Queue<Task> getTasks() {
+        return tasks;
+    }
+
     /**
      * Assigns a new {@code Task} to this {@code Agent}.
      *
@@ -342,6 +469,20 @@ abstract public class AbstractAgent extends HiveObject implements TaskAssignable
         }
     }
 
+    /**
+     * The callback function to be invoked when an assigned {@code Task} is cancelled
+     * before lifting its {@code Rack}.
+     *
+     * @param task the cancelled {@code Task}.
+     */
+    public void onTaskCancel(Task task) {
+        tasks.remove(task);
+
+        if (listener != null) {
+            listener.onTaskComplete((Agent) this, task);
+        }
+    }
+
     // ===============================================================================================
     //
     // Control-Related Methods
@@ -475,7 +616,10 @@ abstract public class AbstractAgent extends HiveObject implements TaskAssignable
             return id - obj.getId();
         }
         Agent rhs = (Agent) obj;
-        int cmp = (rhs.getPriority() - getPriority());
+        int cmp = Integer.compare(rhs.getPriority(), getPriority());
+        if (cmp == 0) {
+            cmp = Integer.compare(rhs.getActiveTaskId(), getActiveTaskId());
+        }
         if (cmp == 0) {
             return id - rhs.id;
         }
@@ -1,6 +1,7 @@
 package models.agents;
 
 import algorithms.planner.Planner;
+import algorithms.planner.SippPlanner;
 
 import models.facilities.Facility;
 import models.facilities.Rack;
@@ -48,6 +49,12 @@ public class Agent extends AbstractAgent {
      */
     private Stack<Integer> plan;
 
+    /**
+     * The times at which to start every move of the current plan when planning with durations;
+     * or {@code null} if the current plan is not timed.
+     */
+    private Stack<Long> schedule;
+
     /**
      * The last action done by this {@code Agent} that we are still waiting
      * for its acknowledgement.
@@ -59,6 +66,11 @@ public class Agent extends AbstractAgent {
      */
     private long lastActionTime = -1;
 
+    /**
+     * The last time step this {@code Agent} is still busy performing its last action.
+     */
+    private long busyUntil = -1;
+
     /**
      * The last time this {@code Agent} has attempt to recover from the last interruption.
      */
@@ -325,8 +337,15 @@ public class Agent extends AbstractAgent {
      */
     @Override
     public boolean executeAction() {
-        // Return if already did an action this time step
+        // Return if already did an action this time step,
+        // or still performing an action of a previous time step
         if (isAlreadyMoved()) {
+            return lastActionTime < sWarehouse.getTime();
+        }
+
+        // Stop for good once the simulated battery is depleted
+        if (batteryLevel <= 0 && sWarehouse.isBatterySimulated()) {
+            deactivate();
             return false;
         }
 
@@ -340,6 +359,55 @@ public class Agent extends AbstractAgent {
         return task.executeAction();
     }
 
+    /**
+     * Moves a single step to reach the given {@code Facility} while this {@code Agent} is idle,
+     * such as a charging {@code Station}.
+     *
+     * @param dst the target to reach.
+     *
+     * @return {@code true} if this {@code Agent} manged to move a step towards the target; {@code false} otherwise.
+     */
+    public boolean approach(Facility dst) {
+        // Return if already did an action this time step,
+        // or still performing an action of a previous time step
+        if (isAlreadyMoved()) {
+            return lastActionTime < sWarehouse.getTime();
+        }
+
+        if (isCoincide(dst)) {
+            return false;
+        }
+
+        return reach(dst);
+    }
+
+    /**
+     * The callback function to be invoked when an assigned {@code Task} is cancelled
+     * before lifting its {@code Rack}.
+     *
+     * @param task the cancelled {@code Task}.
+     */
+    @Override
+    public void onTaskCancel(Task task) {
+        if (task == getActiveTask()) {
+            dropPlan();
+        }
+
+        super.onTaskCancel(task);
+    }
+
+    /**
+     * The callback function to be invoked when the given {@code Facility} has changed its location,
+     * so that any plan to reach it is dropped.
+     *
+     * @param facility the moved {@code Facility}.
+     */
+    public void onTargetMoved(Facility facility) {
+        if (facility == target) {
+            dropPlan();
+        }
+    }
+
     /**
      * Moves a single step to reach the given {@code Facility}.
      *
@@ -374,6 +442,11 @@ public class Agent extends AbstractAgent {
         // Handle move action
         //
 
+        // Wait in place if the timed plan schedules the move later
+        if (schedule != null && schedule.peek() > sWarehouse.getTime()) {
+            return true;
+        }
+
         // Get the current and the next cells
         int r = row + Constants.DIR_ROW[d];
         int c = col + Constants.DIR_COL[d];
@@ -492,15 +565,23 @@ public class Agent extends AbstractAgent {
         if (hasPlan()) {
             if (dir == plan.peek()) {
                 plan.pop();
+
+                if (schedule != null) {
+                    schedule.pop();
+                }
             } else {
                 dropPlan();
             }
         }
 
+        int prvRow = row;
+        int prvCol = col;
+
         sWarehouse.get(row, col).setAgent(null);
         row = r;
         col = c;
         sWarehouse.get(row, col).setAgent(this);
+        sWarehouse.onAgentMoved(this, prvRow, prvCol);
         setLastAction(AgentAction.MOVE);
     }
 
@@ -633,14 +714,26 @@ public class Agent extends AbstractAgent {
 
         // Set the destination and plan the path
         target = dst;
-        plan = Planner.plan(this, dst);
+
+        if (sWarehouse.getPlannerMode() == PlannerMode.SIPP) {
+            schedule = new Stack<>();
+            plan = SippPlanner.plan(this, dst, schedule);
+        } else {
+            schedule = null;
+            plan = Planner.plan(this, dst);
+        }
     }
 
     /**
      * Drops and cancels the current plan of this {@code Agent}.
      */
     private void dropPlan() {
+        if (schedule != null) {
+            sWarehouse.getReservationTable().release(this);
+        }
+
         plan = null;
+        schedule = null;
         target = null;
     }
 
@@ -660,7 +753,21 @@ public class Agent extends AbstractAgent {
      * @return {@code true} if it already performed an action; {@code false} otherwise.
      */
     private boolean isAlreadyMoved() {
-        return lastActionTime >= sWarehouse.getTime();
+        return lastActionTime >= sWarehouse.getTime() || isBusy(sWarehouse.getTime());
+    }
+
+    /**
+     * Checks whether this {@code Agent} is still performing its last action at the given time step.
+     * <p>
+     * Actions taking more than a single time step keep the {@code Agent} busy
+     * until their durations elapse.
+     *
+     * @param time the time step to check.
+     *
+     * @return {@code true} if still performing its last action; {@code false} otherwise.
+     */
+    public boolean isBusy(long time) {
+        return busyUntil >= time;
     }
 
     /**
@@ -669,7 +776,7 @@ public class Agent extends AbstractAgent {
      * @return the last {@code AgentAction} performed.
      */
     private AgentAction getLastAction() {
-        if (lastActionTime + 1 < sWarehouse.getTime()) {
+        if (Math.max(lastActionTime, busyUntil) + 1 < sWarehouse.getTime()) {
             return AgentAction.NOTHING;
         } else {
             return lastAction;
@@ -684,6 +791,7 @@ public class Agent extends AbstractAgent {
     private void setLastAction(AgentAction action) {
         lastAction = action;
         lastActionTime = sWarehouse.getTime();
+        busyUntil = lastActionTime + getActionDuration(action) - 1;
 
         // Inform listener
         if (listener != null) {
@@ -699,6 +807,7 @@ public class Agent extends AbstractAgent {
     private void setLastRecoverAction(AgentAction action) {
         lastAction = action;
         lastActionTime = sWarehouse.getTime();
+        busyUntil = lastActionTime + getActionDuration(action) - 1;
 
         // Inform listener
         if (listener != null) {
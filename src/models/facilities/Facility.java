@@ -105,6 +105,18 @@ abstract public class Facility extends HiveObject implements AgentBindable, Agen
         return guideMap[agent.getRow()][agent.getCol()];
     }
 
+    /**
+     * Returns the guide map grid of this {@code Facility}.
+     * <p>
+     * Note that the returned grid should be used in read-only operations;
+     * otherwise undefined behaviour could arises.
+     *
+     * @return the guide map grid.
+     */
+    public int[][] getGuideMap() {
+        return guideMap;
+    }
+
     /**
      * Computes the guide map to reach this {@code Facility}.
      * That is, a map with the least number of steps to reach this {@code Facility}
@@ -2,6 +2,12 @@ package models.facilities;
 
 import models.agents.Agent;
 import models.tasks.Task;
+import models.warehouses.Warehouse;
+
+import utils.Constants;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 
 /**
@@ -20,6 +26,40 @@ import models.tasks.Task;
  */
 public class Gate extends Facility {
 
+    //
+    // Member Variables
+    //
+
+    /**
+     * The set of tasks having pending deliveries to this {@code Gate}.
+     */
+    private Set<Task> queuedTasks = new LinkedHashSet<>();
+
+    /**
+     * The exponentially smoothed number of time steps a delivery occupies this {@code Gate}.
+     */
+    private double serviceTime = Constants.GATE_DEFAULT_SERVICE_TIME;
+
+    /**
+     * The time step at which the currently bound {@code Agent} has been bound.
+     */
+    private long bindTime;
+
+    /**
+     * The total number of time steps this {@code Gate} has been occupied by completed deliveries.
+     */
+    private long busyTime;
+
+    /**
+     * The number of completed deliveries to this {@code Gate}.
+     */
+    private long servedCount;
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
     /**
      * Constructs a new {@code Gate} object.
      */
@@ -48,6 +88,7 @@ public class Gate extends Facility {
     public void bind(Agent agent) {
         super.bind(agent);
         boundAgent.lock(this);
+        bindTime = Warehouse.getInstance().getTime();
     }
 
     /**
@@ -69,10 +110,84 @@ public class Gate extends Facility {
      */
     @Override
     public void unbind() {
+        long duration = Math.max(1, Warehouse.getInstance().getTime() - bindTime);
+
+        busyTime += duration;
+        servedCount++;
+        serviceTime += Constants.GATE_SERVICE_TIME_SMOOTHING * (duration - serviceTime);
+
         boundAgent.unlock(this);
         super.unbind();
     }
 
+    /**
+     * Adds the given {@code Task} to the queue of this {@code Gate}
+     * when it is given a delivery to this {@code Gate}.
+     *
+     * @param task the queued {@code Task}.
+     */
+    public void enqueue(Task task) {
+        queuedTasks.add(task);
+    }
+
+    /**
+     * Removes the given {@code Task} from the queue of this {@code Gate}
+     * when it has completed all its deliveries to this {@code Gate}.
+     *
+     * @param task the dequeued {@code Task}.
+     */
+    public void dequeue(Task task) {
+        queuedTasks.remove(task);
+    }
+
+    /**
+     * Returns the number of tasks heading to this {@code Gate} or waiting at it.
+     *
+     * @return the queue length of this {@code Gate}.
+     */
+    public int getQueueLength() {
+        return queuedTasks.size();
+    }
+
+    /**
+     * Returns the smoothed number of time steps a delivery occupies this {@code Gate}.
+     *
+     * @return the expected service time.
+     */
+    public double getServiceTime() {
+        return serviceTime;
+    }
+
+    /**
+     * Returns the expected number of time steps a new delivery waits for the queue of this {@code Gate}.
+     *
+     * @return the expected wait.
+     */
+    public int getExpectedWait() {
+        return (int) Math.ceil(queuedTasks.size() * serviceTime);
+    }
+
+    /**
+     * Returns the number of completed deliveries to this {@code Gate}.
+     *
+     * @return the number of served deliveries.
+     */
+    public long getServedCount() {
+        return servedCount;
+    }
+
+    /**
+     * Returns the ratio of the time steps this {@code Gate} has been occupied to all the elapsed time steps.
+     *
+     * @return the utilization of this {@code Gate} in the range {@code [0, 1]}.
+     */
+    public double getUtilization() {
+        long time = Warehouse.getInstance().getTime();
+        long busy = busyTime + (isBound() ? time - bindTime : 0);
+
+        return (time <= 0 ? 0 : Math.min(1., 1. * busy / time));
+    }
+
     /**
      * Returns a string representation of this {@code Gate}.
      * In general, the toString method returns a string that "textually represents" this object.
@@ -85,7 +200,8 @@ public class Gate extends Facility {
 
         builder.append("Gate: {");
         builder.append(" id: ").append(id).append(",");
-        builder.append(" pos: ").append(getPosition());
+        builder.append(" pos: ").append(getPosition()).append(",");
+        builder.append(" queue: ").append(getQueueLength());
         builder.append(" }");
 
         return builder.toString();
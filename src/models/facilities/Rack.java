@@ -4,6 +4,7 @@ import models.agents.Agent;
 import models.items.Item;
 import models.items.QuantityAddable;
 import models.items.QuantityReservable;
+import models.maps.Position;
 
 import utils.Constants;
 import utils.Utility;
@@ -217,6 +218,36 @@ public class Rack extends Facility implements QuantityAddable<Item>, QuantityRes
         super.unbind();
     }
 
+    /**
+     * Exchanges the storage cells of this {@code Rack} and the given one along with their guide maps.
+     * <p>
+     * This function should only be called from the {@code Warehouse} while both racks are lifted.
+     *
+     * @param other the other {@code Rack}.
+     */
+    public void swapPosition(Rack other) {
+        Position pos = getPosition();
+        setPosition(other.getPosition());
+        other.setPosition(pos);
+
+        int[][] map = guideMap;
+        guideMap = other.guideMap;
+        other.guideMap = map;
+    }
+
+    /**
+     * Moves the storage cell of this {@code Rack} to the given position along with its guide map.
+     * <p>
+     * This function should only be called from the {@code Warehouse} while this {@code Rack} is lifted.
+     *
+     * @param pos the {@code Position} of the new storage cell.
+     * @param map the guide map of the new storage cell.
+     */
+    public void setStorage(Position pos, int[][] map) {
+        setPosition(pos);
+        guideMap = map;
+    }
+
     /**
      * Returns a string representation of this {@code Rack}.
      * In general, the toString method returns a string that "textually represents" this object.
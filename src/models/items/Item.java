@@ -1,15 +1,15 @@
 package models.items;
 
 import models.Entity;
+import models.facilities.Gate;
 import models.facilities.Rack;
+import models.maps.Position;
 import models.tasks.orders.Order;
 import models.tasks.Task;
 
 import utils.Utility;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.*;
 
 
 /**
@@ -51,6 +51,16 @@ public class Item extends Entity implements QuantityAddable<Rack>, QuantityReser
      */
     private Map<Rack, Integer> racks = new HashMap<>();
 
+    /**
+     * The map of racks storing this {@code Item} sorted by their distances to every {@code Gate}.<p>
+     * The key is a {@code Gate}.<p>
+     * The mapped value is the set of racks in the {@link #racks} map sorted by their distances to the gate.
+     * <p>
+     * The index is built once the guide maps of the racks are computed, and then kept
+     * in sync with the {@link #racks} map.
+     */
+    private Map<Gate, NavigableSet<Rack>> gateRacks;
+
     // ===============================================================================================
     //
     // Member Methods
@@ -141,8 +151,10 @@ public class Item extends Entity implements QuantityAddable<Rack>, QuantityReser
      */
     @Override
     public void add(Rack rack, int quantity) {
+        boolean stored = racks.containsKey(rack);
         QuantityAddable.update(racks, rack, quantity);
         totalUnits += quantity;
+        updateIndex(rack, stored);
     }
 
     /**
@@ -160,8 +172,10 @@ public class Item extends Entity implements QuantityAddable<Rack>, QuantityReser
      */
     @Override
     public void reserve(Rack rack, int quantity) {
+        boolean stored = racks.containsKey(rack);
         reservedUnits += quantity;
         QuantityAddable.update(racks, rack, -quantity);
+        updateIndex(rack, stored);
     }
 
     /**
@@ -178,6 +192,94 @@ public class Item extends Entity implements QuantityAddable<Rack>, QuantityReser
         reservedUnits += quantity;
     }
 
+    /**
+     * Builds the index of the racks storing this {@code Item} sorted by their
+     * distances to each of the given gates.
+     * <p>
+     * This function should be called after computing the guide maps of the racks.
+     *
+     * @param gates the gates of the {@code Warehouse}.
+     */
+    public void indexRacks(Collection<Gate> gates) {
+        gateRacks = new HashMap<>();
+
+        for (Gate gate : gates) {
+            Position pos = gate.getPosition();
+            NavigableSet<Rack> set = new TreeSet<>(Comparator
+                    .comparingInt((Rack r) -> r.getDistanceTo(pos))
+                    .thenComparingInt(Rack::getId));
+            set.addAll(racks.keySet());
+            gateRacks.put(gate, set);
+        }
+    }
+
+    /**
+     * Removes the given {@code Rack} from the index before changing its location.
+     * The {@code Rack} should be added back by calling {@link #reindexRack(Rack)}
+     * after its guide map is recomputed.
+     *
+     * @param rack the {@code Rack} to remove from the index.
+     */
+    public void unindexRack(Rack rack) {
+        if (gateRacks == null || !racks.containsKey(rack)) {
+            return;
+        }
+
+        for (NavigableSet<Rack> set : gateRacks.values()) {
+            set.remove(rack);
+        }
+    }
+
+    /**
+     * Adds the given {@code Rack} back to the index after changing its location.
+     *
+     * @param rack the {@code Rack} to add into the index.
+     */
+    public void reindexRack(Rack rack) {
+        if (gateRacks == null || !racks.containsKey(rack)) {
+            return;
+        }
+
+        for (NavigableSet<Rack> set : gateRacks.values()) {
+            set.add(rack);
+        }
+    }
+
+    /**
+     * Returns the racks storing this {@code Item} sorted by their distances to the given {@code Gate};
+     * or {@code null} if the index is not built yet.
+     * <p>
+     * Note that the returned set should be used in read-only operations;
+     * otherwise undefined behaviour could arises.
+     *
+     * @param gate the {@code Gate} to sort the racks by.
+     *
+     * @return a sorted set of racks.
+     */
+    public NavigableSet<Rack> getSortedRacks(Gate gate) {
+        return (gateRacks != null ? gateRacks.get(gate) : null);
+    }
+
+    /**
+     * Updates the gate index after changing the available quantity in the given {@code Rack}.
+     *
+     * @param rack   the updated {@code Rack}.
+     * @param stored whether the {@code Rack} was storing this {@code Item} before the update.
+     */
+    private void updateIndex(Rack rack, boolean stored) {
+        if (gateRacks == null || stored == racks.containsKey(rack)) {
+            return;
+        }
+
+        for (NavigableSet<Rack> set : gateRacks.values()) {
+            if (stored) {
+                set.remove(rack);
+            } else {
+                set.add(rack);
+            }
+        }
+    }
+
     /**
      * Returns an {@code Iterator} to iterate over all {@code Racks} storing this {@code Item}.
      * <p>
@@ -0,0 +1,255 @@
+package models.maps;
+
+import models.agents.Agent;
+import models.facilities.Facility;
+
+import java.util.*;
+
+
+/**
+ * This {@code AgentIndex} class is a spatial index of agents over the grid of a {@code Warehouse}.
+ * <p>
+ * The grid is divided into square buckets of cells, and the agents of every load capacity
+ * are kept in a separate bucket grid, so that the nearest agent able to carry a given weight
+ * can be found by expanding rings of buckets around a {@link Facility}.
+ */
+public class AgentIndex {
+
+    //
+    // Static Variables
+    //
+
+    /**
+     * The number of cells along each side of a bucket.
+     */
+    public static final int BUCKET_SIZE = 8;
+
+    // ===============================================================================================
+    //
+    // Member Variables
+    //
+
+    /**
+     * The number of bucket rows.
+     */
+    private int bucketRows;
+
+    /**
+     * The number of bucket columns.
+     */
+    private int bucketCols;
+
+    /**
+     * The map of bucket grids of every load capacity class.<p>
+     * The key is a load capacity.<p>
+     * The mapped value is the flattened bucket grid of the agents with that load capacity,
+     * where buckets are allocated lazily.
+     */
+    private TreeMap<Integer, List<List<Agent>>> classes = new TreeMap<>();
+
+    /**
+     * The number of agents in this index.
+     */
+    private int size;
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Configures this {@code AgentIndex} for a grid with the given dimensions
+     * and removes all its agents.
+     *
+     * @param rows the number of rows of the grid.
+     * @param cols the number of columns of the grid.
+     */
+    public void configure(int rows, int cols) {
+        clear();
+        bucketRows = (rows + BUCKET_SIZE - 1) / BUCKET_SIZE;
+        bucketCols = (cols + BUCKET_SIZE - 1) / BUCKET_SIZE;
+    }
+
+    /**
+     * Removes all the agents of this {@code AgentIndex}.
+     */
+    public void clear() {
+        classes.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the number of agents in this {@code AgentIndex}.
+     *
+     * @return the number of agents.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds the given {@code Agent} into this index at its current position.
+     *
+     * @param agent the {@code Agent} to add.
+     */
+    public void add(Agent agent) {
+        List<List<Agent>> buckets = classes.computeIfAbsent(agent.getLoadCapacity(),
+                k -> new ArrayList<>(Collections.nCopies(bucketRows * bucketCols, null)));
+
+        int idx = getBucket(agent.getRow(), agent.getCol());
+        List<Agent> bucket = buckets.get(idx);
+
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets.set(idx, bucket);
+        }
+
+        bucket.add(agent);
+        size++;
+    }
+
+    /**
+     * Removes the given {@code Agent} from this index.
+     *
+     * @param agent the {@code Agent} to remove.
+     */
+    public void remove(Agent agent) {
+        remove(agent, agent.getRow(), agent.getCol());
+    }
+
+    /**
+     * Updates the position of the given {@code Agent} in this index after moving.
+     *
+     * @param agent  the moved {@code Agent}.
+     * @param prvRow the previous row position of the {@code Agent}.
+     * @param prvCol the previous column position of the {@code Agent}.
+     */
+    public void move(Agent agent, int prvRow, int prvCol) {
+        if (getBucket(prvRow, prvCol) == getBucket(agent.getRow(), agent.getCol())) {
+            return;
+        }
+
+        if (remove(agent, prvRow, prvCol)) {
+            add(agent);
+        }
+    }
+
+    /**
+     * Finds the nearest {@code Agent} to the given {@code Facility} having at least the given load capacity.
+     * <p>
+     * Rings of buckets are expanded around the {@code Facility} until the nearest possible
+     * cell of the next ring is not nearer than the best found {@code Agent}.
+     *
+     * @param facility    the {@code Facility} to find the nearest {@code Agent} to.
+     * @param minCapacity the minimum needed load capacity.
+     * @param candidates  the set of agents to consider; agents of this index not in the set are skipped.
+     *
+     * @return the nearest reachable {@code Agent}; or {@code null} if no such agent.
+     */
+    public Agent findNearest(Facility facility, int minCapacity, Set<Agent> candidates) {
+        Collection<List<List<Agent>>> grids = classes.tailMap(minCapacity, true).values();
+
+        if (grids.isEmpty()) {
+            return null;
+        }
+
+        int br = facility.getRow() / BUCKET_SIZE;
+        int bc = facility.getCol() / BUCKET_SIZE;
+        int maxRing = Math.max(Math.max(br, bucketRows - 1 - br), Math.max(bc, bucketCols - 1 - bc));
+
+        Agent ret = null;
+        int distance = Integer.MAX_VALUE;
+
+        //
+        // Expand rings of buckets around the facility
+        //
+        for (int k = 0; k <= maxRing; ++k) {
+            // Stop if no cell in this ring can be nearer than the best found agent
+            if (ret != null && (k - 1) * BUCKET_SIZE + 1 >= distance) {
+                break;
+            }
+
+            for (int i = br - k; i <= br + k; ++i) {
+                if (i < 0 || i >= bucketRows) {
+                    continue;
+                }
+
+                // Inner rows of the ring have only two buckets
+                int step = (i == br - k || i == br + k) ? 1 : Math.max(1, 2 * k);
+
+                for (int j = bc - k; j <= bc + k; j += step) {
+                    if (j < 0 || j >= bucketCols) {
+                        continue;
+                    }
+
+                    for (List<List<Agent>> buckets : grids) {
+                        List<Agent> bucket = buckets.get(i * bucketCols + j);
+
+                        if (bucket == null) {
+                            continue;
+                        }
+
+                        for (Agent agent : bucket) {
+                            if (!candidates.contains(agent)) {
+                                continue;
+                            }
+
+                            int dis = facility.getDistanceTo(agent.getRow(), agent.getCol());
+
+                            if (distance > dis) {
+                                distance = dis;
+                                ret = agent;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // Return the selected agent if reachable
+        return (distance == Integer.MAX_VALUE) ? null : ret;
+    }
+
+    // ===============================================================================================
+    //
+    // Helper Methods
+    //
+
+    /**
+     * Removes the given {@code Agent} from the bucket of the given position.
+     *
+     * @param agent the {@code Agent} to remove.
+     * @param row   the row position of the {@code Agent} in this index.
+     * @param col   the column position of the {@code Agent} in this index.
+     *
+     * @return {@code true} if the {@code Agent} has been removed; {@code false} if it was not found.
+     */
+    private boolean remove(Agent agent, int row, int col) {
+        List<List<Agent>> buckets = classes.get(agent.getLoadCapacity());
+
+        if (buckets == null) {
+            return false;
+        }
+
+        List<Agent> bucket = buckets.get(getBucket(row, col));
+
+        if (bucket == null || !bucket.remove(agent)) {
+            return false;
+        }
+
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the index of the bucket of the given cell position.
+     *
+     * @param row the row position of the cell.
+     * @param col the column position of the cell.
+     *
+     * @return the flattened bucket index.
+     */
+    private int getBucket(int row, int col) {
+        return (row / BUCKET_SIZE) * bucketCols + (col / BUCKET_SIZE);
+    }
+}
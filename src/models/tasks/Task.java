@@ -5,8 +5,12 @@ import models.facilities.Facility;
 import models.items.Item;
 import models.facilities.Gate;
 import models.facilities.Rack;
+import models.maps.Position;
 import models.tasks.orders.Order;
+import models.tasks.orders.RefillOrder;
+import models.warehouses.Warehouse;
 
+import utils.Constants;
 import utils.Pair;
 
 import java.util.*;
@@ -36,6 +40,8 @@ public class Task extends AbstractTask {
         BIND,           // Go and bind with a facility
         UNBIND,         // Go and unbind with a facility
         SELECT_GATE,    // Select one of the associated gates as the current target
+        SWAP,           // Exchange the storage cells of the rack and the rack of the partner task
+        STAGE,          // Hold the rack near a gate until an order arrives for it
     }
 
     // ===============================================================================================
@@ -68,6 +74,39 @@ public class Task extends AbstractTask {
      */
     private HashMap<Gate, Queue<Order>> orders = new HashMap<>();
 
+    /**
+     * The urgency of the most urgent {@code Order} added before activating this {@code Task},
+     * measured in time steps.
+     */
+    private long urgency = Long.MAX_VALUE;
+
+    /**
+     * The flag indicating whether this {@code Task} is a low-priority rack relocation.
+     */
+    private boolean relocation = false;
+
+    /**
+     * The partner {@code Task} lifting the other {@code Rack} of a pending swap,
+     * or {@code null} if no swap is pending.
+     */
+    private Task partner;
+
+    /**
+     * The number of time steps this {@code Task} has waited for its partner to lift its {@code Rack}.
+     */
+    private int swapWaitTime = 0;
+
+    /**
+     * The flag indicating whether this {@code Task} pre-dispatches its {@code Rack}
+     * towards a {@code Gate} ahead of the forecast orders.
+     */
+    private boolean staging = false;
+
+    /**
+     * The number of time steps this {@code Task} has held its {@code Rack} waiting for an order.
+     */
+    private int stagingTime = 0;
+
     /**
      * The queue of actions to be done by the assigned {@code Agent} to complete this {@code Task}.
      */
@@ -113,6 +152,20 @@ public class Task extends AbstractTask {
         return rack;
     }
 
+    /**
+     * Returns the priority of this {@code Task} derived from the urgency of its orders.
+     * Smaller value indicates higher priority.
+     * <p>
+     * The priority is fixed once this {@code Task} is activated, so that the ordering
+     * of the active agents does not change while they are being moved.
+     *
+     * @return the priority of this {@code Task}.
+     */
+    @Override
+    public int getPriority() {
+        return (int) Math.min(urgency, Integer.MAX_VALUE - 1);
+    }
+
     /**
      * Returns the number of assigned orders to this {@code Task} that are still running.
      * That is, the number of added orders that has not been partially completed
@@ -124,6 +177,175 @@ public class Task extends AbstractTask {
         return runningOrdersCount;
     }
 
+    /**
+     * Returns the set of gates this {@code Task} still has to deliver its {@code Rack} to.
+     *
+     * @return the set of pending delivery gates.
+     */
+    public Set<Gate> getPendingGates() {
+        return orders.keySet();
+    }
+
+    /**
+     * Estimates the number of time steps to complete this {@code Task} starting from the given position.
+     * <p>
+     * The remaining actions are followed over the guide maps of their facilities, waiting in the queue
+     * of every targeted {@code Gate}, while the gates not targeted yet are visited nearest first.
+     * The {@code Task} is expected to end at the storage cell of its {@code Rack}.
+     *
+     * @param from the starting position; the current position of the {@code Agent} if this {@code Task} is active.
+     *
+     * @return the estimated number of time steps; or {@code Long.MAX_VALUE} if any facility is unreachable.
+     */
+    public long estimateRemainingSteps(Position from) {
+        Set<Gate> pending = new HashSet<>(orders.keySet());
+        Position pos = from;
+        long ret = 0;
+
+        for (Pair<TaskAction, Facility> action : actions) {
+            if (action.key == TaskAction.BIND || action.key == TaskAction.UNBIND) {
+                Facility facility = action.val;
+                int dis = facility.getDistanceTo(pos);
+
+                if (dis == Integer.MAX_VALUE) {
+                    return Long.MAX_VALUE;
+                }
+
+                ret += dis;
+                pos = facility.getPosition();
+
+                if (action.key == TaskAction.BIND && facility instanceof Gate && pending.remove(facility)) {
+                    ret += ((Gate) facility).getExpectedWait();
+                }
+            }
+
+            if (action.key == TaskAction.SELECT_GATE) {
+                // Visit the remaining gates nearest first
+                while (!pending.isEmpty()) {
+                    Gate next = null;
+                    int dis = Integer.MAX_VALUE;
+
+                    for (Gate g : pending) {
+                        if (next == null || g.getDistanceTo(pos) < dis) {
+                            next = g;
+                            dis = g.getDistanceTo(pos);
+                        }
+                    }
+
+                    if (dis == Integer.MAX_VALUE) {
+                        return Long.MAX_VALUE;
+                    }
+
+                    ret += dis + next.getExpectedWait();
+                    pos = next.getPosition();
+                    pending.remove(next);
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Returns the total weight to be added to the {@code Rack} of this {@code Task}
+     * by its refill orders not delivered yet.
+     *
+     * @return the pending added weight.
+     */
+    public int getAddedWeight() {
+        int ret = 0;
+
+        for (Queue<Order> queue : orders.values()) {
+            for (Order order : queue) {
+                if (order instanceof RefillOrder) {
+                    ret += ((RefillOrder) order).getAddedWeight();
+                }
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Checks whether this {@code Task} is a low-priority rack relocation or not.
+     *
+     * @return {@code true} if this {@code Task} is a relocation; {@code false} otherwise.
+     */
+    public boolean isRelocation() {
+        return relocation;
+    }
+
+    /**
+     * Pairs this {@code Task} with the given one to exchange the storage cells of their racks
+     * once both racks are lifted.
+     * <p>
+     * This function should be called once per pair before activating any of the two tasks.
+     *
+     * @param other the partner {@code Task}.
+     */
+    public void swapRackWith(Task other) {
+        for (Task task : List.of(this, other)) {
+            Pair<TaskAction, Facility> bind = task.actions.removeFirst();
+            task.actions.addFirst(new Pair<>(TaskAction.SWAP, null));
+            task.actions.addFirst(bind);
+            task.relocation = true;
+        }
+
+        partner = other;
+        other.partner = this;
+    }
+
+    /**
+     * Turns this {@code Task} into a pre-dispatching one, holding its {@code Rack} near the given
+     * {@code Gate} after lifting it until an {@code Order} arrives for it.
+     * <p>
+     * This function should be called before activating the {@code Task}.
+     *
+     * @param gate the likely {@code Gate} of the forecast orders.
+     */
+    public void stageNear(Gate gate) {
+        Pair<TaskAction, Facility> bind = actions.removeFirst();
+        actions.addFirst(new Pair<>(TaskAction.STAGE, gate));
+        actions.addFirst(bind);
+        staging = true;
+    }
+
+    /**
+     * Checks whether this {@code Task} is still pre-dispatching its {@code Rack} with no orders or not.
+     *
+     * @return {@code true} if this {@code Task} is staging; {@code false} otherwise.
+     */
+    public boolean isStaging() {
+        return staging && orders.isEmpty() && hasPendingAction(TaskAction.STAGE);
+    }
+
+    /**
+     * Checks whether this relocation or pre-dispatching {@code Task} can still be pre-empted or not.
+     * That is, when neither this {@code Task} nor its partner has lifted its {@code Rack} yet.
+     *
+     * @return {@code true} if this {@code Task} can be cancelled; {@code false} otherwise.
+     */
+    public boolean isPreemptible() {
+        return (relocation || staging) && !rack.isBound() && orders.isEmpty()
+                && (partner == null || !partner.rack.isBound());
+    }
+
+    /**
+     * Cancels this pre-emptible relocation or pre-dispatching {@code Task} before lifting its {@code Rack}
+     * and releases its allocated resources.
+     */
+    public void cancel() {
+        if (partner != null) {
+            partner.partner = null;
+            partner = null;
+        }
+
+        actions.clear();
+        rack.deallocate();
+        agent.onTaskCancel(this);
+        super.terminate();
+    }
+
     /**
      * Adds a new {@code Order} to be partially fulfilled by this {@code Task}.
      * <p>
@@ -135,6 +357,10 @@ public class Task extends AbstractTask {
      * @param order the new {@code Order} to add.
      */
     public void addOrder(Order order) {
+        if (isStaging()) {
+            Warehouse.getInstance().onStagedOrder(order);
+        }
+
         order.assignTask(this);
 
         Queue<Order> queue = orders.get(order.getDeliveryGate());
@@ -143,15 +369,24 @@ public class Task extends AbstractTask {
             queue = new LinkedList<>();
             queue.add(order);
             orders.put(order.getDeliveryGate(), queue);
+            order.getDeliveryGate().enqueue(this);
+            resequenceGates();
         } else {
             queue.add(order);
         }
 
         runningOrdersCount++;
 
-        // Check if currently the task is returning the rack back
-        if (actions.size() == 1) {
-            actions.addFirst(new Pair<>(TaskAction.SELECT_GATE, null));
+        // Raise the priority to the urgency of the new order until activation
+        if (status == TaskStatus.INACTIVE) {
+            urgency = Math.min(urgency, order.getUrgency());
+        }
+
+        // Select a gate again before returning the rack back if no selection is pending
+        if (!hasPendingAction(TaskAction.SELECT_GATE)) {
+            Pair<TaskAction, Facility> last = actions.removeLast();
+            actions.addLast(new Pair<>(TaskAction.SELECT_GATE, null));
+            actions.addLast(last);
         }
     }
 
@@ -178,6 +413,7 @@ public class Task extends AbstractTask {
         // TODO: add task statistics finalization
         rack.deallocate();
         agent.onTaskComplete(this);
+        Warehouse.getInstance().onRackReleased(rack);
         super.terminate();
     }
 
@@ -189,6 +425,16 @@ public class Task extends AbstractTask {
      * @return {@code true} if this {@code Task} manged to execute the action successfully; {@code false} otherwise.
      */
     public boolean executeAction() {
+        // Exchange the rack storage cells with the partner task, or keep waiting for it
+        if (actions.getFirst().key == TaskAction.SWAP && !executeSwap()) {
+            return false;
+        }
+
+        // Hold the lifted rack near the likely gate, until an order arrives for it
+        if (actions.getFirst().key == TaskAction.STAGE && executeStage()) {
+            return true;
+        }
+
         // Select a new target gate
         if (actions.getFirst().key == TaskAction.SELECT_GATE) {
             selectGate();
@@ -230,28 +476,63 @@ public class Task extends AbstractTask {
         if (gateOrders.isEmpty()) {
             actions.addFirst(new Pair<>(TaskAction.UNBIND, gate));
             orders.remove(gate);
+            gate.dequeue(this);
             gate = null;
         } else {
             actions.addFirst(new Pair<>(TaskAction.BIND, gate));
         }
     }
 
+    /**
+     * Cancels the current target {@code Gate} if it has not been reached yet,
+     * so that the remaining gate visits get re-sequenced including the newly added gate.
+     */
+    private void resequenceGates() {
+        if (gate == null || gate.getBoundAgent() == agent) {
+            return;
+        }
+
+        Pair<TaskAction, Facility> first = actions.getFirst();
+
+        if (first.key == TaskAction.BIND && first.val == gate) {
+            actions.removeFirst();
+            gate = null;
+        }
+    }
+
     /**
      * Selects the next target {@code Gate} to deliver its orders.
+     * <p>
+     * The selected {@code Gate} is the first of the cheapest sequence visiting all the pending gates
+     * and returning the {@code Rack} back to its storage cell, taking the expected wait in the queue
+     * of every {@code Gate} into account. Sequences of more than {@link Constants#TASK_MAX_SEQUENCED_GATES}
+     * gates fall back to the nearest {@code Gate}.
      */
     private void selectGate() {
         if (orders.isEmpty()) {
             actions.removeFirst();
+            Warehouse.getInstance().storeRack(rack, agent);
             return;
         }
 
-        int dis = Integer.MAX_VALUE;
+        List<Gate> gates = new ArrayList<>(orders.keySet());
+        boolean exhaustive = (gates.size() <= Constants.TASK_MAX_SEQUENCED_GATES);
+        boolean[] visited = new boolean[gates.size()];
 
-        for (Gate g : orders.keySet()) {
-            int d = g.getDistanceTo(agent);
+        long cost = Long.MAX_VALUE;
 
-            if (dis > d) {
-                dis = d;
+        for (int i = 0; i < gates.size(); ++i) {
+            Gate g = gates.get(i);
+            long c = (long) g.getDistanceTo(agent) + g.getExpectedWait();
+
+            if (exhaustive) {
+                visited[i] = true;
+                c += getSequenceCost(gates, visited, g, gates.size() - 1);
+                visited[i] = false;
+            }
+
+            if (cost > c) {
+                cost = c;
                 gate = g;
             }
         }
@@ -259,6 +540,107 @@ public class Task extends AbstractTask {
         actions.addFirst(new Pair<>(TaskAction.BIND, gate));
     }
 
+    /**
+     * Returns the cost of the cheapest sequence visiting the remaining unvisited gates
+     * starting from the given {@code Gate}, and returning the {@code Rack} back to its storage cell.
+     *
+     * @param gates     the list of pending gates.
+     * @param visited   the visited flag of every pending {@code Gate}.
+     * @param from      the last visited {@code Gate}.
+     * @param remaining the number of unvisited gates.
+     *
+     * @return the cost of the cheapest sequence.
+     */
+    private long getSequenceCost(List<Gate> gates, boolean[] visited, Gate from, int remaining) {
+        if (remaining == 0) {
+            return from.getDistanceTo(rack.getPosition());
+        }
+
+        long ret = Long.MAX_VALUE;
+
+        for (int i = 0; i < gates.size(); ++i) {
+            if (visited[i]) {
+                continue;
+            }
+
+            Gate g = gates.get(i);
+
+            visited[i] = true;
+            long c = (long) g.getDistanceTo(from.getPosition()) + g.getExpectedWait()
+                    + getSequenceCost(gates, visited, g, remaining - 1);
+            visited[i] = false;
+
+            ret = Math.min(ret, c);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Exchanges the storage cells of the lifted {@code Rack} of this {@code Task} and the {@code Rack}
+     * of its partner once the partner lifts it.
+     * <p>
+     * The swap is abandoned if this {@code Task} has been given a real {@code Order} to deliver,
+     * or if the partner does not lift its {@code Rack} in time.
+     *
+     * @return {@code true} if the swap action is done; {@code false} if still waiting for the partner.
+     */
+    private boolean executeSwap() {
+        if (partner != null) {
+            if (partner.rack.isBound()) {
+                Warehouse.getInstance().swapRacks(rack, partner.rack);
+            } else if (orders.isEmpty() && swapWaitTime++ < Constants.RELOCATION_MAX_WAIT) {
+                return false;
+            }
+
+            partner.partner = null;
+            partner = null;
+        }
+
+        actions.removeFirst();
+        return true;
+    }
+
+    /**
+     * Holds the lifted {@code Rack} of this {@code Task} within {@link Constants#FORECAST_STAGING_DISTANCE}
+     * cells of the likely {@code Gate}, until an {@code Order} is added, the waiting orders need the agents,
+     * or {@link Constants#FORECAST_STAGING_MAX_WAIT} time steps pass.
+     *
+     * @return {@code true} if still staging; {@code false} if the stage action is done.
+     */
+    private boolean executeStage() {
+        Gate likely = (Gate) actions.getFirst().val;
+
+        if (orders.isEmpty() && stagingTime++ < Constants.FORECAST_STAGING_MAX_WAIT
+                && !Warehouse.getInstance().isBusy()) {
+            if (likely.getDistanceTo(agent) > Constants.FORECAST_STAGING_DISTANCE) {
+                agent.reach(likely);
+            }
+
+            return true;
+        }
+
+        actions.removeFirst();
+        return false;
+    }
+
+    /**
+     * Checks whether the given action is still pending in this {@code Task} or not.
+     *
+     * @param action the {@code TaskAction} to check.
+     *
+     * @return {@code true} if the action is pending; {@code false} otherwise.
+     */
+    private boolean hasPendingAction(TaskAction action) {
+        for (var pair : actions) {
+            if (pair.key == action) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Reaches and binds with the given {@code Facility}.
      *
@@ -272,6 +654,10 @@ public class Task extends AbstractTask {
 
             if (!facility.isBound()) {
                 facility.bind(agent);
+
+                if (facility == rack) {
+                    Warehouse.getInstance().onRackLifted(rack);
+                }
             }
 
             if (facility instanceof Gate) {
@@ -11,6 +11,8 @@ import models.tasks.Task;
 import models.tasks.TaskAssignable;
 import models.warehouses.Warehouse;
 
+import utils.Constants;
+
 import java.util.*;
 
 
@@ -42,6 +44,11 @@ abstract public class Order extends AbstractTask implements QuantityAddable<Item
      */
     protected Gate deliveryGate;
 
+    /**
+     * The set of gates this {@code Order} can be delivered to, including its delivery {@code Gate}.
+     */
+    protected Set<Gate> allowedGates = new LinkedHashSet<>();
+
     /**
      * The number of pending units this {@code Order} is needing.
      */
@@ -81,6 +88,18 @@ abstract public class Order extends AbstractTask implements QuantityAddable<Item
      */
     protected long timeCompleted = -1;
 
+    /**
+     * The priority of this {@code Order}.
+     * Smaller value indicates higher priority.
+     */
+    protected int priority = Constants.ORDER_DEFAULT_PRIORITY;
+
+    /**
+     * The time step by which this {@code Order} is promised to be completed,
+     * or {@code -1} if this {@code Order} has no deadline.
+     */
+    protected long deadline = -1;
+
     /**
      * The listener object to this {@code Order} events.
      */
@@ -100,6 +119,7 @@ abstract public class Order extends AbstractTask implements QuantityAddable<Item
     public Order(int id, Gate gate) {
         super(id);
         this.deliveryGate = gate;
+        this.allowedGates.add(gate);
         this.timeReceived = Warehouse.getInstance().getTime();
     }
 
@@ -112,6 +132,155 @@ abstract public class Order extends AbstractTask implements QuantityAddable<Item
         return deliveryGate;
     }
 
+    /**
+     * Sets the {@code Gate} where this {@code Order} must be delivered
+     * out of its allowed gates.
+     * <p>
+     * This function should be called only before assigning any {@code Task} to this {@code Order}.
+     *
+     * @param gate the new delivery {@code Gate} to set.
+     */
+    public void setDeliveryGate(Gate gate) {
+        if (subTasks.isEmpty() && allowedGates.contains(gate)) {
+            deliveryGate = gate;
+        }
+    }
+
+    /**
+     * Returns the set of gates this {@code Order} can be delivered to, including its delivery {@code Gate}.
+     *
+     * @return the set of allowed gates.
+     */
+    public Set<Gate> getAllowedGates() {
+        return allowedGates;
+    }
+
+    /**
+     * Allows this {@code Order} to be delivered to the given alternative {@code Gate}.
+     * <p>
+     * This function should be called only during the construction of the {@code Order} object.
+     *
+     * @param gate the alternative {@code Gate} to allow.
+     */
+    public void addAllowedGate(Gate gate) {
+        allowedGates.add(gate);
+    }
+
+    /**
+     * Checks whether the delivery {@code Gate} of this {@code Order} can still be chosen
+     * among several allowed gates or not.
+     *
+     * @return {@code true} if the delivery {@code Gate} can be chosen; {@code false} otherwise.
+     */
+    public boolean isGateSelectable() {
+        return allowedGates.size() > 1 && subTasks.isEmpty();
+    }
+
+    /**
+     * Returns the priority of this {@code Order}.
+     * Smaller value indicates higher priority.
+     *
+     * @return the priority of this {@code Order}.
+     */
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of this {@code Order}.
+     * <p>
+     * This function should be called only during the construction of the {@code Order} object.
+     *
+     * @param priority the new non-negative priority to set.
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Returns the time step by which this {@code Order} is promised to be completed.
+     *
+     * @return the deadline of this {@code Order}; or {@code -1} if it has no deadline.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Sets the time step by which this {@code Order} is promised to be completed.
+     * <p>
+     * This function should be called only during the construction of the {@code Order} object.
+     *
+     * @param deadline the new deadline to set; or {@code -1} to remove the deadline.
+     */
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Checks whether this {@code Order} has a ship-by deadline or not.
+     *
+     * @return {@code true} if this {@code Order} has a deadline; {@code false} otherwise.
+     */
+    public boolean hasDeadline() {
+        return (deadline != -1);
+    }
+
+    /**
+     * Returns the aged priority of this {@code Order} measured in time steps.
+     * <p>
+     * Every priority level is worth {@link Constants#ORDER_AGING_INTERVAL} time steps of waiting,
+     * so an {@code Order} is raised by one level every such interval since its reception.
+     * Smaller value indicates higher priority.
+     *
+     * @return the aged priority of this {@code Order}.
+     */
+    public long getAgedPriority() {
+        return timeReceived + (long) priority * Constants.ORDER_AGING_INTERVAL;
+    }
+
+    /**
+     * Returns the urgency of this {@code Order} measured in time steps.
+     * <p>
+     * The urgency is the deadline of the {@code Order} if any; otherwise the {@code Order}
+     * is considered due {@link Constants#ORDER_AGING_INTERVAL} time steps after its aged priority.
+     * Smaller value indicates more urgent {@code Order}.
+     *
+     * @return the urgency of this {@code Order}.
+     */
+    public long getUrgency() {
+        return (hasDeadline() ? deadline : getAgedPriority() + Constants.ORDER_AGING_INTERVAL);
+    }
+
+    /**
+     * Returns the time when this {@code Order} has been received.
+     *
+     * @return the time step of receiving this {@code Order}.
+     */
+    public long getTimeReceived() {
+        return timeReceived;
+    }
+
+    /**
+     * Returns the time when this {@code Order} has been completed.
+     *
+     * @return the time step of completing this {@code Order}; or {@code -1} if not completed yet.
+     */
+    public long getTimeCompleted() {
+        return timeCompleted;
+    }
+
+    /**
+     * Returns the lateness of this completed {@code Order} with respect to its deadline.
+     * A negative lateness means that the {@code Order} was completed before its deadline.
+     *
+     * @return the number of time steps between the deadline and the completion of this {@code Order}.
+     */
+    public long getLateness() {
+        return timeCompleted - deadline;
+    }
+
     /**
      * Returns the number of pending units of this {@code Order} to be delivered
      * to the {@code Gate}. A negative number represents a refill order, where these units
@@ -201,7 +370,7 @@ abstract public class Order extends AbstractTask implements QuantityAddable<Item
      */
     @Override
     protected void terminate() {
-        // TODO: add order statistics finalization
+        Warehouse.getInstance().onOrderFulfilled(this);
         super.terminate();
     }
 
@@ -262,6 +431,7 @@ abstract public class Order extends AbstractTask implements QuantityAddable<Item
         // Finalize completed task
         acquireReservedItemsInRack(task);
         subTasks.remove(task);
+        Warehouse.getInstance().onInventoryChanged();
 
         // Check if no more pending units and all running tasks have been completed
         if (pendingUnits == 0 && subTasks.isEmpty()) {
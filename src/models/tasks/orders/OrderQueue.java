@@ -0,0 +1,324 @@
+package models.tasks.orders;
+
+import utils.Constants.*;
+
+import java.util.*;
+
+
+/**
+ * This {@code OrderQueue} class is an indexed priority queue of the pending orders
+ * ordered by the current {@link SchedulingMode}.
+ * <p>
+ * The orders are kept in a binary heap along with their scheduling keys, and the position of every
+ * {@code Order} in the heap is indexed so that it can be looked up and removed in logarithmic time.
+ * The orders of equal keys are polled in the order they were queued.
+ * <p>
+ * The scheduling keys of all the modes are fixed once an {@code Order} is queued,
+ * as aging raises the priority of all the waiting orders at the same rate.
+ */
+public class OrderQueue extends AbstractQueue<Order> {
+
+    //
+    // Member Variables
+    //
+
+    /**
+     * The scheduling mode of this queue.
+     */
+    private SchedulingMode mode = SchedulingMode.FIFO;
+
+    /**
+     * The binary heap of the queued orders.
+     */
+    private Order[] heap = new Order[16];
+
+    /**
+     * The scheduling key of every heap slot.
+     */
+    private long[] keys = new long[16];
+
+    /**
+     * The queuing sequence number of every heap slot, used to break the ties of the keys.
+     */
+    private long[] seqs = new long[16];
+
+    /**
+     * The map of the heap slot of every queued {@code Order}.
+     */
+    private Map<Order, Integer> index = new HashMap<>();
+
+    /**
+     * The number of queued orders.
+     */
+    private int size;
+
+    /**
+     * The sequence number of the next queued {@code Order}.
+     */
+    private long nextSeq;
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Returns the scheduling mode of this queue.
+     *
+     * @return the {@code SchedulingMode} of this queue.
+     */
+    public SchedulingMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Sets the scheduling mode of this queue and reorders the queued orders accordingly.
+     *
+     * @param mode the new {@code SchedulingMode} to set.
+     */
+    public void setMode(SchedulingMode mode) {
+        this.mode = mode;
+
+        for (int i = 0; i < size; ++i) {
+            keys[i] = getKey(heap[i], seqs[i]);
+        }
+
+        for (int i = size / 2 - 1; i >= 0; --i) {
+            siftDown(i);
+        }
+    }
+
+    /**
+     * Inserts the given {@code Order} into this queue if not already queued.
+     *
+     * @param order the {@code Order} to add.
+     *
+     * @return {@code true} if the {@code Order} was added; {@code false} if already queued.
+     */
+    @Override
+    public boolean offer(Order order) {
+        if (index.containsKey(order)) {
+            return false;
+        }
+
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+            seqs = Arrays.copyOf(seqs, size * 2);
+        }
+
+        long seq = nextSeq++;
+
+        heap[size] = order;
+        seqs[size] = seq;
+        keys[size] = getKey(order, seq);
+        index.put(order, size);
+        siftUp(size++);
+        return true;
+    }
+
+    /**
+     * Retrieves and removes the most urgent {@code Order} of this queue.
+     *
+     * @return the most urgent {@code Order}; or {@code null} if this queue is empty.
+     */
+    @Override
+    public Order poll() {
+        if (size == 0) {
+            return null;
+        }
+
+        Order ret = heap[0];
+        removeAt(0);
+        return ret;
+    }
+
+    /**
+     * Retrieves, but does not remove, the most urgent {@code Order} of this queue.
+     *
+     * @return the most urgent {@code Order}; or {@code null} if this queue is empty.
+     */
+    @Override
+    public Order peek() {
+        return (size == 0 ? null : heap[0]);
+    }
+
+    /**
+     * Checks whether the given {@code Order} is queued or not.
+     *
+     * @param obj the {@code Order} to check.
+     *
+     * @return {@code true} if the {@code Order} is queued; {@code false} otherwise.
+     */
+    @Override
+    public boolean contains(Object obj) {
+        return index.containsKey(obj);
+    }
+
+    /**
+     * Removes the given {@code Order} from this queue.
+     *
+     * @param obj the {@code Order} to remove.
+     *
+     * @return {@code true} if the {@code Order} was queued; {@code false} otherwise.
+     */
+    @Override
+    public boolean remove(Object obj) {
+        Integer i = index.get(obj);
+
+        if (i == null) {
+            return false;
+        }
+
+        removeAt(i);
+        return true;
+    }
+
+    /**
+     * Removes all the orders of this queue.
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        index.clear();
+        size = 0;
+        nextSeq = 0;
+    }
+
+    /**
+     * Returns the number of queued orders.
+     *
+     * @return the size of this queue.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns an {@code Iterator} over a snapshot of the queued orders in no particular order.
+     *
+     * @return an {@code Iterator}.
+     */
+    @Override
+    public Iterator<Order> iterator() {
+        return Arrays.asList(Arrays.copyOf(heap, size)).iterator();
+    }
+
+    // ===============================================================================================
+    //
+    // Helper Methods
+    //
+
+    /**
+     * Returns the scheduling key of the given {@code Order} under the current mode.
+     * Smaller key indicates more urgent {@code Order}.
+     *
+     * @param order the {@code Order}.
+     * @param seq   the queuing sequence number of the {@code Order}.
+     *
+     * @return the scheduling key.
+     */
+    private long getKey(Order order, long seq) {
+        switch (mode) {
+            case EDF:
+                return order.getUrgency();
+            case AGING:
+                return order.getAgedPriority();
+            default:
+                return seq;
+        }
+    }
+
+    /**
+     * Removes the {@code Order} at the given heap slot.
+     *
+     * @param i the heap slot to remove.
+     */
+    private void removeAt(int i) {
+        index.remove(heap[i]);
+
+        if (i != --size) {
+            move(size, i);
+            siftDown(i);
+            siftUp(i);
+        }
+
+        heap[size] = null;
+    }
+
+    /**
+     * Moves the given heap slot up until the heap property holds.
+     *
+     * @param i the heap slot to move.
+     */
+    private void siftUp(int i) {
+        while (i > 0) {
+            int p = (i - 1) / 2;
+
+            if (!less(i, p)) {
+                break;
+            }
+
+            swap(i, p);
+            i = p;
+        }
+    }
+
+    /**
+     * Moves the given heap slot down until the heap property holds.
+     *
+     * @param i the heap slot to move.
+     */
+    private void siftDown(int i) {
+        while (true) {
+            int c = 2 * i + 1;
+
+            if (c >= size) {
+                break;
+            }
+            if (c + 1 < size && less(c + 1, c)) {
+                c++;
+            }
+            if (!less(c, i)) {
+                break;
+            }
+
+            swap(i, c);
+            i = c;
+        }
+    }
+
+    /**
+     * Checks whether the {@code Order} of the first heap slot is more urgent than the second one.
+     */
+    private boolean less(int i, int j) {
+        return (keys[i] != keys[j] ? keys[i] < keys[j] : seqs[i] < seqs[j]);
+    }
+
+    /**
+     * Swaps the given heap slots.
+     */
+    private void swap(int i, int j) {
+        Order order = heap[i];
+        long key = keys[i];
+        long seq = seqs[i];
+
+        move(j, i);
+
+        heap[j] = order;
+        keys[j] = key;
+        seqs[j] = seq;
+        index.put(order, j);
+    }
+
+    /**
+     * Moves the content of the source heap slot into the destination heap slot.
+     */
+    private void move(int src, int dst) {
+        heap[dst] = heap[src];
+        keys[dst] = keys[src];
+        seqs[dst] = seqs[src];
+        index.put(heap[dst], dst);
+    }
+}
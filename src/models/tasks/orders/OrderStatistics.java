@@ -0,0 +1,213 @@
+package models.tasks.orders;
+
+
+/**
+ * This {@code OrderStatistics} class accumulates the deadline statistics of the fulfilled orders.
+ * <p>
+ * The lateness of every late {@code Order} is counted in a histogram of power-of-two buckets,
+ * where bucket {@code 0} holds the orders completed on time, and bucket {@code k > 0} holds the orders
+ * that are late by a number of time steps in the range {@code [2^(k-1), 2^k)}.
+ */
+public class OrderStatistics {
+
+    //
+    // Static Variables
+    //
+
+    /**
+     * The number of lateness histogram buckets.
+     */
+    public static final int BUCKETS_COUNT = 64;
+
+    // ===============================================================================================
+    //
+    // Member Variables
+    //
+
+    /**
+     * The number of fulfilled orders.
+     */
+    private long fulfilledCount;
+
+    /**
+     * The number of fulfilled orders having a deadline.
+     */
+    private long deadlinesCount;
+
+    /**
+     * The number of fulfilled orders completed by their deadline.
+     */
+    private long hitsCount;
+
+    /**
+     * The sum of the lateness of the fulfilled orders having a deadline.
+     */
+    private long totalLateness;
+
+    /**
+     * The maximum lateness of the fulfilled orders having a deadline.
+     */
+    private long maxLateness = Long.MIN_VALUE;
+
+    /**
+     * The lateness histogram of the fulfilled orders having a deadline.
+     */
+    private long[] histogram = new long[BUCKETS_COUNT];
+
+    // ===============================================================================================
+    //
+    // Member Methods
+    //
+
+    /**
+     * Records the given fulfilled {@code Order}.
+     *
+     * @param order the fulfilled {@code Order}.
+     */
+    public void record(Order order) {
+        fulfilledCount++;
+
+        if (!order.hasDeadline()) {
+            return;
+        }
+
+        long lateness = order.getLateness();
+
+        deadlinesCount++;
+        totalLateness += lateness;
+        maxLateness = Math.max(maxLateness, lateness);
+        histogram[getBucket(lateness)]++;
+
+        if (lateness <= 0) {
+            hitsCount++;
+        }
+    }
+
+    /**
+     * Removes all the recorded statistics.
+     */
+    public void clear() {
+        fulfilledCount = deadlinesCount = hitsCount = totalLateness = 0;
+        maxLateness = Long.MIN_VALUE;
+        histogram = new long[BUCKETS_COUNT];
+    }
+
+    /**
+     * Returns the number of fulfilled orders.
+     *
+     * @return the number of fulfilled orders.
+     */
+    public long getFulfilledCount() {
+        return fulfilledCount;
+    }
+
+    /**
+     * Returns the number of fulfilled orders having a deadline.
+     *
+     * @return the number of fulfilled orders having a deadline.
+     */
+    public long getDeadlinesCount() {
+        return deadlinesCount;
+    }
+
+    /**
+     * Returns the number of fulfilled orders completed by their deadline.
+     *
+     * @return the number of deadline hits.
+     */
+    public long getHitsCount() {
+        return hitsCount;
+    }
+
+    /**
+     * Returns the ratio of the fulfilled orders completed by their deadline
+     * to all the fulfilled orders having a deadline.
+     *
+     * @return the deadline hit rate; or {@code 1} if no such orders were fulfilled.
+     */
+    public double getHitRate() {
+        return (deadlinesCount == 0 ? 1 : 1. * hitsCount / deadlinesCount);
+    }
+
+    /**
+     * Returns the mean lateness of the fulfilled orders having a deadline.
+     * A negative mean means that the orders are completed before their deadlines on average.
+     *
+     * @return the mean lateness in time steps; or {@code 0} if no such orders were fulfilled.
+     */
+    public double getMeanLateness() {
+        return (deadlinesCount == 0 ? 0 : 1. * totalLateness / deadlinesCount);
+    }
+
+    /**
+     * Returns the maximum lateness of the fulfilled orders having a deadline.
+     *
+     * @return the maximum lateness in time steps; or {@code 0} if no such orders were fulfilled.
+     */
+    public long getMaxLateness() {
+        return (deadlinesCount == 0 ? 0 : maxLateness);
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of the lateness
+     * of the fulfilled orders having a deadline.
+     *
+     * @param p the percentile in the range {@code [0, 100]}.
+     *
+     * @return the inclusive upper bound of the lateness bucket holding the given percentile,
+     * where {@code 0} means on time.
+     */
+    public long getLatenessPercentile(double p) {
+        long rank = (long) Math.ceil(p / 100 * deadlinesCount);
+
+        for (int k = 0; k < BUCKETS_COUNT; ++k) {
+            rank -= histogram[k];
+
+            if (rank <= 0) {
+                return (1L << k) - 1;
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns a copy of the lateness histogram of the fulfilled orders having a deadline.
+     *
+     * @return the lateness histogram.
+     */
+    public long[] getLatenessHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * Returns the lateness histogram bucket of the given lateness.
+     *
+     * @param lateness the lateness in time steps.
+     *
+     * @return the histogram bucket.
+     */
+    private static int getBucket(long lateness) {
+        return (lateness <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(lateness));
+    }
+
+    /**
+     * Returns a string representation of these {@code OrderStatistics}.
+     * In general, the toString method returns a string that "textually represents" this object.
+     *
+     * @return a string representation of these {@code OrderStatistics}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        builder.append("Orders: ").append(fulfilledCount).append(" fulfilled, ");
+        builder.append(deadlinesCount).append(" with deadlines, ");
+        builder.append(String.format("%.2f%% hit rate", 100 * getHitRate())).append("\n");
+        builder.append(String.format("Lateness: mean %.2f, max %d, p50 <= %d, p95 <= %d, p99 <= %d",
+                getMeanLateness(), getMaxLateness(),
+                getLatenessPercentile(50), getLatenessPercentile(95), getLatenessPercentile(99)));
+
+        return builder.toString();
+    }
+}
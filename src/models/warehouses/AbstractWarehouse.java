@@ -7,11 +7,14 @@ import models.facilities.Gate;
 import models.facilities.Rack;
 import models.facilities.Station;
 import models.items.Item;
+import models.maps.AgentIndex;
 import models.maps.GridCell;
 import models.maps.Dimensions;
 import models.maps.Position;
 import models.tasks.Task;
 import models.tasks.orders.Order;
+import models.tasks.orders.OrderQueue;
+import models.tasks.orders.OrderStatistics;
 
 import utils.Constants.*;
 import utils.exceptions.DataException;
@@ -67,6 +70,11 @@ abstract public class AbstractWarehouse {
      */
     protected Set<Agent> readyAgents = new HashSet<>();
 
+    /**
+     * The spatial index of the currently idle agents, kept in sync with {@link #readyAgents}.
+     */
+    protected AgentIndex readyAgentIndex = new AgentIndex();
+
     /**
      * The set of currently blocked agents.
      */
@@ -98,9 +106,22 @@ abstract public class AbstractWarehouse {
     protected Map<Integer, Order> orders = new HashMap<>();
 
     /**
-     * The queue of pending and not fully dispatched orders.
+     * The queue of pending and not fully dispatched orders, ordered by their scheduling mode.
+     */
+    protected OrderQueue pendingOrders = new OrderQueue();
+
+    /**
+     * The map of the orders that failed to be fully dispatched, waiting for an event
+     * that may allow dispatching them.<p>
+     * The key is the reason of the last dispatching failure.<p>
+     * The mapped value is the queue of the waiting orders in their failure order.
      */
-    protected Queue<Order> pendingOrders = new LinkedList<>();
+    protected Map<WaitReason, Queue<Order>> waitingOrders = new EnumMap<>(WaitReason.class);
+
+    /**
+     * The deadline statistics of the fulfilled orders.
+     */
+    protected OrderStatistics orderStatistics = new OrderStatistics();
 
     // ===============================================================================================
     //
@@ -120,6 +141,7 @@ abstract public class AbstractWarehouse {
         this.rows = rows;
         this.cols = cols;
         this.grid = GridCell.allocate2D(rows, cols);
+        this.readyAgentIndex.configure(rows, cols);
     }
 
     /**
@@ -132,6 +154,7 @@ abstract public class AbstractWarehouse {
         agents.clear();
         activeAgents.clear();
         readyAgents.clear();
+        readyAgentIndex.clear();
         blockedAgents.clear();
         racks.clear();
         gates.clear();
@@ -139,6 +162,9 @@ abstract public class AbstractWarehouse {
         items.clear();
         orders.clear();
         pendingOrders.clear();
+        pendingOrders.setMode(SchedulingMode.FIFO);
+        waitingOrders.clear();
+        orderStatistics.clear();
     }
 
     /**
@@ -183,11 +209,101 @@ abstract public class AbstractWarehouse {
      * @param agent the blocked {@code Agent}.
      */
     public void onAgentBlocked(Agent agent) {
-        readyAgents.remove(agent);
+        removeReadyAgent(agent);
         activeAgents.remove(agent);
         blockedAgents.add(agent);
     }
 
+    /**
+     * A callback function to be invoked when an {@code Agent} moves into a new cell.
+     *
+     * @param agent  the moved {@code Agent}.
+     * @param prvRow the previous row position of the {@code Agent}.
+     * @param prvCol the previous column position of the {@code Agent}.
+     */
+    public void onAgentMoved(Agent agent, int prvRow, int prvCol) {
+        if (readyAgents.contains(agent)) {
+            readyAgentIndex.move(agent, prvRow, prvCol);
+        }
+    }
+
+    /**
+     * A callback function to be invoked when a {@code Rack} is released after completing its {@code Task}.
+     *
+     * @param rack the released {@code Rack}.
+     */
+    public void onRackReleased(Rack rack) {
+        wakeWaitingOrders(WaitReason.NO_IDLE_AGENT);
+        wakeWaitingOrders(WaitReason.NO_CAPABLE_AGENT);
+    }
+
+    /**
+     * A callback function to be invoked when the items of the racks have been changed.
+     */
+    public void onInventoryChanged() {
+        wakeWaitingOrders(WaitReason.NO_RACK);
+    }
+
+    /**
+     * A callback function to be invoked when an {@code Order} has been fulfilled.
+     *
+     * @param order the fulfilled {@code Order}.
+     */
+    public void onOrderFulfilled(Order order) {
+        orderStatistics.record(order);
+    }
+
+    /**
+     * Adds the given {@code Agent} to the set of idle agents and their spatial index.
+     *
+     * @param agent the idle {@code Agent} to add.
+     */
+    protected void addReadyAgent(Agent agent) {
+        if (readyAgents.add(agent)) {
+            readyAgentIndex.add(agent);
+            wakeWaitingOrders(WaitReason.NO_IDLE_AGENT);
+            wakeWaitingOrders(WaitReason.NO_CAPABLE_AGENT);
+        }
+    }
+
+    /**
+     * Removes the given {@code Agent} from the set of idle agents and their spatial index.
+     *
+     * @param agent the {@code Agent} to remove.
+     */
+    protected void removeReadyAgent(Agent agent) {
+        if (readyAgents.remove(agent)) {
+            readyAgentIndex.remove(agent);
+        }
+    }
+
+    /**
+     * Parks the given {@code Order} that failed to be fully dispatched until
+     * an event matching the given failure reason occurs.
+     *
+     * @param order  the waiting {@code Order}.
+     * @param reason the reason of the dispatching failure.
+     */
+    protected void parkOrder(Order order, WaitReason reason) {
+        waitingOrders.computeIfAbsent(reason, k -> new LinkedList<>()).add(order);
+    }
+
+    /**
+     * Moves the orders waiting for the given reason back to the queue of pending orders.
+     *
+     * @param reason the reason of the dispatching failure.
+     */
+    protected void wakeWaitingOrders(WaitReason reason) {
+        Queue<Order> queue = waitingOrders.get(reason);
+
+        if (queue == null || queue.isEmpty()) {
+            return;
+        }
+
+        pendingOrders.addAll(queue);
+        queue.clear();
+    }
+
     // ===============================================================================================
     //
     // Getters & Setters
@@ -307,7 +423,7 @@ abstract public class AbstractWarehouse {
         agent.setPosition(row, col);
         grid[row][col].setAgent(agent);
         agents.put(agent.getId(), agent);
-        readyAgents.add(agent);
+        addReadyAgent(agent);
     }
 
     /**
@@ -321,6 +437,15 @@ abstract public class AbstractWarehouse {
         return racks.get(id);
     }
 
+    /**
+     * Returns the list of all {@code Rack} objects in this {@code Warehouse}.
+     *
+     * @return a collection of all racks.
+     */
+    public Collection<Rack> getRackList() {
+        return racks.values();
+    }
+
     /**
      * Adds a new {@code Rack} object to the {@code Warehouse}.
      *
@@ -345,6 +470,15 @@ abstract public class AbstractWarehouse {
         return gates.get(id);
     }
 
+    /**
+     * Returns the list of all {@code Gate} objects in this {@code Warehouse}.
+     *
+     * @return a collection of all gates.
+     */
+    public Collection<Gate> getGateList() {
+        return gates.values();
+    }
+
     /**
      * Adds a new {@code Gate} object to the {@code Warehouse}.
      *
@@ -403,6 +537,15 @@ abstract public class AbstractWarehouse {
         return items.get(id);
     }
 
+    /**
+     * Returns the list of all {@code Item} types in this {@code Warehouse}.
+     *
+     * @return a collection of all items.
+     */
+    public Collection<Item> getItemList() {
+        return items.values();
+    }
+
     /**
      * Adds a new {@code Item} type to the {@code Warehouse}.
      *
@@ -423,6 +566,54 @@ abstract public class AbstractWarehouse {
         return orders.get(id);
     }
 
+    /**
+     * Returns the number of pending orders to be dispatched in the next time step.
+     *
+     * @return the number of pending orders.
+     */
+    public int getPendingOrdersCount() {
+        return pendingOrders.size();
+    }
+
+    /**
+     * Returns the number of orders waiting for an event matching the given dispatching failure reason.
+     *
+     * @param reason the reason of the dispatching failure.
+     *
+     * @return the number of waiting orders.
+     */
+    public int getWaitingOrdersCount(WaitReason reason) {
+        Queue<Order> queue = waitingOrders.get(reason);
+        return (queue == null ? 0 : queue.size());
+    }
+
+    /**
+     * Returns the scheduling mode of the pending orders of this {@code Warehouse}.
+     *
+     * @return the {@code SchedulingMode} of this {@code Warehouse}.
+     */
+    public SchedulingMode getSchedulingMode() {
+        return pendingOrders.getMode();
+    }
+
+    /**
+     * Sets the scheduling mode of the pending orders of this {@code Warehouse}.
+     *
+     * @param mode the new {@code SchedulingMode} to set.
+     */
+    public void setSchedulingMode(SchedulingMode mode) {
+        pendingOrders.setMode(mode);
+    }
+
+    /**
+     * Returns the deadline statistics of the fulfilled orders of this {@code Warehouse}.
+     *
+     * @return the {@code OrderStatistics} of this {@code Warehouse}.
+     */
+    public OrderStatistics getOrderStatistics() {
+        return orderStatistics;
+    }
+
     /**
      * Adds a new {@code Order} to the {@code Warehouse} to be delivered.
      *
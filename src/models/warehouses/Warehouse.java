@@ -1,19 +1,33 @@
 package models.warehouses;
 
+import algorithms.dispatcher.ChargingScheduler;
+import algorithms.dispatcher.DemandForecaster;
+import algorithms.dispatcher.DispatchConfig;
+import algorithms.dispatcher.DispatchStrategy;
 import algorithms.dispatcher.Dispatcher;
+import algorithms.dispatcher.RackRepositioner;
+import algorithms.dispatcher.SequentialDispatchStrategy;
+import algorithms.planner.ReservationTable;
 
 import models.agents.Agent;
 import models.facilities.Gate;
 import models.facilities.Rack;
 import models.facilities.Station;
+import models.items.Item;
+import models.maps.AgentIndex;
+import models.maps.GridCell;
+import models.maps.Position;
 import models.tasks.orders.Order;
+import models.tasks.orders.RefillOrder;
 import models.tasks.Task;
 
 import utils.Constants;
 import utils.Constants.*;
+import utils.Pair;
 import utils.exceptions.DataException;
 
 import java.util.*;
+import java.util.stream.IntStream;
 
 
 /**
@@ -41,6 +55,11 @@ public class Warehouse extends AbstractWarehouse {
         return sWarehouse;
     }
 
+    /**
+     * The minimum number of rows in a strip when labeling the regions in parallel.
+     */
+    private static final int REGION_MIN_STRIP_ROWS = 64;
+
     // ===============================================================================================
     //
     // Member Variables
@@ -52,15 +71,114 @@ public class Warehouse extends AbstractWarehouse {
     private int[][] region;
 
     /**
-     * The maximum load capacity in a region.
+     * The maximum load capacity in a region, indexed by the region id.
+     */
+    private int[] regionMaxLoadCap;
+
+    /**
+     * The number of gates in a region, indexed by the region id.
+     */
+    private int[] regionGatesCount;
+
+    /**
+     * The path planning mode of the agents.
+     */
+    private PlannerMode plannerMode = PlannerMode.GRID;
+
+    /**
+     * The table of cells reserved by the timed plans of the agents.
+     */
+    private ReservationTable reservations = new ReservationTable();
+
+    /**
+     * The order dispatching strategy.
+     */
+    private DispatchStrategy dispatchStrategy = new SequentialDispatchStrategy();
+
+    /**
+     * The mode of assigning agents to the selected racks.
+     */
+    private AssignmentMode assignmentMode = AssignmentMode.NEAREST;
+
+    /**
+     * The number of time steps to hold a refill order to consolidate it with the other refills of its rack.
+     */
+    private int refillWindow = Constants.DEFAULT_REFILL_WINDOW;
+
+    /**
+     * The flag indicating whether some refill orders are held for consolidation in the current time step.
+     */
+    private boolean refillsHeld = false;
+
+    /**
+     * The time budget in nanoseconds of improving the rack selections of every time step,
+     * or zero to disable the improvement.
+     */
+    private long improvementBudget = Constants.DEFAULT_IMPROVEMENT_BUDGET;
+
+    /**
+     * The {@link System#nanoTime()} value at which the improvement of the rack selections
+     * of the current time step stops.
+     */
+    private long improvementDeadline;
+
+    /**
+     * The flag indicating whether the idle agents pre-position the high-demand racks towards the gates.
+     */
+    private boolean repositioning = false;
+
+    /**
+     * The planner of the rack pre-positioning swaps.
+     */
+    private RackRepositioner repositioner = new RackRepositioner();
+
+    /**
+     * The mode of storing the racks after their tasks complete.
+     */
+    private StorageMode storageMode = StorageMode.STATIC;
+
+    /**
+     * The list of the storage cells vacated by the lifted racks and not claimed yet
+     * in dynamic storage mode.
+     */
+    private List<Position> freeStorage = new ArrayList<>();
+
+    /**
+     * The map of the guide map of every storage cell, computed once at initialization
+     * and handed over to the racks moving into the cells in dynamic storage mode.
+     */
+    private Map<GridCell, int[][]> storageGuideMaps = new HashMap<>();
+
+    /**
+     * The flag indicating whether the agents are sent to charge at the stations.
+     */
+    private boolean charging = false;
+
+    /**
+     * The flag indicating whether the batteries of the agents are simulated,
+     * rather than reported by the hardware.
+     */
+    private boolean batterySimulated = false;
+
+    /**
+     * The maximum share of the fleet allowed to charge at the same time, but never less than a single agent.
+     */
+    private double chargingShare = Constants.DEFAULT_CHARGING_SHARE;
+
+    /**
+     * The planner of the charging visits of the agents.
      */
-    private Map<Integer, Integer> regionMaxLoadCap = new HashMap<>();
+    private ChargingScheduler charger = new ChargingScheduler();
 
     /**
-     * The number of gates in a region.
+     * The flag indicating whether the idle agents pre-dispatch the racks of the forecast orders.
      */
-    private Map<Integer, Integer> regionGatesCount = new HashMap<>();
+    private boolean forecasting = false;
 
+    /**
+     * The forecaster of the demand of the items.
+     */
+    private DemandForecaster forecaster = new DemandForecaster();
 
     // ===============================================================================================
     //
@@ -82,8 +200,266 @@ public class Warehouse extends AbstractWarehouse {
         super.clear();
 
         region = null;
-        regionMaxLoadCap.clear();
-        regionGatesCount.clear();
+        regionMaxLoadCap = null;
+        regionGatesCount = null;
+
+        plannerMode = PlannerMode.GRID;
+        reservations.clear();
+
+        dispatchStrategy = new SequentialDispatchStrategy();
+        assignmentMode = AssignmentMode.NEAREST;
+        improvementBudget = Constants.DEFAULT_IMPROVEMENT_BUDGET;
+        refillWindow = Constants.DEFAULT_REFILL_WINDOW;
+        refillsHeld = false;
+        improvementDeadline = 0;
+        repositioning = false;
+        repositioner.clear();
+        storageMode = StorageMode.STATIC;
+        freeStorage.clear();
+        storageGuideMaps.clear();
+        charging = batterySimulated = false;
+        chargingShare = Constants.DEFAULT_CHARGING_SHARE;
+        forecasting = false;
+        forecaster.clear();
+        charger.clear();
+    }
+
+    /**
+     * Returns the order dispatching strategy of this {@code Warehouse}.
+     *
+     * @return the {@code DispatchStrategy} of this {@code Warehouse}.
+     */
+    public DispatchStrategy getDispatchStrategy() {
+        return dispatchStrategy;
+    }
+
+    /**
+     * Sets the order dispatching strategy of this {@code Warehouse}.
+     *
+     * @param strategy the new {@code DispatchStrategy} to set.
+     */
+    public void setDispatchStrategy(DispatchStrategy strategy) {
+        dispatchStrategy = strategy;
+    }
+
+    /**
+     * Sets the order dispatching strategy of this {@code Warehouse} to the built-in one of the given mode.
+     *
+     * @param mode   the new {@code DispatchMode} to set.
+     * @param window the number of time steps between two consecutive waves in batch dispatching mode.
+     */
+    public void setDispatchMode(DispatchMode mode, int window) {
+        dispatchStrategy = DispatchStrategy.of(mode, new DispatchConfig(window, Constants.DEFAULT_ZONE_SIZE));
+    }
+
+    /**
+     * Returns the path planning mode of the agents in this {@code Warehouse}.
+     *
+     * @return the {@code PlannerMode} of this {@code Warehouse}.
+     */
+    public PlannerMode getPlannerMode() {
+        return plannerMode;
+    }
+
+    /**
+     * Sets the path planning mode of the agents in this {@code Warehouse}.
+     *
+     * @param mode the new {@code PlannerMode} to set.
+     */
+    public void setPlannerMode(PlannerMode mode) {
+        plannerMode = mode;
+        reservations.clear();
+    }
+
+    /**
+     * Returns the mode of assigning agents to the selected racks in this {@code Warehouse}.
+     *
+     * @return the {@code AssignmentMode} of this {@code Warehouse}.
+     */
+    public AssignmentMode getAssignmentMode() {
+        return assignmentMode;
+    }
+
+    /**
+     * Sets the mode of assigning agents to the selected racks in this {@code Warehouse}.
+     *
+     * @param mode the new {@code AssignmentMode} to set.
+     */
+    public void setAssignmentMode(AssignmentMode mode) {
+        assignmentMode = mode;
+    }
+
+    /**
+     * Sets the number of time steps to hold a refill order before dispatching it,
+     * so that the refills of the same rack received meanwhile are carried out in a single trip.
+     *
+     * @param window the consolidation window in time steps; or zero to dispatch the refills immediately.
+     */
+    public void setRefillWindow(int window) {
+        refillWindow = window;
+    }
+
+    /**
+     * Sets the time budget of improving the rack selections of every time step.
+     *
+     * @param budget the time budget in nanoseconds; or zero to disable the improvement.
+     */
+    public void setImprovementBudget(long budget) {
+        improvementBudget = budget;
+    }
+
+    /**
+     * Returns the {@link System#nanoTime()} value at which the improvement of the rack selections
+     * of the current time step stops.
+     *
+     * @return the improvement deadline; or zero if the improvement is disabled.
+     */
+    public long getImprovementDeadline() {
+        return improvementDeadline;
+    }
+
+    /**
+     * Checks whether the idle agents pre-position the high-demand racks towards the gates or not.
+     *
+     * @return {@code true} if the rack repositioning is enabled; {@code false} otherwise.
+     */
+    public boolean isRepositioning() {
+        return repositioning;
+    }
+
+    /**
+     * Enables or disables the pre-positioning of the high-demand racks by the idle agents.
+     *
+     * @param enabled {@code true} to enable the rack repositioning; {@code false} to disable it.
+     */
+    public void setRepositioning(boolean enabled) {
+        repositioning = enabled;
+    }
+
+    /**
+     * Returns the mode of storing the racks after their tasks complete in this {@code Warehouse}.
+     *
+     * @return the {@code StorageMode} of this {@code Warehouse}.
+     */
+    public StorageMode getStorageMode() {
+        return storageMode;
+    }
+
+    /**
+     * Sets the mode of storing the racks after their tasks complete in this {@code Warehouse}.
+     * <p>
+     * This function should be called before initializing the {@code Warehouse}.
+     * Note that the rack repositioning is disabled in dynamic storage mode,
+     * as the racks already drift towards the gates on every return.
+     *
+     * @param mode the new {@code StorageMode} to set.
+     */
+    public void setStorageMode(StorageMode mode) {
+        storageMode = mode;
+    }
+
+    /**
+     * Enables or disables the charging of the agents at the stations.
+     *
+     * @param enabled   {@code true} to enable the charging; {@code false} to disable it.
+     * @param share     the maximum share of the fleet allowed to charge at the same time.
+     * @param simulated {@code true} to drain and charge the batteries in simulation;
+     *                  {@code false} if the battery levels are reported by the hardware.
+     */
+    public void setCharging(boolean enabled, double share, boolean simulated) {
+        charging = enabled;
+        chargingShare = share;
+        batterySimulated = enabled && simulated;
+    }
+
+    /**
+     * Checks whether the batteries of the agents are simulated or not.
+     *
+     * @return {@code true} if the batteries are simulated; {@code false} otherwise.
+     */
+    public boolean isBatterySimulated() {
+        return batterySimulated;
+    }
+
+    /**
+     * Enables or disables the pre-dispatching of the racks of the forecast orders by the idle agents.
+     *
+     * @param enabled {@code true} to enable the pre-dispatching; {@code false} to disable it.
+     */
+    public void setForecasting(boolean enabled) {
+        forecasting = enabled;
+    }
+
+    /**
+     * Returns the demand forecaster of this {@code Warehouse}.
+     *
+     * @return the {@code DemandForecaster} of this {@code Warehouse}.
+     */
+    public DemandForecaster getForecaster() {
+        return forecaster;
+    }
+
+    /**
+     * Checks whether the given {@code Agent} is heading to or docked at a charging {@code Station} or not.
+     *
+     * @param agent the {@code Agent} to check.
+     *
+     * @return {@code true} if the {@code Agent} is charging; {@code false} otherwise.
+     */
+    public boolean isCharging(Agent agent) {
+        return charger.isCharging(agent);
+    }
+
+    /**
+     * Checks whether the battery of the given {@code Agent} can afford serving the given {@code Rack}
+     * after finishing its given backlog and then reaching a charging {@code Station}.
+     * <p>
+     * Every {@code Agent} can serve any {@code Rack} if the charging is disabled.
+     *
+     * @param agent   the {@code Agent}.
+     * @param rack    the {@code Rack} to serve.
+     * @param backlog the estimated number of steps of the queued tasks of the {@code Agent}.
+     *
+     * @return {@code true} if the {@code Agent} has enough energy; {@code false} otherwise.
+     */
+    public boolean hasEnergyFor(Agent agent, Rack rack, long backlog) {
+        return !charging || ChargingScheduler.hasEnergyFor(agent, rack, backlog, gates.values(), stations.values());
+    }
+
+    /**
+     * Returns the table of cells reserved by the timed plans of the agents.
+     *
+     * @return the {@code ReservationTable} of this {@code Warehouse}.
+     */
+    public ReservationTable getReservationTable() {
+        return reservations;
+    }
+
+    /**
+     * Returns the spatial index of the currently idle agents.
+     *
+     * @return the {@code AgentIndex} of the ready agents.
+     */
+    public AgentIndex getReadyAgentIndex() {
+        return readyAgentIndex;
+    }
+
+    /**
+     * Returns the set of the currently idle agents.
+     *
+     * @return the set of ready agents.
+     */
+    public Set<Agent> getReadyAgents() {
+        return readyAgents;
+    }
+
+    /**
+     * Returns the set of the currently active agents that are not blocked.
+     *
+     * @return the set of active agents.
+     */
+    public Set<Agent> getActiveAgents() {
+        return activeAgents;
     }
 
     /**
@@ -101,6 +477,7 @@ public class Warehouse extends AbstractWarehouse {
         //
         for (Rack rack : racks.values()) {
             rack.computeGuideMap();
+            storageGuideMaps.put(get(rack.getPosition()), rack.getGuideMap());
         }
         for (Gate gate : gates.values()) {
             gate.computeGuideMap();
@@ -108,6 +485,13 @@ public class Warehouse extends AbstractWarehouse {
         for (Station station : stations.values()) {
             station.computeGuideMap();
         }
+
+        //
+        // Initialize the item-to-rack index sorted by the distances to the gates
+        //
+        for (Item item : items.values()) {
+            item.indexRacks(gates.values());
+        }
     }
 
     /**
@@ -119,6 +503,29 @@ public class Warehouse extends AbstractWarehouse {
     public void addOrder(Order order) {
         super.addOrder(order);
         order.activate();
+        repositioner.recordDemand(order);
+        forecaster.recordDemand(order, time);
+    }
+
+    /**
+     * A callback function to be invoked when an {@code Order} has been fulfilled.
+     *
+     * @param order the fulfilled {@code Order}.
+     */
+    @Override
+    public void onOrderFulfilled(Order order) {
+        super.onOrderFulfilled(order);
+        forecaster.recordFulfilled(order);
+    }
+
+    /**
+     * A callback function to be invoked when an {@code Order} has been attached to
+     * a pre-dispatched {@code Rack} still waiting for an order.
+     *
+     * @param order the staged {@code Order}.
+     */
+    public void onStagedOrder(Order order) {
+        forecaster.recordStaged(order);
     }
 
     /**
@@ -140,11 +547,159 @@ public class Warehouse extends AbstractWarehouse {
         Agent agent = task.getAgent();
 
         if (readyAgents.contains(agent)) {
-            readyAgents.remove(agent);
+            removeReadyAgent(agent);
             activeAgents.add(agent);
         }
     }
 
+    /**
+     * Exchanges the storage cells of the two given lifted racks.
+     * <p>
+     * The racks are re-indexed by their new distances to the gates, and their carrying agents
+     * re-plan their way to the new storage cells.
+     * <p>
+     * This function should only be called from a relocation {@link Task}.
+     *
+     * @param rack1 the first lifted {@code Rack}.
+     * @param rack2 the second lifted {@code Rack}.
+     */
+    public void swapRacks(Rack rack1, Rack rack2) {
+        for (Rack rack : List.of(rack1, rack2)) {
+            for (var pair : rack) {
+                pair.getKey().unindexRack(rack);
+            }
+        }
+
+        rack1.swapPosition(rack2);
+        get(rack1.getPosition()).setFacility(CellType.RACK, rack1);
+        get(rack2.getPosition()).setFacility(CellType.RACK, rack2);
+
+        for (Rack rack : List.of(rack1, rack2)) {
+            for (var pair : rack) {
+                pair.getKey().reindexRack(rack);
+            }
+
+            rack.getBoundAgent().onTargetMoved(rack);
+        }
+    }
+
+    /**
+     * A callback function to be invoked when the given {@code Rack} has been lifted by an {@code Agent}.
+     * <p>
+     * In dynamic storage mode, the storage cell of the {@code Rack} becomes free to be claimed
+     * by any returning {@code Rack}.
+     *
+     * @param rack the lifted {@code Rack}.
+     */
+    public void onRackLifted(Rack rack) {
+        if (storageMode == StorageMode.DYNAMIC) {
+            freeStorage.add(rack.getPosition());
+        }
+    }
+
+    /**
+     * Moves the given lifted {@code Rack} to the best free storage cell before returning it
+     * in dynamic storage mode.
+     * <p>
+     * The cost of a free cell is the travel of the carrying {@code Agent} to it, plus the round-trip distance
+     * of the cell to the nearest {@code Gate} weighted by how much the demand of the {@code Rack}
+     * exceeds the average demand of all racks. So the high-demand racks claim the cells near the gates,
+     * while the low-demand racks leave them free.
+     * <p>
+     * This function should only be called from a {@link Task} about to return its {@code Rack},
+     * and is called again if new orders ride along with the {@code Rack} after claiming its cell.
+     *
+     * @param rack  the lifted {@code Rack}.
+     * @param agent the {@code Agent} carrying the {@code Rack}.
+     */
+    public void storeRack(Rack rack, Agent agent) {
+        if (storageMode != StorageMode.DYNAMIC) {
+            return;
+        }
+
+        // Reconsider the cell claimed by a previous call if the rack has been sent to the gates again
+        GridCell cell = get(rack.getPosition());
+        Position claimed = null;
+        List<Position> candidates = freeStorage;
+
+        if (cell.getFacility() == rack && !freeStorage.contains(rack.getPosition())) {
+            claimed = rack.getPosition();
+            candidates = new ArrayList<>(freeStorage);
+            candidates.add(claimed);
+        }
+
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // Get the demand of the rack relative to the average demand
+        double total = 0;
+        for (Rack r : racks.values()) {
+            total += repositioner.getScore(r);
+        }
+
+        double heat = (total > 0 ? repositioner.getScore(rack) * racks.size() / total : 1);
+
+        //
+        // Select the free storage cell of the least cost
+        //
+        Position best = null;
+        double bestCost = Double.MAX_VALUE;
+
+        for (Position pos : candidates) {
+            int travel = storageGuideMaps.get(get(pos))[agent.getRow()][agent.getCol()];
+
+            if (travel == Integer.MAX_VALUE) {
+                continue;
+            }
+
+            int dis = Integer.MAX_VALUE;
+            for (Gate gate : gates.values()) {
+                dis = Math.min(dis, gate.getDistanceTo(pos));
+            }
+
+            double cost = travel + (dis == Integer.MAX_VALUE ? 0 : 2 * Constants.STORAGE_DEMAND_WEIGHT * (heat - 1) * dis);
+
+            if (bestCost > cost) {
+                bestCost = cost;
+                best = pos;
+            }
+        }
+
+        // Keep the claimed cell if no other free cell is better
+        if (best == null || best == claimed) {
+            return;
+        }
+
+        freeStorage.remove(best);
+
+        // Give back the cell claimed by the previous call
+        if (claimed != null) {
+            freeStorage.add(claimed);
+        }
+
+        // Vacate the previous storage cell if no other rack has claimed it
+        if (cell.getFacility() == rack) {
+            cell.setFacility(CellType.EMPTY, null);
+        }
+
+        //
+        // Move the rack into the claimed cell
+        //
+        for (var pair : rack) {
+            pair.getKey().unindexRack(rack);
+        }
+
+        rack.setStorage(best, storageGuideMaps.get(get(best)));
+        get(best).setFacility(CellType.RACK, rack);
+
+        for (var pair : rack) {
+            pair.getKey().reindexRack(rack);
+        }
+
+        agent.onTargetMoved(rack);
+    }
+
     /**
      * Performs and simulates a single time step in this {@code Warehouse}.
      *
@@ -153,8 +708,40 @@ public class Warehouse extends AbstractWarehouse {
     @Override
     public boolean run() {
         time++;
+        boolean ret = advanceChargingAgents();
         dispatchPendingOrders();
-        return recoverBlockedAgents() | advanceActiveAgents();
+        repositionRacks();
+        predispatchRacks();
+        scheduleCharging();
+        return ret | refillsHeld | recoverBlockedAgents() | advanceActiveAgents();
+    }
+
+    /**
+     * A callback function to be invoked when an {@code Agent} moves into a new cell.
+     *
+     * @param agent  the moved {@code Agent}.
+     * @param prvRow the previous row position of the {@code Agent}.
+     * @param prvCol the previous column position of the {@code Agent}.
+     */
+    @Override
+    public void onAgentMoved(Agent agent, int prvRow, int prvCol) {
+        super.onAgentMoved(agent, prvRow, prvCol);
+
+        if (batterySimulated) {
+            agent.consumeStep();
+        }
+    }
+
+    /**
+     * Adds the given {@code Agent} to the set of idle agents, releasing its parking reservation
+     * so that the planned paths of the other agents can pass through it.
+     *
+     * @param agent the idle {@code Agent} to add.
+     */
+    @Override
+    protected void addReadyAgent(Agent agent) {
+        reservations.release(agent);
+        super.addReadyAgent(agent);
     }
 
     /**
@@ -162,27 +749,232 @@ public class Warehouse extends AbstractWarehouse {
      */
     @Override
     protected void dispatchPendingOrders() {
+        refillsHeld = false;
+
         // Skip if no pending orders
         if (pendingOrders.isEmpty() || agents.isEmpty()) {
             return;
         }
 
-        // Get the initial size of the queue
-        int size = pendingOrders.size();
+        // Release the agents of the relocations that have not lifted their racks yet
+        preemptRelocations();
 
-        //
-        // Iterate over every pending order and tries to dispatch it
-        //
-        for (int i = 0; i < size; ++i) {
-            // Get the current order
-            Order order = pendingOrders.remove();
+        // Share the improvement budget among all the rack selections of this time step
+        improvementDeadline = (improvementBudget > 0 ? System.nanoTime() + improvementBudget : 0);
+
+        // Accumulate the pending orders until the strategy is due
+        if (!dispatchStrategy.isDue(time)) {
+            return;
+        }
+
+        List<Order> orders = new ArrayList<>(pendingOrders.size());
+        while (!pendingOrders.isEmpty()) {
+            orders.add(pendingOrders.remove());
+        }
 
-            // Try dispatching the current order
-            Dispatcher.dispatch(order, readyAgents);
+        // Hold the fresh refill orders back until their consolidation window ends
+        List<Order> held = holdRefillOrders(orders);
 
-            // Re-add the order to the end of the queue if still pending
+        dispatchStrategy.dispatch(orders, readyAgents);
+
+        // Park the orders that are still pending until a matching event occurs in their scheduling order
+        for (Order order : orders) {
             if (order.isPending()) {
-                pendingOrders.add(order);
+                parkOrder(order, Dispatcher.getWaitReason(order, readyAgents));
+            }
+        }
+
+        pendingOrders.addAll(held);
+        refillsHeld = !held.isEmpty();
+    }
+
+    /**
+     * Removes the refill orders to hold back from the given pending orders.
+     * <p>
+     * The refill orders of a {@code Rack} are held together until the oldest of them has waited
+     * for the consolidation window, so that they are all dispatched into a single trip of the {@code Rack}.
+     * The refill orders of a {@code Rack} already on a trip are never held, as they can join the trip right away.
+     *
+     * @param orders the pending orders to dispatch.
+     *
+     * @return the list of held refill orders.
+     */
+    private List<Order> holdRefillOrders(List<Order> orders) {
+        List<Order> ret = new ArrayList<>();
+
+        if (refillWindow <= 0) {
+            return ret;
+        }
+
+        // Collect the racks whose refills are due
+        Set<Rack> due = new HashSet<>();
+
+        for (Order order : orders) {
+            if (order instanceof RefillOrder) {
+                Rack rack = ((RefillOrder) order).getRefillRack();
+
+                if (rack.isAllocated() || time - order.getTimeReceived() >= refillWindow) {
+                    due.add(rack);
+                }
+            }
+        }
+
+        // Hold the refills of the other racks
+        for (Iterator<Order> it = orders.iterator(); it.hasNext(); ) {
+            Order order = it.next();
+
+            if (order instanceof RefillOrder && !due.contains(((RefillOrder) order).getRefillRack())) {
+                ret.add(order);
+                it.remove();
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Dispatches a pair of relocation tasks swapping a high-demand {@code Rack} towards the gates
+     * if this {@code Warehouse} is idle.
+     */
+    private void repositionRacks() {
+        // Reposition only while no orders are waiting for agents
+        if (!repositioning || storageMode == StorageMode.DYNAMIC
+                || time % Constants.REPOSITION_INTERVAL != 0 || readyAgents.size() < 2
+                || !pendingOrders.isEmpty()
+                || getWaitingOrdersCount(WaitReason.NO_IDLE_AGENT) > 0
+                || getWaitingOrdersCount(WaitReason.NO_CAPABLE_AGENT) > 0) {
+            return;
+        }
+
+        Pair<Rack, Rack> swap = repositioner.selectSwap(racks.values(), gates.values());
+
+        if (swap != null) {
+            repositioner.addRelocations(Dispatcher.dispatchSwap(swap.key, swap.val, readyAgents));
+        }
+    }
+
+    /**
+     * Dispatches a task lifting a {@code Rack} of the hottest forecast {@code Item} towards its likely
+     * {@code Gate} if this {@code Warehouse} is idle.
+     */
+    private void predispatchRacks() {
+        forecaster.update(time);
+
+        // Pre-dispatch only while no orders are waiting for agents
+        if (!forecasting || time % Constants.FORECAST_PREDISPATCH_INTERVAL != 0
+                || readyAgents.isEmpty() || isBusy()
+                || forecaster.getStagings().size() >= Constants.FORECAST_MAX_STAGED_RACKS) {
+            return;
+        }
+
+        for (Item item : forecaster.getHotItems(Constants.FORECAST_MIN_UNITS)) {
+            Gate gate = forecaster.getLikelyGate(item);
+            NavigableSet<Rack> sortedRacks = item.getSortedRacks(gate);
+
+            if (sortedRacks == null) {
+                continue;
+            }
+
+            // Skip the items already on the move with another task
+            if (sortedRacks.stream().anyMatch(Rack::isAllocated)) {
+                continue;
+            }
+
+            for (Rack rack : sortedRacks) {
+                if (rack.isBound() || rack.getDistanceTo(gate.getPosition()) == Integer.MAX_VALUE) {
+                    continue;
+                }
+
+                Task task = Dispatcher.dispatchStaging(rack, gate, readyAgents);
+
+                if (task != null) {
+                    forecaster.addStaging(task);
+                    return;
+                }
+
+                break;
+            }
+        }
+    }
+
+    /**
+     * Sends the idle agents needing to charge to the stations, keeping at most the configured share
+     * of the fleet charging at the same time.
+     */
+    private void scheduleCharging() {
+        if (!charging || stations.isEmpty() || readyAgents.isEmpty()) {
+            return;
+        }
+
+        // Let at least a single agent charge in small fleets
+        int limit = Math.max(1, (int) (chargingShare * agents.size()));
+
+        for (Agent agent : charger.schedule(readyAgents, stations.values(), limit, !isBusy())) {
+            removeReadyAgent(agent);
+        }
+    }
+
+    /**
+     * Advances the agents heading to or docked at the stations, and returns the agents
+     * done charging to the idle agents.
+     *
+     * @return {@code true} if any agent is charging; {@code false} otherwise.
+     */
+    private boolean advanceChargingAgents() {
+        if (charger.getChargingCount() == 0) {
+            return false;
+        }
+
+        for (Agent agent : charger.advance(isBusy(), batterySimulated)) {
+            if (!agent.isBlocked()) {
+                addReadyAgent(agent);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether any orders are waiting for agents or not.
+     *
+     * @return {@code true} if orders are waiting for agents; {@code false} otherwise.
+     */
+    public boolean isBusy() {
+        return !pendingOrders.isEmpty()
+                || getWaitingOrdersCount(WaitReason.NO_IDLE_AGENT) > 0
+                || getWaitingOrdersCount(WaitReason.NO_CAPABLE_AGENT) > 0;
+    }
+
+    /**
+     * Cancels the relocation and pre-dispatching tasks that have not lifted their racks yet,
+     * so that their agents become ready for the pending orders.
+     */
+    private void preemptRelocations() {
+        List<Task> tasks = repositioner.getPreemptibleRelocations();
+
+        for (Task task : forecaster.getStagings()) {
+            if (task.isPreemptible()) {
+                tasks.add(task);
+            }
+        }
+
+        for (Task task : tasks) {
+            Agent agent = task.getAgent();
+
+            // Skip blocked agents until they recover
+            if (agent.isBlocked()) {
+                continue;
+            }
+
+            boolean active = activeAgents.remove(agent);
+            task.cancel();
+
+            if (agent.isActive()) {
+                if (active) {
+                    activeAgents.add(agent);
+                }
+            } else {
+                addReadyAgent(agent);
             }
         }
     }
@@ -220,8 +1012,8 @@ public class Warehouse extends AbstractWarehouse {
                 blockedAgents.add(agent);
             } else if (agent.isActive()) {
                 activeAgents.add(agent);
-            } else {
-                readyAgents.add(agent);
+            } else if (!charger.isCharging(agent)) {
+                addReadyAgent(agent);
             }
         }
 
@@ -264,7 +1056,7 @@ public class Warehouse extends AbstractWarehouse {
             if (agent.isActive()) {
                 q.add(agent);
             } else {
-                readyAgents.add(agent);
+                addReadyAgent(agent);
             }
         }
 
@@ -282,42 +1074,92 @@ public class Warehouse extends AbstractWarehouse {
 
     /**
      * Analyzes the different regions of the {@code Warehouse}.
+     * <p>
+     * The grid is split into strips of rows that are labeled in parallel using a union-find
+     * structure, then the labels are merged across the strip boundaries.
+     * The number of gates and the maximum agent load capacity of every region
+     * are accumulated while assigning the final region ids.
      */
     private void analyzeRegions() throws DataException {
-        int regionId = 0;
         region = new int[rows][cols];
 
-        // Analyze
-        for (int i = 0; i < rows; ++i) {
+        //
+        // Label each strip of rows independently
+        //
+        int[] parent = new int[rows * cols];
+        int strips = Math.max(1, Math.min(rows / REGION_MIN_STRIP_ROWS, Runtime.getRuntime().availableProcessors()));
+        int stripRows = (rows + strips - 1) / strips;
+
+        IntStream.range(0, strips).parallel().forEach(s -> {
+            labelStrip(parent, s * stripRows, Math.min(rows, (s + 1) * stripRows));
+        });
+
+        //
+        // Merge the labels across the strip boundaries
+        //
+        for (int i = stripRows; i < rows; i += stripRows) {
             for (int j = 0; j < cols; ++j) {
-                if (region[i][j] == 0) {
-                    regionId++;
-                    regionMaxLoadCap.put(regionId, floodRegion(i, j, regionId));
+                if (!grid[i - 1][j].isObstacle() && !grid[i][j].isObstacle()) {
+                    union(parent, (i - 1) * cols + j, i * cols + j);
                 }
             }
         }
 
-        // Validate
-        for (int i = 0; i < rows; ++i) {
-            for (int j = 0; j < cols; ++j) {
-                if (grid[i][j].getType() != CellType.RACK) {
+        //
+        // Assign the final region ids and compute the region properties
+        //
+        int regionsCount = 0;
+        int[] label = new int[rows * cols];
+        int[] gatesCnt = new int[rows * cols + 1];
+        int[] loadCap = new int[rows * cols + 1];
+
+        for (int i = 0, idx = 0; i < rows; ++i) {
+            for (int j = 0; j < cols; ++j, ++idx) {
+                GridCell cell = grid[i][j];
+
+                if (cell.isObstacle()) {
                     continue;
                 }
 
-                Rack rack = (Rack) grid[i][j].getFacility();
+                int root = find(parent, idx);
 
-                if (regionGatesCount.getOrDefault(region[i][j], 0) <= 0) {
-                    throw new DataException("No gate is reachable to rack-" + rack.getId() + ".",
-                            Constants.ERR_RACK_NO_GATE_REACHABLE, rack.getId());
+                if (label[root] == 0) {
+                    label[root] = ++regionsCount;
+                    loadCap[regionsCount] = -1;
                 }
 
-                int maxWeight = rack.getContainerWeight() + rack.getCapacity();
-                int maxLoadCap = regionMaxLoadCap.getOrDefault(region[i][j], -1);
+                int id = region[i][j] = label[root];
 
-                if (maxWeight > maxLoadCap) {
-                    throw new DataException("No agent can load rack-" + rack.getId() + " in its full capacity.",
-                            Constants.ERR_RACK_NO_AGENT_REACHABLE, rack.getId(), maxLoadCap);
+                if (cell.getType() == CellType.GATE) {
+                    gatesCnt[id]++;
                 }
+
+                if (cell.hasAgent()) {
+                    loadCap[id] = Math.max(loadCap[id], cell.getAgent().getLoadCapacity());
+                }
+            }
+        }
+
+        regionGatesCount = Arrays.copyOf(gatesCnt, regionsCount + 1);
+        regionMaxLoadCap = Arrays.copyOf(loadCap, regionsCount + 1);
+
+        //
+        // Validate
+        //
+        for (Rack rack : racks.values()) {
+            int id = region[rack.getRow()][rack.getCol()];
+
+            if (regionGatesCount[id] <= 0) {
+                throw new DataException("No gate is reachable to rack-" + rack.getId() + ".",
+                        Constants.ERR_RACK_NO_GATE_REACHABLE, rack.getId());
+            }
+
+            int maxWeight = rack.getContainerWeight() + rack.getCapacity();
+            int maxLoadCap = regionMaxLoadCap[id];
+
+            if (maxWeight > maxLoadCap) {
+                throw new DataException("No agent can load rack-" + rack.getId() + " in its full capacity.",
+                        Constants.ERR_RACK_NO_AGENT_REACHABLE, rack.getId(), maxLoadCap);
             }
         }
     }
@@ -335,43 +1177,79 @@ public class Warehouse extends AbstractWarehouse {
     }
 
     /**
-     * Scans the region starting at the given location, and
-     * updates the internal variables in accordance.
+     * Returns the id of the connected region of the given cell.
      *
-     * @param row      the row position of the cell.
-     * @param col      the column position of the cell.
-     * @param regionId the current region id to assign.
+     * @param row the row position of the cell.
+     * @param col the column position of the cell.
      *
-     * @return the maximum load capacity in the scanned region.
+     * @return the region id; or {@code 0} if the cell is an obstacle.
      */
-    private int floodRegion(int row, int col, int regionId) {
-        if (region[row][col] != 0) {
-            return -1;
-        }
+    public int getRegion(int row, int col) {
+        return region[row][col];
+    }
 
-        CellType type = grid[row][col].getType();
+    /**
+     * Labels the connected non-obstacle cells of the given strip of rows.
+     * <p>
+     * Only the parent entries of the cells inside the strip are touched,
+     * so different strips can be labeled concurrently.
+     *
+     * @param parent   the union-find parent array indexed by cell.
+     * @param startRow the first row of the strip (inclusive).
+     * @param endRow   the last row of the strip (exclusive).
+     */
+    private void labelStrip(int[] parent, int startRow, int endRow) {
+        for (int i = startRow; i < endRow; ++i) {
+            for (int j = 0; j < cols; ++j) {
+                int idx = i * cols + j;
+                parent[idx] = idx;
 
-        if (type == CellType.OBSTACLE) {
-            return -1;
-        }
+                if (grid[i][j].isObstacle()) {
+                    continue;
+                }
 
-        region[row][col] = regionId;
+                if (j > 0 && !grid[i][j - 1].isObstacle()) {
+                    union(parent, idx - 1, idx);
+                }
 
-        if (type == CellType.GATE) {
-            regionGatesCount.put(regionId, regionGatesCount.getOrDefault(regionId, 0) + 1);
+                if (i > startRow && !grid[i - 1][j].isObstacle()) {
+                    union(parent, idx - cols, idx);
+                }
+            }
         }
+    }
 
-        int ret = (grid[row][col].hasAgent() ? grid[row][col].getAgent().getLoadCapacity() : -1);
-
-        for (int d : Constants.DIRECTIONS) {
-            int r = row + Constants.DIR_ROW[d];
-            int c = col + Constants.DIR_COL[d];
-
-            if (isInBound(r, c)) {
-                ret = Math.max(ret, floodRegion(r, c, regionId));
-            }
+    /**
+     * Finds the root label of the given cell, halving the path along the way.
+     *
+     * @param parent the union-find parent array indexed by cell.
+     * @param idx    the index of the cell.
+     *
+     * @return the root label of the cell.
+     */
+    private static int find(int[] parent, int idx) {
+        while (parent[idx] != idx) {
+            parent[idx] = parent[parent[idx]];
+            idx = parent[idx];
         }
+        return idx;
+    }
 
-        return ret;
+    /**
+     * Merges the labels of the given two cells, keeping the smaller root.
+     *
+     * @param parent the union-find parent array indexed by cell.
+     * @param a      the index of the first cell.
+     * @param b      the index of the second cell.
+     */
+    private static void union(int[] parent, int a, int b) {
+        a = find(parent, a);
+        b = find(parent, b);
+
+        if (a < b) {
+            parent[b] = a;
+        } else if (b < a) {
+            parent[a] = b;
+        }
     }
 }
@@ -45,6 +45,167 @@ public class Constants {
         PAUSE
     }
 
+    /**
+     * Different supported path planning modes of the agents.
+     * <p>
+     * {@code GRID} plans single time step actions using A* on the grid, while
+     * {@code SIPP} plans timed actions with durations using safe interval path planning.
+     */
+    public enum PlannerMode {
+        GRID,
+        SIPP
+    }
+
+    /**
+     * Different supported order dispatching modes.
+     * <p>
+     * {@code SEQUENTIAL} dispatches the pending orders one at a time in their scheduling order,
+     * {@code BATCH} dispatches them jointly in waves so that a single rack trip can serve several orders, and
+     * {@code PARALLEL} evaluates the rack selections of all the pending orders in parallel before
+     * committing them one at a time in their scheduling order, and
+     * {@code ZONE} partitions the floor into zones dispatching their local orders in parallel,
+     * leaving the cross-zone orders to a global coordinator.
+     */
+    public enum DispatchMode {
+        SEQUENTIAL,
+        BATCH,
+        PARALLEL,
+        ZONE
+    }
+
+    /**
+     * Different supported modes of assigning agents to the selected racks.
+     * <p>
+     * {@code NEAREST} greedily selects the nearest capable agent to every rack,
+     * {@code HUNGARIAN} jointly assigns the agents to all the selected racks of an order
+     * minimizing the total travelled distance, and
+     * {@code AUCTION} auctions the selected racks one at a time to both idle and active agents,
+     * which bid their marginal cost of serving the rack after finishing their queued tasks, and
+     * {@code LOOKAHEAD} selects the agent reaching every rack the earliest, either the nearest idle agent,
+     * or an active agent about to finish its task near the rack, which queues the rack as its next task.
+     */
+    public enum AssignmentMode {
+        NEAREST,
+        HUNGARIAN,
+        AUCTION,
+        LOOKAHEAD
+    }
+
+    /**
+     * Different reasons for an {@code Order} failing to be fully dispatched.
+     * <p>
+     * {@code NO_IDLE_AGENT} means that there are no idle agents at all,
+     * {@code NO_CAPABLE_AGENT} means that no idle agent can reach or carry the needed racks, and
+     * {@code NO_RACK} means that no rack currently holds the needed available items.
+     */
+    public enum WaitReason {
+        NO_IDLE_AGENT,
+        NO_CAPABLE_AGENT,
+        NO_RACK
+    }
+
+    /**
+     * Different supported modes of scheduling the pending orders for dispatching.
+     * <p>
+     * {@code FIFO} dispatches the pending orders in the order they were queued,
+     * {@code EDF} dispatches the order with the earliest ship-by deadline first, falling back to
+     * the aged priority of the orders with no deadline, and
+     * {@code AGING} dispatches the order with the highest priority first, where the priority of
+     * a waiting order is raised by one level every {@link #ORDER_AGING_INTERVAL} time steps.
+     */
+    public enum SchedulingMode {
+        FIFO,
+        EDF,
+        AGING
+    }
+
+    /**
+     * Different supported modes of storing the racks after their tasks complete.
+     * <p>
+     * {@code STATIC} returns every rack back to its original storage cell, and
+     * {@code DYNAMIC} returns every rack to the best free storage cell by the expected demand
+     * of its items and the distance, so that the high-demand racks drift towards the gates.
+     */
+    public enum StorageMode {
+        STATIC,
+        DYNAMIC
+    }
+
+    // Default number of time steps to accumulate the pending orders of a batch dispatching wave
+    public static final int DEFAULT_BATCH_WINDOW = 1;
+
+    // Default side length in cells of the square zones of the zone dispatching (0 to align the zones with the regions)
+    public static final int DEFAULT_ZONE_SIZE = 32;
+
+    // Default number of time steps to hold a refill order to consolidate it with the other refills of its rack (disabled)
+    public static final int DEFAULT_REFILL_WINDOW = 0;
+
+    // Default time budget in nanoseconds of improving the rack selections of every time step (disabled)
+    public static final long DEFAULT_IMPROVEMENT_BUDGET = 0;
+
+    // Maximum number of tasks an agent can have queued when bidding in the auction assignment mode
+    public static final int AUCTION_MAX_AGENT_TASKS = 2;
+
+    // Maximum number of tasks an active agent can have to queue another one in the look-ahead assignment mode
+    public static final int LOOKAHEAD_MAX_AGENT_TASKS = 1;
+
+    // Default priority of an order, where smaller values indicate higher priorities
+    public static final int ORDER_DEFAULT_PRIORITY = 0;
+
+    // Number of time steps a waiting order needs to be raised by a single priority level
+    public static final int ORDER_AGING_INTERVAL = 100;
+
+    // Number of time steps between two consecutive rack repositioning attempts while idle
+    public static final int REPOSITION_INTERVAL = 10;
+
+    // Number of time steps for the recorded item demand to decay by half
+    public static final double REPOSITION_DEMAND_HALF_LIFE = 500;
+
+    // Number of the hottest and the nearest racks paired when selecting a rack swap
+    public static final int REPOSITION_CANDIDATES = 8;
+
+    // Maximum number of time steps a relocation task waits for its partner to lift its rack
+    public static final int RELOCATION_MAX_WAIT = 50;
+
+    // Initial number of time steps a delivery is expected to occupy a gate
+    public static final double GATE_DEFAULT_SERVICE_TIME = 2;
+
+    // Smoothing factor of the measured gate service times
+    public static final double GATE_SERVICE_TIME_SMOOTHING = 0.2;
+
+    // Weight of the gate distance of a free storage cell relative to the travel to it in dynamic storage mode
+    public static final double STORAGE_DEMAND_WEIGHT = 1;
+
+    // Default maximum share of the fleet allowed to charge at the same time
+    public static final double DEFAULT_CHARGING_SHARE = 0.25;
+
+    // Safety factor of the estimated energy of a task when checking whether an agent can serve it
+    public static final double CHARGING_ENERGY_MARGIN = 1.25;
+
+    // Number of time steps of every interval of the demand forecasting
+    public static final int FORECAST_INTERVAL = 50;
+
+    // Exponential smoothing factor of the forecast demand rates over the intervals
+    public static final double FORECAST_SMOOTHING = 0.3;
+
+    // Minimum forecast units of an item over an interval to pre-dispatch a rack holding it
+    public static final double FORECAST_MIN_UNITS = 1.0;
+
+    // Maximum number of racks pre-dispatched towards the gates at the same time
+    public static final int FORECAST_MAX_STAGED_RACKS = 2;
+
+    // Distance from the likely gate within which a pre-dispatched rack is held
+    public static final int FORECAST_STAGING_DISTANCE = 3;
+
+    // Maximum number of time steps a pre-dispatched rack is held waiting for an order
+    public static final int FORECAST_STAGING_MAX_WAIT = 100;
+
+    // Number of time steps between two consecutive pre-dispatching attempts while idle
+    public static final int FORECAST_PREDISPATCH_INTERVAL = 10;
+
+    // Maximum number of pending gates of a task whose visiting sequence is searched exhaustively
+    public static final int TASK_MAX_SEQUENCED_GATES = 6;
+
     //
     // Map Grid
     //
@@ -137,8 +298,18 @@ public class Constants {
     public static final int AGENT_DEFAULT_LOAD_CAPACITY = 500;
     public static final int AGENT_DEFAULT_BATTERY_LEVEL = 7;
     public static final int AGENT_BATTERY_THRESHOLD = 2;
+    public static final int AGENT_MAX_BATTERY_LEVEL = 10;
+
+    // Agent battery model, in moved cells per battery level and charging time steps per battery level
+    public static final int AGENT_BATTERY_STEPS_PER_LEVEL = 200;
+    public static final int AGENT_CHARGE_STEPS_PER_LEVEL = 10;
     public static final int AGENT_DEFAULT_DIRECTION = DIR_RIGHT;
 
+    // Agent default action durations in time steps
+    public static final int AGENT_DEFAULT_MOVE_DURATION = 1;
+    public static final int AGENT_DEFAULT_ROTATE_DURATION = 1;
+    public static final int AGENT_DEFAULT_LOAD_DURATION = 1;
+
     //
     // Facility Constants
     //
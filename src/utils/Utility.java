@@ -8,6 +8,7 @@ import utils.Constants.*;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Map;
 
@@ -38,6 +39,18 @@ public class Utility {
         return builder.toString();
     }
 
+    /**
+     * Writes the given content into the given file, replacing its previous content.
+     *
+     * @param path    the path of the file to write.
+     * @param content the content to write.
+     */
+    public static void writeFile(String path, String content) throws IOException {
+        try (FileWriter writer = new FileWriter(path)) {
+            writer.write(content);
+        }
+    }
+
     /**
      * Converts the given item-quantity map into a visual representative string.
      *
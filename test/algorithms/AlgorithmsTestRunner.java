@@ -1,5 +1,7 @@
 package algorithms;
 
+import algorithms.dispatcher.AgentAssignerTest;
+import algorithms.dispatcher.RackSetCoverTest;
 import algorithms.dispatcher.DispatcherTest;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -7,10 +9,12 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 import algorithms.planner.PlannerTest;
+import algorithms.slotting.SlottingOptimizerTest;
 
 
 @RunWith(Suite.class)
-@Suite.SuiteClasses({PlannerTest.class, DispatcherTest.class})
+@Suite.SuiteClasses({PlannerTest.class, DispatcherTest.class, AgentAssignerTest.class,
+        RackSetCoverTest.class, SlottingOptimizerTest.class})
 public class AlgorithmsTestRunner {
     @BeforeClass
     public static void before() {
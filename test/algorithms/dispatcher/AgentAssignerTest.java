@@ -1,10 +1,11 @@
 package algorithms.dispatcher;
 
 import algorithms.dispatcher.task_allocator_helpers.AgentAssigner;
-import models.HiveObject;
+import algorithms.dispatcher.task_allocator_helpers.HungarianSolver;
 import models.agents.Agent;
+import models.facilities.Gate;
 import models.facilities.Rack;
-import models.maps.Position;
+import models.warehouses.Warehouse;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -27,7 +28,7 @@ public class AgentAssignerTest {
     @Test
     public void agentAssignerTest() throws Exception {
         /*
-         * R: rack, R*: selected rack, A: candidate agent
+         * R: rack, R*: selected rack, A: candidate agent, a: weak candidate agent
          * ---------------------
          * | G| .| .|R*| R| .| A|
          * |--------------------|
@@ -35,34 +36,122 @@ public class AgentAssignerTest {
          * |--------------------|
          * | A| .| .| R| R| .| .|
          * |--------------------|
-         * | .| .| .| .| .| .|R*|
+         * | .| .| .| .| .| a|R*|
          * ----------------------
          */
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(4, 7);
+        warehouse.addGate(new Gate(1), 0, 0);
+
         List<Rack> selectedRackList = new ArrayList<>();
 
-        Rack r1 = new Rack();
-        Rack r2 = new Rack();
-        r1.setPosition(0, 3);
-        r2.setPosition(3, 6);
+        Rack r1 = new Rack(1, 100, 50);
+        Rack r2 = new Rack(2, 100, 50);
+        warehouse.addRack(r1, 0, 3);
+        warehouse.addRack(r2, 3, 6);
+        warehouse.addRack(new Rack(3, 100, 50), 0, 4);
+        warehouse.addRack(new Rack(4, 100, 50), 1, 3);
+        warehouse.addRack(new Rack(5, 100, 50), 1, 4);
+        warehouse.addRack(new Rack(6, 100, 50), 2, 3);
+        warehouse.addRack(new Rack(7, 100, 50), 2, 4);
         selectedRackList.add(r1);
         selectedRackList.add(r2);
 
         Set<Agent> candidateAgents = new HashSet<>();
-        Agent a1 = new Agent();
-        Agent a2 = new Agent();
-        Agent a3 = new Agent();
-        a1.setPosition(0, 6);
-        a2.setPosition(2, 0);
-        a3.setPosition(3, 5);
+        Agent a1 = new Agent(1, 200);
+        Agent a2 = new Agent(2, 200);
+        Agent a3 = new Agent(3, 10);
+        warehouse.addAgent(a1, 0, 6);
+        warehouse.addAgent(a2, 2, 0);
+        warehouse.addAgent(a3, 3, 5);
         candidateAgents.add(a1);
         candidateAgents.add(a2);
         candidateAgents.add(a3);
 
-        Position gatePos = new Position(0, 0);
+        warehouse.init();
 
-        Map<HiveObject, HiveObject> assignment = AgentAssigner.assignAgents(gatePos, selectedRackList, candidateAgents);
+        // The nearest agent to the second rack cannot carry the added weight
+        Map<Rack, Agent> assignment = AgentAssigner.assignAgents(selectedRackList, candidateAgents, 20);
 
         assertEquals(a2, assignment.get(selectedRackList.get(0)));
         assertEquals(a1, assignment.get(selectedRackList.get(1)));
+
+        // Racks outnumbering the agents are left unassigned
+        candidateAgents.remove(a1);
+        candidateAgents.remove(a3);
+        assignment = AgentAssigner.assignAgents(selectedRackList, candidateAgents, 20);
+
+        assertEquals(1, assignment.size());
+        assertEquals(a2, assignment.get(selectedRackList.get(0)));
+    }
+
+    @Test
+    public void hungarianSolverTest() {
+        Random random = new Random(19);
+
+        for (int t = 0; t < 200; ++t) {
+            int n = 1 + random.nextInt(5);
+            int m = 1 + random.nextInt(5);
+            int[][] cost = new int[n][m];
+
+            for (int i = 0; i < n; ++i) {
+                for (int j = 0; j < m; ++j) {
+                    cost[i][j] = (random.nextInt(5) == 0 ? HungarianSolver.INFEASIBLE : random.nextInt(50));
+                }
+            }
+
+            int[] ret = HungarianSolver.solve(cost);
+
+            // Check the assignment is valid
+            Set<Integer> cols = new HashSet<>();
+            int cnt = 0;
+            long total = 0;
+
+            for (int i = 0; i < n; ++i) {
+                if (ret[i] < 0) {
+                    continue;
+                }
+
+                assertEquals(true, cols.add(ret[i]));
+                assertEquals(true, cost[i][ret[i]] != HungarianSolver.INFEASIBLE);
+                cnt++;
+                total += cost[i][ret[i]];
+            }
+
+            // Compare against the brute force solution
+            long[] best = bruteForce(cost, 0, new boolean[m]);
+            assertEquals(best[0], cnt);
+            assertEquals(best[1], total);
+        }
+    }
+
+    /**
+     * Returns the maximum number of assigned rows and the minimum cost of such assignment.
+     */
+    private long[] bruteForce(int[][] cost, int row, boolean[] used) {
+        if (row == cost.length) {
+            return new long[]{0, 0};
+        }
+
+        // Leave the current row unassigned
+        long[] ret = bruteForce(cost, row + 1, used);
+
+        for (int j = 0; j < used.length; ++j) {
+            if (used[j] || cost[row][j] == HungarianSolver.INFEASIBLE) {
+                continue;
+            }
+
+            used[j] = true;
+            long[] cur = bruteForce(cost, row + 1, used);
+            used[j] = false;
+
+            cur = new long[]{cur[0] + 1, cur[1] + cost[row][j]};
+
+            if (cur[0] > ret[0] || (cur[0] == ret[0] && cur[1] < ret[1])) {
+                ret = cur;
+            }
+        }
+
+        return ret;
     }
 }
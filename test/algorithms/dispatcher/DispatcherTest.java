@@ -7,6 +7,9 @@ import models.tasks.orders.CollectOrder;
 import models.tasks.orders.Order;
 import models.warehouses.WarehouseHelper;
 import models.warehouses.Warehouse;
+import utils.Constants.DispatchMode;
+import utils.Constants.WaitReason;
+import utils.exceptions.DataException;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -146,11 +149,11 @@ public class DispatcherTest {
 
         warehouse.run();
 
-        // Unfulfilled order yet as the agent carrying rack of needed items cannot load more than
-        // the load capacity of 100.
+        // Unfulfilled order yet as it is parked waiting for an idle agent while both agents
+        // are busy with the first order, so the added items do not wake it up.
         assertEquals(warehouse.getOrderById(2).getPendingUnits(), 5);
-
-        // TODO @Samir be able to change the load capacity to test order fulfilling.
+        assertEquals(warehouse.getWaitingOrdersCount(WaitReason.NO_IDLE_AGENT), 1);
+        assertEquals(warehouse.getWaitingOrdersCount(WaitReason.NO_RACK), 0);
     }
 
     @Test
@@ -211,4 +214,29 @@ public class DispatcherTest {
         assertNull(warehouse.getRackById(2).getAllocatingAgent());
         assertEquals(warehouse.getRackById(4).getAllocatingAgent().getId(), 2);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void dispatchStrategyLookupTest() throws Exception {
+        assertTrue(DispatchStrategy.forName("sequential", new DispatchConfig()) instanceof SequentialDispatchStrategy);
+        assertTrue(DispatchStrategy.forName("PARALLEL", new DispatchConfig()) instanceof ParallelDispatchStrategy);
+        assertTrue(DispatchStrategy.of(DispatchMode.BATCH, new DispatchConfig(5, 0)) instanceof BatchDispatchStrategy);
+
+        // The batch strategy dispatches only at the end of every window
+        DispatchStrategy batch = DispatchStrategy.forName("batch", new DispatchConfig(5, 0));
+        assertFalse(batch.isDue(3));
+        assertTrue(batch.isDue(10));
+        assertNull(batch.getMetrics());
+
+        // The zone strategy is configured by name as well, and reports its metrics
+        DispatchStrategy zone = DispatchStrategy.forName("zone", new DispatchConfig(1, 6));
+        assertTrue(zone instanceof ZoneDispatchStrategy);
+        assertNotNull(zone.getMetrics());
+
+        try {
+            DispatchStrategy.forName("unknown", new DispatchConfig());
+            fail();
+        } catch (DataException ex) {
+            assertEquals(ex.getMessage(), "Unknown dispatch strategy: unknown.");
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package algorithms.dispatcher;
+
+import algorithms.dispatcher.task_allocator_helpers.RackSetCover;
+import models.facilities.Gate;
+import models.facilities.Rack;
+import models.items.Item;
+import models.items.QuantityAddable;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import static algorithms.dispatcher.task_allocator_helpers.RackSelectorHelper.*;
+import static org.junit.Assert.assertEquals;
+
+
+public class RackSetCoverTest {
+
+    @Test
+    public void matchesMapBasedSelectionTest() {
+        Random random = new Random(23);
+
+        for (int t = 0; t < 300; ++t) {
+            int itemsCount = 1 + random.nextInt(6);
+            int racksCount = 1 + random.nextInt(40);
+            boolean unitDemand = (t % 3 == 0);
+
+            List<Item> items = new ArrayList<>();
+            for (int i = 0; i < itemsCount; ++i) {
+                items.add(new Item(i + 1, 1));
+            }
+
+            // Create the demand
+            OrderBatch order = new OrderBatch(new Gate(1));
+            for (Item item : items) {
+                order.add(item, unitDemand ? 1 : 1 + random.nextInt(10));
+            }
+
+            // Create the candidate racks with random costs, including unreachable ones
+            Map<Rack, Integer> candidates = new HashMap<>();
+            for (int j = 0; j < racksCount; ++j) {
+                Rack rack = new Rack(j + 1, 1000, 10);
+
+                for (Item item : items) {
+                    if (random.nextInt(3) > 0) {
+                        rack.add(item, random.nextInt(6));
+                    }
+                }
+
+                candidates.put(rack, random.nextInt(8) == 0 ? Integer.MAX_VALUE : random.nextInt(30));
+            }
+
+            int threshold = (t % 5 == 0 ? 2 : 100);
+            Predicate<Rack> assignable = r -> r.getId() % 7 != 0;
+
+            List<Rack> expected = selectMapBased(order, new HashMap<>(candidates), assignable, threshold);
+            List<Rack> actual = new RackSetCover(order, candidates).select(assignable, threshold);
+
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void improveRemovalTest() {
+        Item item1 = new Item(1, 1);
+        Item item2 = new Item(2, 1);
+
+        OrderBatch order = new OrderBatch(new Gate(1));
+        order.add(item1, 5);
+        order.add(item2, 5);
+
+        Rack rack1 = new Rack(1, 100, 10);
+        Rack rack2 = new Rack(2, 100, 10);
+        Rack rack3 = new Rack(3, 100, 10);
+        rack1.add(item1, 5);
+        rack2.add(item2, 5);
+        rack3.add(item1, 5);
+        rack3.add(item2, 5);
+
+        Map<Rack, Integer> candidates = new HashMap<>();
+        candidates.put(rack1, 4);
+        candidates.put(rack2, 4);
+        candidates.put(rack3, 9);
+
+        // The greedy stage selects all the racks, and the redundancy elimination is skipped
+        RackSetCover cover = new RackSetCover(order, candidates);
+        assertEquals(3, cover.select(r -> true, 0).size());
+
+        // The most costly redundant rack is removed first
+        Set<Rack> improved = new HashSet<>(cover.improve(r -> true, System.nanoTime() + 1_000_000_000L));
+        assertEquals(Set.of(rack1, rack2), improved);
+    }
+
+    @Test
+    public void improveKeepsCoverageTest() {
+        Random random = new Random(29);
+
+        for (int t = 0; t < 200; ++t) {
+            List<Item> items = new ArrayList<>();
+            OrderBatch order = new OrderBatch(new Gate(1));
+
+            for (int i = 0; i < 1 + random.nextInt(5); ++i) {
+                Item item = new Item(i + 1, 1);
+                items.add(item);
+                order.add(item, 1 + random.nextInt(10));
+            }
+
+            Map<Rack, Integer> candidates = new HashMap<>();
+            for (int j = 0; j < 1 + random.nextInt(30); ++j) {
+                Rack rack = new Rack(j + 1, 1000, 10);
+
+                for (Item item : items) {
+                    if (random.nextBoolean()) {
+                        rack.add(item, random.nextInt(8));
+                    }
+                }
+
+                candidates.put(rack, random.nextInt(30));
+            }
+
+            RackSetCover cover = new RackSetCover(order, candidates);
+            List<Rack> greedy = cover.select(r -> true, 0);
+            List<Rack> improved = cover.improve(r -> true, System.nanoTime() + 1_000_000_000L);
+
+            // The total cost never increases
+            assertEquals(true, getCost(improved, candidates) <= getCost(greedy, candidates));
+
+            // The covered quantity of every item is kept
+            for (Item item : items) {
+                assertEquals(getCovered(greedy, order, item), getCovered(improved, order, item));
+            }
+        }
+    }
+
+    private int getCost(List<Rack> racks, Map<Rack, Integer> candidates) {
+        return racks.stream().mapToInt(candidates::get).sum();
+    }
+
+    private int getCovered(List<Rack> racks, QuantityAddable<Item> order, Item item) {
+        return Math.min(order.get(item), racks.stream().mapToInt(r -> r.get(item)).sum());
+    }
+
+    /**
+     * The map-based greedy rack selection followed by the elimination of the redundant racks.
+     */
+    private List<Rack> selectMapBased(QuantityAddable<Item> order, Map<Rack, Integer> candidateRacks,
+                                      Predicate<Rack> assignable, int threshold) {
+        Map<Rack, Map<Item, Integer>> maxTakenItemsQs = new HashMap<>();
+        Map<Rack, Map<Item, Integer>> totalItemsQs = new HashMap<>();
+        for (var r : candidateRacks.keySet()) {
+            maxTakenItemsQs.put(r, rackOrderItemsSupply(r, order.iterator()));
+            totalItemsQs.put(r, rackMaxOrderItemsSupply(r, order.iterator()));
+        }
+
+        Map<Rack, Integer> selectedRacks = new HashMap<>();
+        Map<Item, Integer> selectedRacksItemsQs = new HashMap<>();
+
+        int orderTotalQs = 0;
+        for (var itemEntry : order) {
+            orderTotalQs += itemEntry.getValue();
+        }
+
+        while (orderTotalQs > 0 && candidateRacks.size() > 0) {
+            Rack bestRack = null;
+            double bestRank = 1e9;
+
+            var it = candidateRacks.entrySet().iterator();
+            while (it.hasNext()) {
+                Rack rack = it.next().getKey();
+                int rackTotalItemSupply = maxTakenItemsQs.get(rack).values().stream().reduce(0, Integer::sum);
+
+                if (rackTotalItemSupply == 0 || candidateRacks.get(rack) == Integer.MAX_VALUE) {
+                    it.remove();
+                    continue;
+                }
+
+                double rackCostRate = 1. * candidateRacks.get(rack) / rackTotalItemSupply;
+
+                if (Double.compare(rackCostRate, bestRank) < 0) {
+                    bestRack = rack;
+                    bestRank = rackCostRate;
+                }
+            }
+
+            if (bestRack == null) {
+                break;
+            }
+
+            int bestRackCost = candidateRacks.remove(bestRack);
+
+            if (!assignable.test(bestRack)) {
+                continue;
+            }
+
+            selectedRacks.put(bestRack, bestRackCost);
+
+            orderTotalQs = 0;
+            for (var itemEntry : order) {
+                Item item = itemEntry.getKey();
+                int bestRackQ = totalItemsQs.get(bestRack).get(item);
+
+                orderTotalQs += (itemEntry.getValue() - bestRackQ);
+                selectedRacksItemsQs.put(item, selectedRacksItemsQs.getOrDefault(item, 0) + bestRackQ);
+            }
+        }
+
+        if (selectedRacks.size() < threshold) {
+            removeRedundantRack(selectedRacks, candidateRacks, selectedRacksItemsQs, order, true);
+        }
+
+        return new ArrayList<>(selectedRacks.keySet());
+    }
+}
@@ -1,6 +1,24 @@
 package algorithms.planner;
 
+import models.agents.Agent;
+import models.facilities.Gate;
+import models.facilities.Rack;
+import models.items.Item;
+import models.tasks.AbstractTask;
+import models.tasks.orders.CollectOrder;
+import models.tasks.orders.Order;
+import models.warehouses.Warehouse;
+import models.warehouses.WarehouseHelper;
+
+import utils.Constants;
+import utils.Constants.*;
+
+import org.junit.Assert;
 import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Stack;
 
 
 public class PlannerTest {
@@ -12,4 +30,153 @@ public class PlannerTest {
     public static void before() throws Exception {
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void sippTimedPlanTest() throws Exception {
+        WarehouseHelper.configureWarehouse("data/1A_1R_1G.hive");
+
+        // Get components
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.setPlannerMode(PlannerMode.SIPP);
+        Agent agent = warehouse.getAgentById(1);
+        Rack rack = warehouse.getRackById(1);
+        agent.setActionDurations(2, 3, 4);
+
+        // Plan
+        Stack<Long> schedule = new Stack<>();
+        Stack<Integer> plan = SippPlanner.plan(agent, rack, schedule);
+
+        //
+        // Checks
+        //
+        Assert.assertNotNull(plan);
+        Assert.assertEquals(plan.size(), rack.getDistanceTo(agent));
+        Assert.assertEquals(plan.size(), schedule.size());
+
+        // Every move must start after the previous one has been completed
+        long prv = -agent.getMoveDuration();
+        for (int i = schedule.size() - 1; i >= 0; --i) {
+            Assert.assertTrue(schedule.get(i) >= prv + agent.getMoveDuration());
+            prv = schedule.get(i);
+        }
+    }
+
+    @Test
+    public void sippAvoidReservedCellsTest() throws Exception {
+        WarehouseHelper.configureWarehouse("data/1A_1R_1G.hive");
+
+        // Get components
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.setPlannerMode(PlannerMode.SIPP);
+        ReservationTable table = warehouse.getReservationTable();
+        Agent agent = warehouse.getAgentById(1);
+        Agent other = new Agent(2, 100);
+        Rack rack = warehouse.getRackById(1);
+
+        // Reserve the cell in front of the agent by another agent
+        int row = agent.getRow() + Constants.DIR_ROW[agent.getDirection()];
+        int col = agent.getCol() + Constants.DIR_COL[agent.getDirection()];
+        int cell = row * warehouse.getCols() + col;
+        table.reserve(other, cell, 0, 5, 0);
+
+        List<long[]> intervals = table.getSafeIntervals(agent, cell, 0);
+        Assert.assertEquals(intervals.size(), 1);
+        Assert.assertEquals(intervals.get(0)[0], 6);
+
+        // Plan
+        Stack<Long> schedule = new Stack<>();
+        Stack<Integer> plan = SippPlanner.plan(agent, rack, schedule);
+        Assert.assertNotNull(plan);
+
+        // Simulate the plan and check that the reserved cell is never entered while reserved
+        int r = agent.getRow();
+        int c = agent.getCol();
+        for (int i = plan.size() - 1; i >= 0; --i) {
+            r += Constants.DIR_ROW[plan.get(i)];
+            c += Constants.DIR_COL[plan.get(i)];
+
+            if (r == row && c == col) {
+                Assert.assertTrue(schedule.get(i) > 5);
+            }
+        }
+
+        // The agent's own reservations are not considered while planning
+        Assert.assertEquals(table.getSafeIntervals(agent, rack.getRow() * warehouse.getCols() + rack.getCol(), 0).size(), 1);
+
+        // Releasing the reservations frees the cell again
+        table.release(other);
+        Assert.assertEquals(table.getSafeIntervals(agent, cell, 0).get(0)[0], 0);
+    }
+
+    @Test
+    public void sippReservedCellsTillNextPlanTest() throws Exception {
+        WarehouseHelper.configureWarehouse("data/1A_1R_1G.hive");
+
+        // Get components
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.setPlannerMode(PlannerMode.SIPP);
+        ReservationTable table = warehouse.getReservationTable();
+        Agent agent = warehouse.getAgentById(1);
+        Agent other = new Agent(2, 100);
+        Rack rack = warehouse.getRackById(1);
+        int srcCell = agent.getRow() * warehouse.getCols() + agent.getCol();
+        int dstCell = rack.getRow() * warehouse.getCols() + rack.getCol();
+
+        // No plan can be found while the current cell of the agent is reserved by another agent
+        table.reserve(other, srcCell, 0, 5, 0);
+        Assert.assertNull(SippPlanner.plan(agent, rack, new Stack<>()));
+        table.release(other);
+
+        // The target cell remains reserved after reaching it until the next plan
+        Stack<Long> schedule = new Stack<>();
+        Assert.assertNotNull(SippPlanner.plan(agent, rack, schedule));
+
+        List<long[]> intervals = table.getSafeIntervals(other, dstCell, 0);
+        Assert.assertTrue(intervals.isEmpty() || intervals.get(intervals.size() - 1)[1] < Long.MAX_VALUE);
+
+        table.release(agent);
+        Assert.assertEquals(table.getSafeIntervals(other, dstCell, 0).size(), 1);
+    }
+
+    @Test
+    public void sippActionDurationsTest() throws Exception {
+        long gridTime = runSingleOrder(PlannerMode.GRID, 1);
+        long sippTime = runSingleOrder(PlannerMode.SIPP, 1);
+        long slowTime = runSingleOrder(PlannerMode.SIPP, 3);
+
+        Assert.assertEquals(gridTime, sippTime);
+        Assert.assertTrue(slowTime > sippTime);
+    }
+
+    /**
+     * Runs a single collect order till fulfilled using the given planner mode.
+     *
+     * @param mode     the planner mode.
+     * @param duration the duration of every agent action.
+     *
+     * @return the number of time steps needed to fulfill the order.
+     */
+    private long runSingleOrder(PlannerMode mode, int duration) throws Exception {
+        WarehouseHelper.configureWarehouse("data/1A_1R_1G.hive");
+
+        // Get components
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.setPlannerMode(mode);
+        Agent agent = warehouse.getAgentById(1);
+        Gate gate = warehouse.getGateById(1);
+        Item item = warehouse.getItemById(1);
+        agent.setActionDurations(duration, duration, duration);
+
+        // Create new order
+        Order order = new CollectOrder(1, gate);
+        order.add(item, 1);
+        warehouse.addOrder(order);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(item.getTotalUnits(), 9);
+        return warehouse.getTime();
+    }
+}
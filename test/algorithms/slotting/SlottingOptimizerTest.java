@@ -0,0 +1,160 @@
+package algorithms.slotting;
+
+import algorithms.slotting.SlottingOptimizer.Layout;
+import models.agents.Agent;
+import models.facilities.Gate;
+import models.facilities.Rack;
+import models.items.Item;
+import models.maps.Position;
+import models.tasks.orders.CollectOrder;
+import models.tasks.orders.Order;
+import models.warehouses.Warehouse;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+public class SlottingOptimizerTest {
+
+    @Test
+    public void coOccurringItemsTest() throws Exception {
+        /*
+         * G: gate, R1: rack of item 3, R2: rack of item 1, R3: rack of item 2
+         * ----------------------------------
+         * | .| .| .| .| .| .| .| .| .| .| A|
+         * |--------------------------------|
+         * | G| .| .|R1| .| .|R2| .| .|R3| .|
+         * |--------------------------------|
+         * | .| .| .| .| .| .| .| .| .| .| .|
+         * ----------------------------------
+         */
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(3, 11);
+
+        Item item1 = new Item(1, 1);
+        Item item2 = new Item(2, 1);
+        Item item3 = new Item(3, 1);
+        warehouse.addItem(item1);
+        warehouse.addItem(item2);
+        warehouse.addItem(item3);
+
+        Rack rack1 = new Rack(1, 30, 10);
+        Rack rack2 = new Rack(2, 30, 10);
+        Rack rack3 = new Rack(3, 30, 10);
+        rack1.add(item3, 10);
+        rack2.add(item1, 10);
+        rack3.add(item2, 10);
+
+        Gate gate = new Gate(1);
+        warehouse.addGate(gate, 1, 0);
+        warehouse.addRack(rack1, 1, 3);
+        warehouse.addRack(rack2, 1, 6);
+        warehouse.addRack(rack3, 1, 9);
+        warehouse.addAgent(new Agent(1, 100), 0, 10);
+        warehouse.init();
+
+        // Items 1 and 2 are always ordered together
+        List<Order> orders = new ArrayList<>();
+        for (int id = 1; id <= 10; ++id) {
+            Order order = new CollectOrder(id, gate);
+            order.add(item1, 1);
+            order.add(item2, 1);
+            orders.add(order);
+        }
+
+        SlottingOptimizer optimizer = new SlottingOptimizer(warehouse.getRackList(), warehouse.getGateList(),
+                warehouse.getItemList(), orders, 100);
+
+        Layout layout = optimizer.optimize(2, 5000, 7);
+
+        // Both items are stored in the rack of the nearest cell
+        Rack hot = warehouse.getRackList().stream()
+                .filter(r -> optimizer.getQuantity(layout, r, item1) > 0)
+                .findFirst()
+                .orElseThrow();
+
+        assertEquals(10, optimizer.getQuantity(layout, hot, item1));
+        assertEquals(10, optimizer.getQuantity(layout, hot, item2));
+        assertEquals(new Position(1, 3), optimizer.getPosition(layout, hot));
+        assertEquals(2. * rack1.getDistanceTo(gate.getPosition()), optimizer.getExpectedCost(layout), 1e-9);
+    }
+
+    @Test
+    public void constraintsTest() throws Exception {
+        Random random = new Random(13);
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(12, 12);
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 1; i <= 8; ++i) {
+            Item item = new Item(i, 1 + random.nextInt(4));
+            warehouse.addItem(item);
+            items.add(item);
+        }
+
+        Gate gate = new Gate(1);
+        warehouse.addGate(gate, 0, 0);
+        warehouse.addAgent(new Agent(1, 130), 11, 11);
+
+        // Add racks of random capacities and contents in a grid of aisles
+        for (int id = 1; id <= 12; ++id) {
+            Rack rack = new Rack(id, 40 + random.nextInt(60), random.nextInt(30));
+
+            for (Item item : items) {
+                int quantity = random.nextInt(4);
+
+                if (random.nextBoolean() && rack.getStoredWeight() + quantity * item.getWeight() <= 40) {
+                    rack.add(item, quantity);
+                }
+            }
+
+            warehouse.addRack(rack, 2 + 3 * ((id - 1) / 4), 2 + 3 * ((id - 1) % 4));
+        }
+
+        warehouse.init();
+
+        List<Order> orders = new ArrayList<>();
+        for (int id = 1; id <= 50; ++id) {
+            Order order = new CollectOrder(id, gate);
+            for (int k = 0; k < 1 + random.nextInt(3); ++k) {
+                order.add(items.get(random.nextInt(items.size())), 1 + random.nextInt(2));
+            }
+            orders.add(order);
+        }
+
+        SlottingOptimizer optimizer = new SlottingOptimizer(warehouse.getRackList(), warehouse.getGateList(),
+                warehouse.getItemList(), orders, 130);
+
+        Layout initial = optimizer.getInitialLayout();
+        Layout layout = optimizer.optimize(4, 20000, 3);
+
+        // The expected cost never increases
+        assertTrue(optimizer.getExpectedCost(layout) <= optimizer.getExpectedCost(initial));
+
+        // The total units of every item are kept
+        for (Item item : items) {
+            int total = 0;
+            for (Rack rack : warehouse.getRackList()) {
+                total += optimizer.getQuantity(layout, rack, item);
+            }
+            assertEquals(item.getTotalUnits(), total);
+        }
+
+        // Every rack is within its capacity and liftable, and every cell holds a single rack
+        Set<Integer> cells = new HashSet<>();
+        for (Rack rack : warehouse.getRackList()) {
+            int stored = 0;
+            for (Item item : items) {
+                stored += optimizer.getQuantity(layout, rack, item) * item.getWeight();
+            }
+
+            assertTrue(stored <= Math.max(rack.getStoredWeight(),
+                    Math.min(rack.getCapacity(), 130 - rack.getContainerWeight())));
+            Position pos = optimizer.getPosition(layout, rack);
+            assertTrue(cells.add(pos.row * warehouse.getCols() + pos.col));
+        }
+    }
+}
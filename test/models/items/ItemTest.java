@@ -1,11 +1,16 @@
 package models.items;
 
+import models.facilities.Gate;
 import models.facilities.Rack;
+import models.warehouses.Warehouse;
+import models.warehouses.WarehouseHelper;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.NavigableSet;
+
 
 public class ItemTest {
 
@@ -211,4 +216,45 @@ public class ItemTest {
         Assert.assertEquals(item2.get(rack2), 6 - 3);
         Assert.assertEquals(rack2.get(item2), 6 - 3);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void gateSortedRacksTest() throws Exception {
+        WarehouseHelper.configureWarehouse("data/dispatcher_test/0A_6R_1G.hive");
+
+        // Get components
+        Warehouse warehouse = Warehouse.getInstance();
+        Gate gate = warehouse.getGateById(1);
+        Item item = warehouse.getItemById(1);
+        NavigableSet<Rack> sortedRacks = item.getSortedRacks(gate);
+
+        //
+        // Initial checks
+        //
+        Assert.assertNotNull(sortedRacks);
+
+        int cnt = 0, prvDis = -1;
+        for (Rack rack : sortedRacks) {
+            Assert.assertTrue(item.get(rack) != 0);
+            Assert.assertTrue(rack.getDistanceTo(gate.getPosition()) >= prvDis);
+            prvDis = rack.getDistanceTo(gate.getPosition());
+            cnt++;
+        }
+        for (var rackEntry : item) {
+            cnt--;
+        }
+        Assert.assertEquals(cnt, 0);
+
+        //
+        // Reserving all the units of the nearest rack removes it from the index
+        //
+        Rack nearest = sortedRacks.first();
+        int units = nearest.get(item);
+
+        nearest.reserve(item, units);
+        Assert.assertFalse(sortedRacks.contains(nearest));
+
+        // Undoing the reservation adds it back
+        nearest.reserve(item, -units);
+        Assert.assertEquals(sortedRacks.first(), nearest);
+    }
+}
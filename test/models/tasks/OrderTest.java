@@ -6,10 +6,13 @@ import models.facilities.Rack;
 import models.items.Item;
 import models.tasks.orders.CollectOrder;
 import models.tasks.orders.Order;
+import models.tasks.orders.OrderQueue;
 import models.tasks.orders.RefillOrder;
 import models.warehouses.WarehouseHelper;
 import models.warehouses.Warehouse;
 
+import utils.Constants;
+
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -130,4 +133,46 @@ public class OrderTest {
         Assert.assertEquals(rack.get(item), 15);
         Assert.assertFalse(order.isPending());
     }
+
+    @Test
+    public void orderQueueTest() throws Exception {
+        WarehouseHelper.configureWarehouse("data/1A_1R_1G.hive");
+
+        Gate gate = Warehouse.getInstance().getGateById(1);
+
+        // Orders received at time 0, where the aging interval is 100 time steps
+        Order order1 = new CollectOrder(1, gate);   // Aged priority 200, urgency 300
+        order1.setPriority(2);
+        Order order2 = new CollectOrder(2, gate);   // Aged priority 0, urgency 100
+        Order order3 = new CollectOrder(3, gate);   // Aged priority 100, urgency 50
+        order3.setPriority(1);
+        order3.setDeadline(50);
+
+        OrderQueue queue = new OrderQueue();
+        queue.add(order1);
+        queue.add(order2);
+        queue.add(order3);
+
+        // Orders are not queued twice
+        Assert.assertFalse(queue.offer(order2));
+        Assert.assertEquals(queue.size(), 3);
+
+        // First in first out
+        Assert.assertEquals(queue.peek(), order1);
+
+        // Earliest deadline first
+        queue.setMode(Constants.SchedulingMode.EDF);
+        Assert.assertEquals(queue.peek(), order3);
+
+        // Highest aged priority first
+        queue.setMode(Constants.SchedulingMode.AGING);
+        Assert.assertEquals(queue.poll(), order2);
+        Assert.assertEquals(queue.poll(), order3);
+
+        // Indexed removal
+        Assert.assertTrue(queue.remove(order1));
+        Assert.assertFalse(queue.contains(order1));
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll());
+    }
 }
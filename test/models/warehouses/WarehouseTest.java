@@ -1,17 +1,29 @@
 package models.warehouses;
 
+import algorithms.dispatcher.DemandForecaster;
+import algorithms.dispatcher.ZoneDispatchStrategy;
+
+import models.agents.Agent;
 import models.facilities.Gate;
 import models.facilities.Rack;
+import models.facilities.Station;
 import models.items.Item;
+import models.maps.AgentIndex;
+import models.maps.Position;
 import models.tasks.AbstractTask;
 import models.tasks.orders.CollectOrder;
 import models.tasks.orders.Order;
+import models.tasks.orders.OrderStatistics;
 import models.tasks.orders.RefillOrder;
 
+import utils.Constants;
+
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.*;
+
 
 public class WarehouseTest {
 
@@ -345,4 +357,1003 @@ public class WarehouseTest {
         // Print final warehouse
         warehouse.print();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void batchDispatchSharedRackTest() throws Exception {
+        WarehouseHelper.configureWarehouse("data/multi_orders.hive");
+
+        // Get components
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.setDispatchMode(Constants.DispatchMode.BATCH, 1);
+        Agent agent = warehouse.getAgentById(1);
+        Rack rack = warehouse.getRackById(3);
+
+        // Create new orders at the same gate, both can be served by rack 3
+        Order order1 = new CollectOrder(1, warehouse.getGateById(1));
+        order1.add(warehouse.getItemById(2), 5);
+        warehouse.addOrder(order1);
+
+        Order order2 = new CollectOrder(2, warehouse.getGateById(1));
+        order2.add(warehouse.getItemById(3), 5);
+        warehouse.addOrder(order2);
+
+        // Dispatch both orders in a single wave
+        warehouse.run();
+
+        Assert.assertFalse(order1.isPending());
+        Assert.assertFalse(order2.isPending());
+        Assert.assertEquals(agent.getActiveTask().getRack(), rack);
+        Assert.assertEquals(agent.getActiveTask().getRunningOrdersCount(), 2);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order1.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(rack.get(warehouse.getItemById(2)), 95);
+        Assert.assertEquals(rack.get(warehouse.getItemById(3)), 12);
+    }
+
+    @Test
+    public void parallelDispatchConflictTest() throws Exception {
+        WarehouseHelper.configureWarehouse("data/multi_orders.hive");
+
+        // Get components
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.setDispatchMode(Constants.DispatchMode.PARALLEL, 1);
+        Item item = warehouse.getItemById(1);
+
+        // Create new orders competing on the same item
+        Order order1 = new CollectOrder(1, warehouse.getGateById(1));
+        order1.add(item, 8);
+        warehouse.addOrder(order1);
+
+        Order order2 = new CollectOrder(2, warehouse.getGateById(1));
+        order2.add(item, 8);
+        warehouse.addOrder(order2);
+
+        // Both orders select the same racks in parallel, only the first one is fully committed
+        warehouse.run();
+
+        Assert.assertFalse(order1.isPending());
+        Assert.assertTrue(order2.isPending());
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order1.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(item.getTotalUnits(), 27 - 16);
+        Assert.assertEquals(item.getReservedUnits(), 0);
+    }
+
+    @Test
+    public void auctionQueuedTaskTest() throws Exception {
+        WarehouseHelper.configureWarehouse("data/1A_2R_1G.hive");
+
+        // Get components
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.setAssignmentMode(Constants.AssignmentMode.AUCTION);
+        Agent agent = warehouse.getAgentById(1);
+        Rack rack1 = warehouse.getRackById(1);
+        Rack rack2 = warehouse.getRackById(2);
+        Gate gate = warehouse.getGateById(1);
+
+        // Keep the only agent busy with the first order
+        Order order1 = new CollectOrder(1, gate);
+        order1.add(warehouse.getItemById(1), 3);
+        warehouse.addOrder(order1);
+        warehouse.run();
+
+        Assert.assertFalse(order1.isPending());
+        Assert.assertEquals(agent.getActiveTask().getRack(), rack1);
+
+        // The busy agent wins the second order after finishing its current task
+        Order order2 = new CollectOrder(2, gate);
+        order2.add(warehouse.getItemById(2), 4);
+        warehouse.addOrder(order2);
+        warehouse.run();
+
+        Assert.assertFalse(order2.isPending());
+        Assert.assertEquals(agent.getTasks().size(), 2);
+        Assert.assertEquals(agent.getActiveTask().getRack(), rack1);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order1.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(rack1.get(warehouse.getItemById(1)), 2);
+        Assert.assertEquals(rack2.get(warehouse.getItemById(2)), 1);
+        Assert.assertFalse(agent.isActive());
+    }
+
+    @Test
+    public void waitingOrdersTest() throws Exception {
+        WarehouseHelper.configureWarehouse("data/1A_2R_1G.hive");
+
+        // Get components
+        Warehouse warehouse = Warehouse.getInstance();
+        Gate gate = warehouse.getGateById(1);
+
+        // Keep the only agent busy with the first order
+        Order order1 = new CollectOrder(1, gate);
+        order1.add(warehouse.getItemById(1), 3);
+        warehouse.addOrder(order1);
+        warehouse.run();
+
+        // The second order waits for an idle agent instead of being retried every time step
+        Order order2 = new CollectOrder(2, gate);
+        order2.add(warehouse.getItemById(2), 4);
+        warehouse.addOrder(order2);
+        warehouse.run();
+
+        Assert.assertTrue(order2.isPending());
+        Assert.assertEquals(warehouse.getPendingOrdersCount(), 0);
+        Assert.assertEquals(warehouse.getWaitingOrdersCount(Constants.WaitReason.NO_IDLE_AGENT), 1);
+        Assert.assertEquals(warehouse.getWaitingOrdersCount(Constants.WaitReason.NO_RACK), 0);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order1.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(warehouse.getWaitingOrdersCount(Constants.WaitReason.NO_IDLE_AGENT), 0);
+    }
+
+    @Test
+    public void edfSchedulingTest() throws Exception {
+        WarehouseHelper.configureWarehouse("data/1A_2R_1G.hive");
+
+        // Get components
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.setSchedulingMode(Constants.SchedulingMode.EDF);
+        Agent agent = warehouse.getAgentById(1);
+        Rack rack2 = warehouse.getRackById(2);
+        Gate gate = warehouse.getGateById(1);
+
+        // The later order with a tight deadline is dispatched first to the only agent
+        Order order1 = new CollectOrder(1, gate);
+        order1.add(warehouse.getItemById(1), 3);
+        warehouse.addOrder(order1);
+
+        Order order2 = new CollectOrder(2, gate);
+        order2.add(warehouse.getItemById(2), 4);
+        order2.setDeadline(20);
+        warehouse.addOrder(order2);
+
+        warehouse.run();
+
+        Assert.assertTrue(order1.isPending());
+        Assert.assertFalse(order2.isPending());
+        Assert.assertEquals(agent.getActiveTask().getRack(), rack2);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order1.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+
+        // Check the deadline statistics
+        OrderStatistics stats = warehouse.getOrderStatistics();
+        Assert.assertEquals(stats.getFulfilledCount(), 2);
+        Assert.assertEquals(stats.getDeadlinesCount(), 1);
+        Assert.assertEquals(stats.getMeanLateness(), order2.getLateness(), 1e-9);
+        Assert.assertEquals(stats.getHitsCount(), order2.getLateness() <= 0 ? 1 : 0);
+    }
+
+    @Test
+    public void rackRepositioningTest() throws Exception {
+        Warehouse warehouse = configureRepositioningWarehouse();
+        Rack near = warehouse.getRackById(1);
+        Rack far = warehouse.getRackById(2);
+        Gate gate = warehouse.getGateById(1);
+
+        // Make the items of the far rack hot
+        Order order = new CollectOrder(1, gate);
+        order.add(warehouse.getItemById(2), 5);
+        warehouse.addOrder(order);
+
+        // Keep running through the idle periods
+        for (int i = 0; i < 300; ++i) {
+            warehouse.run();
+        }
+
+        Assert.assertEquals(order.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+
+        // The hot rack is moved to the cell near the gate
+        Assert.assertEquals(far.getRow(), 2);
+        Assert.assertEquals(far.getCol(), 3);
+        Assert.assertEquals(near.getRow(), 2);
+        Assert.assertEquals(near.getCol(), 15);
+        Assert.assertEquals(warehouse.get(2, 3).getFacility(), far);
+        Assert.assertEquals(warehouse.get(2, 15).getFacility(), near);
+        Assert.assertFalse(far.isAllocated());
+        Assert.assertFalse(near.isAllocated());
+
+        for (Agent agent : warehouse.getAgentList()) {
+            Assert.assertFalse(agent.isActive());
+        }
+    }
+
+    @Test
+    public void relocationPreemptionTest() throws Exception {
+        Warehouse warehouse = configureRepositioningWarehouse();
+        Rack near = warehouse.getRackById(1);
+        Gate gate = warehouse.getGateById(1);
+
+        Order order1 = new CollectOrder(1, gate);
+        order1.add(warehouse.getItemById(2), 5);
+        warehouse.addOrder(order1);
+
+        // Move the agent away from the hot rack with a small order of the side rack
+        warehouse.setRepositioning(false);
+        while (warehouse.run()) ;
+
+        Order order2 = new CollectOrder(2, gate);
+        order2.add(warehouse.getItemById(3), 1);
+        warehouse.addOrder(order2);
+        while (warehouse.run()) ;
+
+        warehouse.setRepositioning(true);
+
+        // Run till the relocation tasks are dispatched
+        int steps = 0;
+        while (warehouse.getActiveAgents().size() < 2 && steps++ < 300) {
+            warehouse.run();
+        }
+
+        Assert.assertEquals(warehouse.getActiveAgents().size(), 2);
+        for (Agent agent : warehouse.getActiveAgents()) {
+            Assert.assertTrue(agent.getActiveTask().isRelocation());
+        }
+
+        // A real order pre-empts the relocations as long as their racks are not lifted
+        Order order3 = new CollectOrder(3, gate);
+        order3.add(warehouse.getItemById(1), 2);
+        warehouse.addOrder(order3);
+        warehouse.setRepositioning(false);
+        warehouse.run();
+
+        Assert.assertFalse(order3.isPending());
+        Assert.assertEquals(warehouse.getActiveAgents().size(), 1);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order3.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(near.getRow(), 2);
+        Assert.assertEquals(near.getCol(), 3);
+        Assert.assertEquals(warehouse.get(2, 3).getFacility(), near);
+    }
+
+    /**
+     * Configures a warehouse of a cold rack near the gate, a hot rack far from it,
+     * a side rack, and two agents.
+     */
+    private Warehouse configureRepositioningWarehouse() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(5, 20);
+
+        Item item1 = new Item(1, 1);
+        Item item2 = new Item(2, 1);
+        Item item3 = new Item(3, 1);
+        warehouse.addItem(item1);
+        warehouse.addItem(item2);
+        warehouse.addItem(item3);
+
+        Rack near = new Rack(1, 100, 100);
+        Rack far = new Rack(2, 100, 100);
+        Rack side = new Rack(3, 100, 100);
+        near.add(item1, 10);
+        far.add(item2, 10);
+        side.add(item3, 10);
+
+        warehouse.addGate(new Gate(1), 2, 0);
+        warehouse.addRack(near, 2, 3);
+        warehouse.addRack(far, 2, 15);
+        warehouse.addRack(side, 0, 17);
+        warehouse.addAgent(new Agent(1, 200), 0, 8);
+        warehouse.addAgent(new Agent(2, 200), 4, 5);
+
+        warehouse.init();
+        warehouse.setRepositioning(true);
+        return warehouse;
+    }
+
+    @Test
+    public void gateQueueSelectionTest() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(5, 12);
+
+        Gate gate1 = new Gate(1);
+        Gate gate2 = new Gate(2);
+        warehouse.addGate(gate1, 2, 0);
+        warehouse.addGate(gate2, 2, 11);
+
+        // Rack 1 is nearer to gate 1, while the other racks keep gate 1 busy
+        for (int id = 1; id <= 3; ++id) {
+            Item item = new Item(id, 1);
+            Rack rack = new Rack(id, 100, 10);
+            warehouse.addItem(item);
+            rack.add(item, 10);
+            warehouse.addRack(rack, id == 1 ? 2 : 0, id == 1 ? 4 : 2 * id);
+            warehouse.addAgent(new Agent(id, 200), 4, 3 * id);
+        }
+
+        warehouse.init();
+
+        for (int id = 2; id <= 3; ++id) {
+            Order order = new CollectOrder(id, gate1);
+            order.add(warehouse.getItemById(id), 1);
+            warehouse.addOrder(order);
+        }
+
+        warehouse.run();
+
+        Assert.assertEquals(gate1.getQueueLength(), 2);
+        Assert.assertEquals(gate2.getQueueLength(), 0);
+
+        // The order allowing both gates avoids the queue of gate 1
+        Order order = new CollectOrder(1, gate1);
+        order.addAllowedGate(gate2);
+        order.add(warehouse.getItemById(1), 1);
+        warehouse.addOrder(order);
+        warehouse.run();
+
+        Assert.assertEquals(order.getDeliveryGate(), gate2);
+        Assert.assertEquals(gate2.getQueueLength(), 1);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(gate1.getQueueLength(), 0);
+        Assert.assertEquals(gate2.getQueueLength(), 0);
+        Assert.assertEquals(gate1.getServedCount(), 2);
+        Assert.assertEquals(gate2.getServedCount(), 1);
+        Assert.assertTrue(gate1.getUtilization() > 0 && gate1.getUtilization() <= 1);
+    }
+
+    @Test
+    public void rideAlongTest() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(5, 12);
+
+        Gate gate1 = new Gate(1);
+        Gate gate2 = new Gate(2);
+        warehouse.addGate(gate1, 2, 0);
+        warehouse.addGate(gate2, 2, 11);
+
+        Item item1 = new Item(1, 1);
+        Item item2 = new Item(2, 1);
+        warehouse.addItem(item1);
+        warehouse.addItem(item2);
+
+        // Rack 1 is far from gate 1 and holds both items, while rack 2 is near gate 1
+        Rack rack1 = new Rack(1, 100, 20);
+        Rack rack2 = new Rack(2, 100, 10);
+        rack1.add(item1, 10);
+        rack1.add(item2, 10);
+        rack2.add(item1, 10);
+        warehouse.addRack(rack1, 2, 8);
+        warehouse.addRack(rack2, 2, 3);
+
+        warehouse.addAgent(new Agent(1, 200), 4, 9);
+        warehouse.addAgent(new Agent(2, 200), 0, 3);
+
+        warehouse.init();
+
+        Order order1 = new CollectOrder(1, gate1);
+        order1.add(item2, 1);
+        warehouse.addOrder(order1);
+        warehouse.run();
+
+        // The orders ride along with rack 1 already heading to the gates instead of lifting rack 2
+        Order order2 = new CollectOrder(2, gate1);
+        order2.add(item1, 1);
+        warehouse.addOrder(order2);
+
+        Order order3 = new CollectOrder(3, gate2);
+        order3.add(item2, 1);
+        warehouse.addOrder(order3);
+        warehouse.run();
+
+        Assert.assertEquals(warehouse.getActiveAgents().size(), 1);
+        Assert.assertFalse(rack2.isAllocated());
+        Assert.assertEquals(gate1.getQueueLength(), 1);
+        Assert.assertEquals(gate2.getQueueLength(), 1);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order3.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(rack1.get(item1), 9);
+        Assert.assertEquals(rack1.get(item2), 8);
+        Assert.assertEquals(rack2.get(item1), 10);
+        Assert.assertEquals(gate2.getServedCount(), 1);
+    }
+
+    @Test
+    public void dynamicStorageTest() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(5, 12);
+        warehouse.setStorageMode(Constants.StorageMode.DYNAMIC);
+
+        Gate gate = new Gate(1);
+        warehouse.addGate(gate, 2, 0);
+
+        Item item1 = new Item(1, 1);
+        Item item2 = new Item(2, 1);
+        warehouse.addItem(item1);
+        warehouse.addItem(item2);
+
+        // The high-demand rack 1 is stored far from the gate
+        Rack rack1 = new Rack(1, 100, 10);
+        Rack rack2 = new Rack(2, 100, 10);
+        rack1.add(item1, 10);
+        rack2.add(item2, 10);
+        warehouse.addRack(rack1, 2, 10);
+        warehouse.addRack(rack2, 2, 2);
+
+        warehouse.addAgent(new Agent(1, 200), 4, 3);
+        warehouse.addAgent(new Agent(2, 200), 4, 9);
+
+        warehouse.init();
+
+        // Build up the demand of item 1, while rack 1 returns to the only free cell it left
+        for (int id = 1; id <= 3; ++id) {
+            Order order = new CollectOrder(id, gate);
+            order.add(item1, 2);
+            warehouse.addOrder(order);
+
+            while (warehouse.run()) ;
+        }
+
+        Assert.assertEquals(rack1.getPosition(), new Position(2, 10));
+
+        Order order1 = new CollectOrder(4, gate);
+        order1.add(item1, 1);
+        order1.add(item2, 1);
+        warehouse.addOrder(order1);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        // Both racks are returned to the free cells matching their demand
+        Assert.assertEquals(order1.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(rack1.getPosition(), new Position(2, 2));
+        Assert.assertEquals(rack2.getPosition(), new Position(2, 10));
+        Assert.assertEquals(warehouse.get(2, 2).getFacility(), rack1);
+        Assert.assertEquals(warehouse.get(2, 10).getFacility(), rack2);
+        Assert.assertEquals(rack1.getDistanceTo(gate.getPosition()), 2);
+
+        // The moved rack is still reachable at its new cell
+        Order order2 = new CollectOrder(5, gate);
+        order2.add(item1, 1);
+        warehouse.addOrder(order2);
+
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(rack1.get(item1), 2);
+        Assert.assertEquals(warehouse.get(rack1.getPosition()).getFacility(), rack1);
+    }
+
+    @Test
+    public void dynamicStorageRideAlongTest() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(5, 12);
+        warehouse.setStorageMode(Constants.StorageMode.DYNAMIC);
+
+        Gate gate = new Gate(1);
+        warehouse.addGate(gate, 2, 0);
+
+        Item item1 = new Item(1, 1);
+        Item item2 = new Item(2, 1);
+        warehouse.addItem(item1);
+        warehouse.addItem(item2);
+
+        Rack rack1 = new Rack(1, 100, 10);
+        Rack rack2 = new Rack(2, 100, 10);
+        rack1.add(item1, 10);
+        rack2.add(item2, 10);
+        warehouse.addRack(rack1, 2, 3);
+        warehouse.addRack(rack2, 2, 10);
+
+        warehouse.addAgent(new Agent(1, 200), 4, 3);
+        warehouse.addAgent(new Agent(2, 200), 4, 10);
+
+        warehouse.init();
+
+        Order order1 = new CollectOrder(1, gate);
+        order1.add(item1, 1);
+        warehouse.addOrder(order1);
+
+        Order order2 = new CollectOrder(2, gate);
+        order2.add(item2, 1);
+        warehouse.addOrder(order2);
+
+        // Let rack 1 claim its storage cell after delivering its order
+        while (order1.getStatus() != AbstractTask.TaskStatus.FULFILLED) {
+            warehouse.run();
+        }
+
+        warehouse.run();
+        warehouse.run();
+
+        // The order rides along with rack 1 before returning, so its storage is claimed again
+        Order order3 = new CollectOrder(3, gate);
+        order3.add(item1, 1);
+        warehouse.addOrder(order3);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        // Every rack owns its own storage cell
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order3.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertNotEquals(rack1.getPosition(), rack2.getPosition());
+        Assert.assertEquals(warehouse.get(rack1.getPosition()).getFacility(), rack1);
+        Assert.assertEquals(warehouse.get(rack2.getPosition()).getFacility(), rack2);
+    }
+
+    @Test
+    public void chargingTest() throws Exception {
+        runChargingScenario(0.5);
+    }
+
+    @Test
+    public void chargingSmallFleetTest() throws Exception {
+        // The default share of a fleet of 2 agents still lets a single agent charge
+        runChargingScenario(Constants.DEFAULT_CHARGING_SHARE);
+    }
+
+    /**
+     * Runs a single order with the nearer of two agents having a nearly depleted battery.
+     *
+     * @param share the maximum share of the fleet allowed to charge at the same time.
+     */
+    private void runChargingScenario(double share) throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(5, 12);
+        warehouse.setCharging(true, share, true);
+
+        Gate gate = new Gate(1);
+        Station station = new Station(1);
+        warehouse.addGate(gate, 2, 0);
+        warehouse.addStation(station, 0, 11);
+
+        Item item = new Item(1, 1);
+        Rack rack = new Rack(1, 100, 10);
+        warehouse.addItem(item);
+        rack.add(item, 10);
+        warehouse.addRack(rack, 2, 6);
+
+        // Agent 1 is nearer to the rack, but its battery is nearly depleted
+        Agent agent1 = new Agent(1, 200);
+        Agent agent2 = new Agent(2, 200);
+        warehouse.addAgent(agent1, 4, 5);
+        warehouse.addAgent(agent2, 4, 10);
+        agent2.setBatteryLevel(Constants.AGENT_MAX_BATTERY_LEVEL);
+        agent1.setBatteryLevel(1);
+
+        for (int i = 0; i < Constants.AGENT_BATTERY_STEPS_PER_LEVEL - 10; ++i) {
+            agent1.consumeStep();
+        }
+
+        warehouse.init();
+
+        Order order = new CollectOrder(1, gate);
+        order.add(item, 1);
+        warehouse.addOrder(order);
+        warehouse.run();
+
+        // The long trip is given to agent 2, while agent 1 goes charging
+        Assert.assertTrue(agent2.isActive());
+        Assert.assertFalse(agent1.isActive());
+        Assert.assertTrue(warehouse.isCharging(agent1));
+        Assert.assertFalse(warehouse.isCharging(agent2));
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(agent1.getBatteryLevel(), Constants.AGENT_MAX_BATTERY_LEVEL);
+        Assert.assertFalse(warehouse.isCharging(agent1));
+        Assert.assertFalse(station.isBound());
+        Assert.assertFalse(station.isAllocated());
+    }
+
+    @Test
+    public void refillConsolidationTest() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(5, 12);
+        warehouse.setRefillWindow(3);
+
+        Gate gate = new Gate(1);
+        warehouse.addGate(gate, 2, 0);
+
+        Item item = new Item(1, 1);
+        Rack rack = new Rack(1, 20, 10);
+        warehouse.addItem(item);
+        warehouse.addRack(rack, 2, 8);
+
+        Agent agent = new Agent(1, 200);
+        warehouse.addAgent(agent, 4, 9);
+
+        warehouse.init();
+
+        Order order1 = new RefillOrder(1, gate, rack);
+        order1.add(item, 5);
+        warehouse.addOrder(order1);
+        warehouse.run();
+
+        // The first refill is held for the consolidation window
+        Assert.assertFalse(rack.isAllocated());
+
+        Order order2 = new RefillOrder(2, gate, rack);
+        order2.add(item, 5);
+        warehouse.addOrder(order2);
+
+        // The third refill exceeds the rack capacity along with the other two
+        Order order3 = new RefillOrder(3, gate, rack);
+        order3.add(item, 15);
+        warehouse.addOrder(order3);
+
+        while (!rack.isAllocated()) {
+            warehouse.run();
+        }
+
+        // Both refills are consolidated into a single trip
+        Assert.assertEquals(agent.getTasks().size(), 1);
+        Assert.assertEquals(agent.getTasks().peek().getAddedWeight(), 10);
+        Assert.assertTrue(order3.isPending());
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order1.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertTrue(order3.isPending());
+        Assert.assertEquals(rack.get(item), 10);
+        Assert.assertEquals(gate.getServedCount(), 1);
+    }
+
+    @Test
+    public void lookAheadAssignmentTest() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(5, 12);
+        warehouse.setAssignmentMode(Constants.AssignmentMode.LOOKAHEAD);
+
+        Gate gate = new Gate(1);
+        warehouse.addGate(gate, 2, 0);
+
+        Item item1 = new Item(1, 1);
+        Item item2 = new Item(2, 1);
+        warehouse.addItem(item1);
+        warehouse.addItem(item2);
+
+        Rack rack1 = new Rack(1, 100, 10);
+        Rack rack2 = new Rack(2, 100, 10);
+        rack1.add(item1, 10);
+        rack2.add(item2, 10);
+        warehouse.addRack(rack1, 2, 2);
+        warehouse.addRack(rack2, 0, 2);
+
+        // Agent 1 is about to serve rack 1 right next to rack 2, while agent 2 is idle across the floor
+        Agent agent1 = new Agent(1, 200);
+        Agent agent2 = new Agent(2, 200);
+        warehouse.addAgent(agent1, 3, 2);
+        warehouse.addAgent(agent2, 4, 11);
+
+        warehouse.init();
+
+        Order order1 = new CollectOrder(1, gate);
+        order1.add(item1, 1);
+        warehouse.addOrder(order1);
+        warehouse.run();
+
+        Order order2 = new CollectOrder(2, gate);
+        order2.add(item2, 1);
+        warehouse.addOrder(order2);
+        warehouse.run();
+
+        // Rack 2 is queued as the next task of agent 1
+        Assert.assertEquals(rack2.getAllocatingAgent(), agent1);
+        Assert.assertEquals(agent1.getTasks().size(), 2);
+        Assert.assertFalse(agent2.isActive());
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order1.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(rack2.get(item2), 9);
+    }
+
+    @Test
+    public void lookAheadBusyFleetTest() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(5, 12);
+        warehouse.setAssignmentMode(Constants.AssignmentMode.LOOKAHEAD);
+
+        Gate gate = new Gate(1);
+        warehouse.addGate(gate, 2, 0);
+
+        Item item1 = new Item(1, 1);
+        Item item2 = new Item(2, 1);
+        warehouse.addItem(item1);
+        warehouse.addItem(item2);
+
+        Rack rack1 = new Rack(1, 100, 10);
+        Rack rack2 = new Rack(2, 100, 10);
+        rack1.add(item1, 10);
+        rack2.add(item2, 10);
+        warehouse.addRack(rack1, 2, 2);
+        warehouse.addRack(rack2, 0, 2);
+
+        // The only agent of the fleet is about to serve rack 1
+        Agent agent = new Agent(1, 200);
+        warehouse.addAgent(agent, 3, 2);
+
+        warehouse.init();
+
+        Order order1 = new CollectOrder(1, gate);
+        order1.add(item1, 1);
+        warehouse.addOrder(order1);
+        warehouse.run();
+
+        Order order2 = new CollectOrder(2, gate);
+        order2.add(item2, 1);
+        warehouse.addOrder(order2);
+        warehouse.run();
+
+        // Rack 2 is queued as the next task of the busy agent instead of waiting for an idle agent
+        Assert.assertTrue(warehouse.getReadyAgents().isEmpty());
+        Assert.assertEquals(rack2.getAllocatingAgent(), agent);
+        Assert.assertEquals(agent.getTasks().size(), 2);
+        Assert.assertEquals(warehouse.getWaitingOrdersCount(Constants.WaitReason.NO_IDLE_AGENT), 0);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order1.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(rack2.get(item2), 9);
+    }
+
+    @Test
+    public void zoneDispatchTest() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(5, 12);
+
+        // Split the floor into a left zone and a right zone
+        ZoneDispatchStrategy strategy = new ZoneDispatchStrategy(6);
+        warehouse.setDispatchStrategy(strategy);
+
+        Gate gate1 = new Gate(1);
+        Gate gate2 = new Gate(2);
+        warehouse.addGate(gate1, 2, 0);
+        warehouse.addGate(gate2, 2, 11);
+
+        Item item1 = new Item(1, 1);
+        Item item2 = new Item(2, 1);
+        warehouse.addItem(item1);
+        warehouse.addItem(item2);
+
+        Rack rack1 = new Rack(1, 100, 10);
+        Rack rack2 = new Rack(2, 100, 10);
+        rack1.add(item1, 10);
+        rack2.add(item2, 10);
+        warehouse.addRack(rack1, 2, 3);
+        warehouse.addRack(rack2, 2, 8);
+
+        Agent agent1 = new Agent(1, 200);
+        Agent agent2 = new Agent(2, 200);
+        warehouse.addAgent(agent1, 4, 2);
+        warehouse.addAgent(agent2, 4, 9);
+
+        warehouse.init();
+
+        // Order 1 is served locally in the left zone
+        Order order1 = new CollectOrder(1, gate1);
+        order1.add(item1, 1);
+
+        // Order 2 is delivered to the left zone, but only the right zone stores its item
+        Order order2 = new CollectOrder(2, gate1);
+        order2.add(item2, 1);
+
+        // Order 3 can be delivered to either zone
+        Order order3 = new CollectOrder(3, gate1);
+        order3.addAllowedGate(gate2);
+        order3.add(item1, 1);
+
+        Assert.assertEquals(strategy.getZone(order1), 1);
+        Assert.assertEquals(strategy.getZone(order3), -1);
+
+        warehouse.addOrder(order1);
+        warehouse.addOrder(order2);
+        warehouse.run();
+
+        // The coordinator delivers rack 2 across the zones by the idle agent of the right zone
+        Assert.assertEquals(rack1.getAllocatingAgent(), agent1);
+        Assert.assertEquals(rack2.getAllocatingAgent(), agent2);
+        Assert.assertEquals(strategy.getCrossZoneTrips(), 1);
+        Assert.assertEquals(strategy.getLentAgents(), 1);
+        Assert.assertEquals(strategy.getZoneOrders(1), 1);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        warehouse.addOrder(order3);
+        while (warehouse.run()) ;
+
+        Assert.assertEquals(order1.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(order3.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(strategy.getCrossZoneOrders(), 1);
+        Assert.assertTrue(strategy.getZoneLatency(1) > 0);
+    }
+
+    @Test
+    public void forecastPreDispatchTest() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(5, 12);
+        warehouse.setForecasting(true);
+
+        Gate gate = new Gate(1);
+        warehouse.addGate(gate, 2, 0);
+
+        Item item = new Item(1, 1);
+        Rack rack = new Rack(1, 100, 20);
+        warehouse.addItem(item);
+        rack.add(item, 20);
+        warehouse.addRack(rack, 2, 10);
+
+        Agent agent = new Agent(1, 200);
+        warehouse.addAgent(agent, 4, 9);
+
+        warehouse.init();
+
+        // Build up the demand history of the item over a whole interval
+        Order order1 = new CollectOrder(1, gate);
+        order1.add(item, 5);
+        warehouse.addOrder(order1);
+
+        while (warehouse.getTime() < Constants.FORECAST_INTERVAL - 1) {
+            warehouse.run();
+        }
+
+        Assert.assertEquals(order1.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertFalse(rack.isAllocated());
+
+        // The rack of the hot item is lifted towards the gate ahead of the next order
+        for (int i = 0; i < Constants.FORECAST_PREDISPATCH_INTERVAL; ++i) {
+            warehouse.run();
+        }
+
+        Assert.assertTrue(rack.isAllocated());
+        Assert.assertEquals(warehouse.getForecaster().getStagings().size(), 1);
+
+        for (int i = 0; i < 20; ++i) {
+            warehouse.run();
+        }
+
+        Assert.assertTrue(rack.isBound());
+        Assert.assertTrue(gate.getDistanceTo(agent) <= Constants.FORECAST_STAGING_DISTANCE);
+
+        // The next order rides along with the staged rack
+        Order order2 = new CollectOrder(2, gate);
+        order2.add(item, 1);
+        warehouse.addOrder(order2);
+
+        // Run till no changes occur
+        while (warehouse.run()) ;
+
+        DemandForecaster forecaster = warehouse.getForecaster();
+
+        Assert.assertEquals(order2.getStatus(), AbstractTask.TaskStatus.FULFILLED);
+        Assert.assertEquals(rack.get(item), 14);
+        Assert.assertEquals(forecaster.getStagedCount(), 1);
+        Assert.assertTrue(forecaster.getStagedLatency() < forecaster.getRegularLatency());
+        Assert.assertTrue(forecaster.getStagings().isEmpty());
+    }
+
+    @Test
+    public void largeOpenFloorRegionsTest() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(2000, 2000);
+
+        // Split the floor by a wall of obstacles crossing several row strips
+        for (int i = 0; i < 2000; ++i) {
+            warehouse.addObstacle(i, 1000);
+        }
+
+        Gate gate1 = new Gate(1);
+        Gate gate2 = new Gate(2);
+        Rack rack = new Rack(1, 100, 100);
+
+        warehouse.addGate(gate1, 0, 0);
+        warehouse.addGate(gate2, 1999, 1999);
+        warehouse.addRack(rack, 1999, 999);
+        warehouse.addAgent(new Agent(1, 200), 1000, 0);
+
+        // Must not overflow the stack while labeling the regions
+        warehouse.init();
+
+        Assert.assertTrue(warehouse.isReachable(rack, gate1));
+        Assert.assertFalse(warehouse.isReachable(rack, gate2));
+    }
+
+    @Test
+    public void readyAgentIndexTest() throws Exception {
+        Warehouse warehouse = Warehouse.getInstance();
+        warehouse.configure(100, 100);
+
+        // Add a wall of obstacles so that guide distances differ from the bucket distances
+        for (int i = 10; i < 100; ++i) {
+            warehouse.addObstacle(i, 50);
+        }
+
+        Random random = new Random(7);
+        Gate gate = new Gate(1);
+        warehouse.addGate(gate, 0, 0);
+
+        // Add racks and agents of different capacities in random free cells
+        List<Rack> racks = new ArrayList<>();
+        for (int id = 1; id <= 120; ++id) {
+            int r, c;
+            do {
+                r = random.nextInt(100);
+                c = random.nextInt(100);
+            } while (warehouse.get(r, c).isObstacle() || warehouse.get(r, c).hasFacility() || warehouse.get(r, c).hasAgent());
+
+            if (id <= 20) {
+                Rack rack = new Rack(id, 100, 100);
+                warehouse.addRack(rack, r, c);
+                racks.add(rack);
+            } else {
+                warehouse.addAgent(new Agent(id, id % 3 == 0 ? 500 : 200), r, c);
+            }
+        }
+
+        warehouse.init();
+
+        AgentIndex index = warehouse.getReadyAgentIndex();
+        Set<Agent> candidates = new HashSet<>(warehouse.getAgentList());
+        Assert.assertEquals(index.size(), 100);
+
+        // Remove some agents from the candidates
+        for (Agent agent : warehouse.getAgentList()) {
+            if (agent.getId() % 7 == 0) {
+                candidates.remove(agent);
+            }
+        }
+
+        //
+        // Compare against the linear scan
+        //
+        for (Rack rack : racks) {
+            for (int weight : new int[]{100, 300, 600}) {
+                int expected = Integer.MAX_VALUE;
+
+                for (Agent agent : candidates) {
+                    if (agent.getLoadCapacity() >= weight) {
+                        expected = Math.min(expected, rack.getDistanceTo(agent.getRow(), agent.getCol()));
+                    }
+                }
+
+                Agent agent = index.findNearest(rack, weight, candidates);
+
+                if (expected == Integer.MAX_VALUE) {
+                    Assert.assertNull(agent);
+                } else {
+                    Assert.assertEquals(rack.getDistanceTo(agent.getRow(), agent.getCol()), expected);
+                    Assert.assertTrue(agent.getLoadCapacity() >= weight);
+                }
+            }
+        }
+    }
+}